@@ -1,8 +1,10 @@
 package com.github.sparkzxl.cache;
 
+import com.github.sparkzxl.cache.properties.CacheProperties;
 import com.github.sparkzxl.cache.service.CacheService;
 import com.github.sparkzxl.cache.service.CaffeineCacheImpl;
 import com.github.sparkzxl.cache.support.CacheExceptionHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -13,12 +15,13 @@ import org.springframework.context.annotation.Import;
  * @author zhouxinlei
  */
 @Configuration
-@Import({CacheExceptionHandler.class})
+@Import({CacheExceptionHandler.class, CacheMetricsConfiguration.class})
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheAutoConfiguration {
 
     @Bean
-    public CacheService cacheCaffeineTemplate() {
-        return new CaffeineCacheImpl();
+    public CacheService cacheCaffeineTemplate(CacheProperties cacheProperties) {
+        return new CaffeineCacheImpl(cacheProperties.getCaffeine());
     }
 
 }
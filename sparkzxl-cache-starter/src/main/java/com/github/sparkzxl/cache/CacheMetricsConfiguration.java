@@ -0,0 +1,110 @@
+package com.github.sparkzxl.cache;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.github.sparkzxl.cache.metrics.CacheMetricsRecorder;
+import com.github.sparkzxl.cache.properties.CacheProperties;
+import com.github.sparkzxl.cache.service.CacheService;
+import com.github.sparkzxl.cache.service.CaffeineCacheImpl;
+import com.github.sparkzxl.cache.service.InstrumentedCacheService;
+import com.github.sparkzxl.cache.service.MultiLevelCacheImpl;
+import com.github.sparkzxl.cache.service.RedisCacheImpl;
+import com.github.sparkzxl.core.metrics.MetricsPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * description: 缓存指标配置
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "cache.metrics", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheMetricsConfiguration implements DisposableBean {
+
+    private ScheduledExecutorService hotKeyReporter;
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public CacheMetricsRecorder cacheMetricsRecorder(ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                                     ApplicationEventPublisher applicationEventPublisher,
+                                                     ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider,
+                                                     CacheProperties cacheProperties) {
+        CacheProperties.MetricsProperties metrics = cacheProperties.getMetrics();
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        // 数据大小按redis实际写入的序列化结果统计
+        RedisTemplate<String, Object> redisTemplate = redisTemplateProvider.getIfUnique();
+        RedisSerializer<Object> payloadSerializer = redisTemplate == null ? null : (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        CacheMetricsRecorder recorder = new CacheMetricsRecorder(meterRegistry,
+                new MetricsPublisher(applicationEventPublisher),
+                metrics,
+                payloadSerializer);
+        long interval = metrics.getReportInterval().toMillis();
+        if (interval > 0) {
+            hotKeyReporter = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("cache-hot-key-", true));
+            hotKeyReporter.scheduleWithFixedDelay(() -> {
+                try {
+                    recorder.reportHotKeys();
+                } catch (Exception e) {
+                    log.warn("Report cache hot keys error: {}", e.getMessage());
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("Autowired cacheMetricsRecorder success!");
+        return recorder;
+    }
+
+    /**
+     * 为缓存实现包装指标统计，指标相关的类只在此配置内引用，未引入micrometer时不会加载
+     */
+    @Bean
+    public static BeanPostProcessor cacheServiceMetricsPostProcessor(ObjectProvider<CacheMetricsRecorder> cacheMetricsRecorderProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                String cacheName = cacheName(bean);
+                return cacheName == null ? bean
+                        : new InstrumentedCacheService((CacheService) bean, cacheName, cacheMetricsRecorderProvider.getObject());
+            }
+        };
+    }
+
+    private static String cacheName(Object bean) {
+        if (bean instanceof MultiLevelCacheImpl) {
+            return "multi-level";
+        }
+        if (bean instanceof RedisCacheImpl) {
+            return "redis";
+        }
+        if (bean instanceof CaffeineCacheImpl) {
+            return "caffeine";
+        }
+        return null;
+    }
+
+    @Override
+    public void destroy() {
+        if (hotKeyReporter != null) {
+            hotKeyReporter.shutdownNow();
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package com.github.sparkzxl.cache;
 
+import com.github.sparkzxl.cache.properties.CacheProperties;
 import com.github.sparkzxl.cache.redis.RedisOps;
+import com.github.sparkzxl.cache.redis.SingleFlightLoader;
+import com.github.sparkzxl.cache.serializer.CompactBinaryRedisSerializer;
 import com.github.sparkzxl.cache.serializer.RedisObjectSerializer;
 import com.github.sparkzxl.cache.service.CacheService;
+import com.github.sparkzxl.cache.service.CaffeineCacheImpl;
+import com.github.sparkzxl.cache.service.MultiLevelCacheImpl;
 import com.github.sparkzxl.cache.service.RedisCacheImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
 /**
  * description: redis缓存配置
  *
@@ -26,20 +36,22 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 @Slf4j
 @ConditionalOnClass(RedisConnectionFactory.class)
+@EnableConfigurationProperties(CacheProperties.class)
 public class RedisConfiguration {
 
     /**
      * redisTemplate设置
      *
      * @param redisConnectionFactory redis连接工厂
+     * @param cacheProperties        缓存配置
      * @return RedisTemplate<String, Object>
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory, CacheProperties cacheProperties) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         RedisSerializer<String> stringSerializer = new StringRedisSerializer();
-        RedisSerializer<Object> redisObjectSerializer = new RedisObjectSerializer();
+        RedisSerializer<Object> redisObjectSerializer = redisValueSerializer(cacheProperties.getSerializer());
         redisTemplate.setKeySerializer(stringSerializer);
         redisTemplate.setHashKeySerializer(stringSerializer);
         redisTemplate.setHashValueSerializer(redisObjectSerializer);
@@ -48,6 +60,16 @@ public class RedisConfiguration {
         return redisTemplate;
     }
 
+    private RedisSerializer<Object> redisValueSerializer(CacheProperties.SerializerProperties serializer) {
+        if (serializer.getType() == CacheProperties.SerializerType.BINARY) {
+            log.info("Redis value serializer: compact binary, compress threshold: {}", serializer.getCompressThreshold());
+            return new CompactBinaryRedisSerializer(serializer.getClassIds(),
+                    (int) serializer.getCompressThreshold().toBytes(),
+                    serializer.isReadJson());
+        }
+        return new RedisObjectSerializer();
+    }
+
     @Bean("stringRedisTemplate")
     @ConditionalOnBean(RedisConnectionFactory.class)
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
@@ -56,10 +78,24 @@ public class RedisConfiguration {
         return template;
     }
 
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public SingleFlightLoader singleFlightLoader(StringRedisTemplate stringRedisTemplate, CacheProperties cacheProperties) {
+        CacheProperties.SingleFlightProperties singleFlight = cacheProperties.getSingleFlight();
+        ThreadPoolExecutor asyncExecutor = SingleFlightLoader.newAsyncExecutor(singleFlight.getAsyncThreads(),
+                singleFlight.getAsyncQueueCapacity());
+        if (!singleFlight.isDistributed()) {
+            return new SingleFlightLoader(asyncExecutor);
+        }
+        return new SingleFlightLoader(asyncExecutor, stringRedisTemplate, singleFlight.getLeasePrefix(),
+                singleFlight.getLeaseTime(), singleFlight.getWaitInterval());
+    }
+
     @Bean
     @ConditionalOnMissingBean
-    public RedisOps redisOps(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate) {
-        return new RedisOps(redisTemplate, stringRedisTemplate, true);
+    public RedisOps redisOps(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                             SingleFlightLoader singleFlightLoader) {
+        return new RedisOps(redisTemplate, stringRedisTemplate, true, singleFlightLoader);
     }
 
     @Bean
@@ -74,9 +110,27 @@ public class RedisConfiguration {
     @Bean("redisCacheTemplate")
     @ConditionalOnBean(RedisTemplate.class)
     @Primary
-    public CacheService redisCacheTemplate(RedisTemplate<String, Object> redisTemplate, RedisOps redisOps) {
+    public CacheService redisCacheTemplate(RedisTemplate<String, Object> redisTemplate,
+                                           RedisOps redisOps) {
         log.info("Autowired redisCacheTemplate success!");
         return new RedisCacheImpl(redisTemplate, redisOps);
     }
 
+    @Bean("multiLevelCacheTemplate")
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    @ConditionalOnProperty(prefix = "cache.multi-level", name = "enabled", havingValue = "true")
+    public CacheService multiLevelCacheTemplate(RedisTemplate<String, Object> redisTemplate,
+                                                StringRedisTemplate stringRedisTemplate,
+                                                RedisOps redisOps,
+                                                RedisMessageListenerContainer redisMessageListenerContainer,
+                                                CacheProperties cacheProperties) {
+        MultiLevelCacheImpl multiLevelCache = new MultiLevelCacheImpl(new CaffeineCacheImpl(cacheProperties.getCaffeine()),
+                new RedisCacheImpl(redisTemplate, redisOps),
+                stringRedisTemplate,
+                cacheProperties.getMultiLevel());
+        redisMessageListenerContainer.addMessageListener(multiLevelCache, new ChannelTopic(multiLevelCache.getTopic()));
+        log.info("Autowired multiLevelCacheTemplate success!");
+        return multiLevelCache;
+    }
+
 }
@@ -0,0 +1,17 @@
+package com.github.sparkzxl.cache.metrics;
+
+import com.github.sparkzxl.core.metrics.MetricsEvent;
+
+import java.util.List;
+
+/**
+ * description: 缓存热点key事件，定期通过 {@link com.github.sparkzxl.core.metrics.MetricsPublisher} 发布
+ *
+ * @author zhouxinlei
+ */
+public class CacheHotKeyEvent extends MetricsEvent<List<HotKey>> {
+
+    public CacheHotKeyEvent(List<HotKey> hotKeys) {
+        super(hotKeys);
+    }
+}
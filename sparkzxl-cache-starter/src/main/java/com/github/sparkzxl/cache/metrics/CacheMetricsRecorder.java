@@ -0,0 +1,196 @@
+package com.github.sparkzxl.cache.metrics;
+
+import cn.hutool.core.collection.CollUtil;
+import com.github.sparkzxl.cache.properties.CacheProperties;
+import com.github.sparkzxl.core.metrics.MetricsPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * description: 缓存指标记录
+ * <p>
+ * 按缓存名称和key前缀记录命中率、加载耗时分布、数据大小分布，并通过采样统计热点key，
+ * 指标注册到Micrometer，热点key定期以 {@link CacheHotKeyEvent} 发布；
+ * 数据大小为按采样率抽取的写入值经序列化后的字节数，未配置序列化器时不记录
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class CacheMetricsRecorder {
+
+    private static final String KEY_SEPARATOR = ":";
+    private static final String OTHER_PREFIX = "other";
+    private static final String TAG_CACHE = "cache";
+    private static final String TAG_PREFIX = "prefix";
+    private static final String TAG_RESULT = "result";
+
+    private final MeterRegistry meterRegistry;
+    private final MetricsPublisher metricsPublisher;
+    private final List<String> keyPrefixes;
+    private final int prefixDepth;
+    private final int maxPrefixes;
+    private final int hotKeyTopN;
+    private final int payloadSampleRate;
+    private final RedisSerializer<Object> payloadSerializer;
+    private final HotKeySketch hotKeySketch;
+    private final Map<String, Map<String, PrefixMeters>> metersMap = new ConcurrentHashMap<>();
+
+    public CacheMetricsRecorder(MeterRegistry meterRegistry,
+                                MetricsPublisher metricsPublisher,
+                                CacheProperties.MetricsProperties properties,
+                                RedisSerializer<Object> payloadSerializer) {
+        this.meterRegistry = meterRegistry;
+        this.metricsPublisher = metricsPublisher;
+        this.keyPrefixes = CollUtil.isEmpty(properties.getKeyPrefixes()) ? null :
+                properties.getKeyPrefixes().stream()
+                        .filter(StringUtils::isNotEmpty)
+                        .sorted(Comparator.comparingInt(String::length).reversed())
+                        .collect(Collectors.toList());
+        this.prefixDepth = Math.max(1, properties.getPrefixDepth());
+        this.maxPrefixes = properties.getMaxPrefixes();
+        this.hotKeyTopN = properties.getHotKeyTopN();
+        this.payloadSampleRate = Math.max(1, properties.getPayloadSampleRate());
+        this.payloadSerializer = payloadSerializer;
+        this.hotKeySketch = new HotKeySketch(properties.getHotKeyCapacity(), properties.getHotKeySampleRate());
+    }
+
+    public void recordHit(String cacheName, String key) {
+        meters(cacheName, key).hit.increment();
+        hotKeySketch.offer(key);
+    }
+
+    public void recordMiss(String cacheName, String key) {
+        meters(cacheName, key).miss.increment();
+        hotKeySketch.offer(key);
+    }
+
+    public void recordLoad(String cacheName, String key, long nanos) {
+        meters(cacheName, key).load.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPayload(String cacheName, String key, Object value) {
+        if (value == null || payloadSerializer == null) {
+            return;
+        }
+        if (payloadSampleRate > 1 && ThreadLocalRandom.current().nextInt(payloadSampleRate) != 0) {
+            return;
+        }
+        byte[] bytes;
+        try {
+            bytes = payloadSerializer.serialize(value);
+        } catch (Exception e) {
+            log.debug("Serialize cache payload of key[{}] error: {}", key, e.getMessage());
+            return;
+        }
+        if (bytes != null) {
+            meters(cacheName, key).payload.record(bytes.length);
+        }
+    }
+
+    /**
+     * 获取当前热点key
+     *
+     * @return List<HotKey>
+     */
+    public List<HotKey> hotKeys() {
+        return hotKeySketch.top(hotKeyTopN);
+    }
+
+    /**
+     * 发布热点key事件并衰减计数
+     */
+    public void reportHotKeys() {
+        List<HotKey> hotKeys = hotKeys();
+        hotKeySketch.decay();
+        if (hotKeys.isEmpty()) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Cache hot keys: {}", hotKeys);
+        }
+        if (metricsPublisher != null) {
+            metricsPublisher.publishEvent(new CacheHotKeyEvent(hotKeys));
+        }
+    }
+
+    private String resolvePrefix(String key) {
+        if (key == null) {
+            return OTHER_PREFIX;
+        }
+        if (keyPrefixes != null) {
+            for (String prefix : keyPrefixes) {
+                if (key.startsWith(prefix)) {
+                    return prefix;
+                }
+            }
+            return OTHER_PREFIX;
+        }
+        int index = -1;
+        for (int i = 0; i < prefixDepth; i++) {
+            int next = key.indexOf(KEY_SEPARATOR, index + 1);
+            if (next < 0) {
+                break;
+            }
+            index = next;
+        }
+        // 没有分隔符的key不能作为前缀，否则每个key都会成为一个标签值
+        return index <= 0 ? OTHER_PREFIX : key.substring(0, index);
+    }
+
+    private PrefixMeters meters(String cacheName, String key) {
+        Map<String, PrefixMeters> cacheMeters = metersMap.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        String prefix = resolvePrefix(key);
+        PrefixMeters meters = cacheMeters.get(prefix);
+        if (meters != null) {
+            return meters;
+        }
+        // 限制前缀数量，防止指标标签基数膨胀
+        if (cacheMeters.size() >= maxPrefixes) {
+            prefix = OTHER_PREFIX;
+        }
+        return cacheMeters.computeIfAbsent(prefix, p -> new PrefixMeters(meterRegistry, cacheName, p));
+    }
+
+    private static final class PrefixMeters {
+
+        private final Counter hit;
+        private final Counter miss;
+        private final Timer load;
+        private final DistributionSummary payload;
+
+        private PrefixMeters(MeterRegistry registry, String cacheName, String prefix) {
+            this.hit = Counter.builder("cache.requests")
+                    .description("The number of cache requests")
+                    .tags(TAG_CACHE, cacheName, TAG_PREFIX, prefix, TAG_RESULT, "hit")
+                    .register(registry);
+            this.miss = Counter.builder("cache.requests")
+                    .description("The number of cache requests")
+                    .tags(TAG_CACHE, cacheName, TAG_PREFIX, prefix, TAG_RESULT, "miss")
+                    .register(registry);
+            this.load = Timer.builder("cache.load.duration")
+                    .description("The time taken to load a missing cache value")
+                    .tags(TAG_CACHE, cacheName, TAG_PREFIX, prefix)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.payload = DistributionSummary.builder("cache.payload.size")
+                    .description("The serialized size of sampled cached values")
+                    .baseUnit("bytes")
+                    .tags(TAG_CACHE, cacheName, TAG_PREFIX, prefix)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.sparkzxl.cache.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * description: 热点key
+ *
+ * @author zhouxinlei
+ */
+@Data
+@AllArgsConstructor
+public class HotKey {
+
+    /**
+     * 缓存key
+     */
+    private String key;
+
+    /**
+     * 估算访问次数（已按采样率放大）
+     */
+    private long estimatedCount;
+
+    /**
+     * 估算误差上限
+     */
+    private long error;
+}
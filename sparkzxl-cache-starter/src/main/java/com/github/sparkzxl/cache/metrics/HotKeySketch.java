@@ -0,0 +1,167 @@
+package com.github.sparkzxl.cache.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * description: 基于 Space-Saving 算法的热点key统计
+ * <p>
+ * 只保留固定数量的计数器，按采样率抽样更新，热点key的计数误差有上限，内存占用与访问key数量无关。
+ * 计数器按计数维护在最小堆中，计数增加与替换最小计数器均为 O(log n)
+ *
+ * @author zhouxinlei
+ */
+public class HotKeySketch {
+
+    private final int capacity;
+    private final int sampleRate;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    /**
+     * @param capacity   计数器数量
+     * @param sampleRate 采样率，每 sampleRate 次访问采样一次
+     */
+    public HotKeySketch(int capacity, int sampleRate) {
+        this.capacity = Math.max(1, capacity);
+        this.sampleRate = Math.max(1, sampleRate);
+        this.counters = new HashMap<>(this.capacity * 2);
+        this.heap = new Counter[this.capacity];
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key 缓存key
+     */
+    public void offer(String key) {
+        if (key == null || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+        synchronized (this) {
+            Counter counter = counters.get(key);
+            if (counter != null) {
+                counter.count++;
+                siftDown(counter.index);
+                return;
+            }
+            if (size < capacity) {
+                counter = new Counter(key, 1, 0);
+                counter.index = size;
+                heap[size++] = counter;
+                counters.put(key, counter);
+                siftUp(counter.index);
+                return;
+            }
+            // 替换计数最小的key，新key继承其计数作为误差
+            Counter min = heap[0];
+            counters.remove(min.key);
+            counter = new Counter(key, min.count + 1, min.count);
+            heap[0] = counter;
+            counters.put(key, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * 获取访问次数最多的key
+     *
+     * @param topN 数量
+     * @return List<HotKey>
+     */
+    public List<HotKey> top(int topN) {
+        List<HotKey> hotKeys;
+        synchronized (this) {
+            hotKeys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Counter counter = heap[i];
+                hotKeys.add(new HotKey(counter.key, counter.count * sampleRate, counter.error * sampleRate));
+            }
+        }
+        return hotKeys.stream()
+                .sorted(Comparator.comparingLong(HotKey::getEstimatedCount).reversed())
+                .limit(topN)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 计数衰减一半，使统计结果偏向近期访问
+     */
+    public synchronized void decay() {
+        int retained = 0;
+        for (int i = 0; i < size; i++) {
+            Counter counter = heap[i];
+            counter.count >>= 1;
+            counter.error >>= 1;
+            if (counter.count == 0) {
+                counters.remove(counter.key);
+            } else {
+                counter.index = retained;
+                heap[retained++] = counter;
+            }
+        }
+        for (int i = retained; i < size; i++) {
+            heap[i] = null;
+        }
+        size = retained;
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter {
+
+        private final String key;
+        private long count;
+        private long error;
+        private int index;
+
+        private Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.sparkzxl.cache.properties;
+
+import com.github.sparkzxl.constant.ConfigurationConstant;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * description: 缓存配置
+ *
+ * @author zhouxinlei
+ */
+@Data
+@ConfigurationProperties(prefix = ConfigurationConstant.CACHE_PREFIX)
+public class CacheProperties {
+
+    /**
+     * 本地缓存配置
+     */
+    private CaffeineProperties caffeine = new CaffeineProperties();
+
+    /**
+     * 二级缓存配置
+     */
+    private MultiLevelProperties multiLevel = new MultiLevelProperties();
+
+    /**
+     * 缓存加载合并配置
+     */
+    private SingleFlightProperties singleFlight = new SingleFlightProperties();
+
+    /**
+     * redis value 序列化配置
+     */
+    private SerializerProperties serializer = new SerializerProperties();
+
+    /**
+     * 缓存指标配置
+     */
+    private MetricsProperties metrics = new MetricsProperties();
+
+    /**
+     * description: Caffeine本地缓存配置
+     *
+     * @author zhouxinlei
+     */
+    @Getter
+    @Setter
+    public static class CaffeineProperties {
+
+        /**
+         * 初始容量
+         */
+        private int initialCapacity = 256;
+
+        /**
+         * 最大内存占用，按缓存键值估算大小计算权重
+         */
+        private DataSize maximumMemory = DataSize.ofMegabytes(64);
+
+        /**
+         * 默认过期时间，为空时永不过期
+         */
+        private Duration defaultExpire;
+    }
+
+    /**
+     * description: 二级缓存（本地Caffeine + Redis）配置
+     *
+     * @author zhouxinlei
+     */
+    @Getter
+    @Setter
+    public static class MultiLevelProperties {
+
+        /**
+         * 是否开启二级缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存失效广播通道
+         */
+        private String topic = "cache:multi-level:invalidate";
+
+        /**
+         * 开启本地缓存的key前缀，前缀即缓存名称，未匹配的key直接访问Redis
+         */
+        private List<String> keyPrefixes;
+
+        /**
+         * 本地缓存最长存活时间，防止失效消息丢失时长期读到旧值
+         */
+        private Duration localExpire = Duration.ofMinutes(5);
+    }
+
+    /**
+     * description: 缓存加载合并配置
+     *
+     * @author zhouxinlei
+     */
+    @Getter
+    @Setter
+    public static class SingleFlightProperties {
+
+        /**
+         * 是否开启集群内合并加载（Redis租约）
+         */
+        private boolean distributed = false;
+
+        /**
+         * 租约key前缀
+         */
+        private String leasePrefix = "cache:single-flight";
+
+        /**
+         * 租约时间，超过该时间未加载完成时其他节点自行加载
+         */
+        private Duration leaseTime = Duration.ofSeconds(3);
+
+        /**
+         * 未获取租约时轮询缓存的间隔
+         */
+        private Duration waitInterval = Duration.ofMillis(50);
+
+        /**
+         * 异步加载线程数
+         */
+        private int asyncThreads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 异步加载队列长度
+         */
+        private int asyncQueueCapacity = 1024;
+    }
+
+    /**
+     * description: redis value 序列化配置
+     *
+     * @author zhouxinlei
+     */
+    @Getter
+    @Setter
+    public static class SerializerProperties {
+
+        /**
+         * 序列化方式
+         */
+        private SerializerType type = SerializerType.JSON;
+
+        /**
+         * 二进制序列化压缩阈值，超过该大小的数据进行压缩
+         */
+        private DataSize compressThreshold = DataSize.ofKilobytes(1);
+
+        /**
+         * 二进制序列化时是否兼容读取JSON格式数据，迁移完成后可关闭；关闭后Redis原生写入的数值(INCR等)仍可读取
+         */
+        private boolean readJson = true;
+
+        /**
+         * 二进制序列化类注册表，使用短id代替全限定类名，id一经使用不可变更
+         */
+        private Map<Integer, Class<?>> classIds;
+    }
+
+    /**
+     * description: 缓存指标配置
+     *
+     * @author zhouxinlei
+     */
+    @Getter
+    @Setter
+    public static class MetricsProperties {
+
+        /**
+         * 是否开启缓存指标统计
+         */
+        private boolean enabled = false;
+
+        /**
+         * 指标聚合的key前缀，为空时按分隔符截取前缀
+         */
+        private List<String> keyPrefixes;
+
+        /**
+         * 未配置key前缀时，按 ":" 截取的前缀段数
+         */
+        private int prefixDepth = 2;
+
+        /**
+         * 每个缓存的最大前缀数量，超出部分归入other
+         */
+        private int maxPrefixes = 100;
+
+        /**
+         * 上报的热点key数量
+         */
+        private int hotKeyTopN = 10;
+
+        /**
+         * 热点key统计容量
+         */
+        private int hotKeyCapacity = 100;
+
+        /**
+         * 热点key采样率，每N次访问采样一次
+         */
+        private int hotKeySampleRate = 16;
+
+        /**
+         * 数据大小采样率，每N次写入序列化一次统计大小
+         */
+        private int payloadSampleRate = 16;
+
+        /**
+         * 热点key上报间隔
+         */
+        private Duration reportInterval = Duration.ofMinutes(1);
+    }
+
+    /**
+     * description: redis value 序列化方式
+     *
+     * @author zhouxinlei
+     */
+    public enum SerializerType {
+        /**
+         * jackson json
+         */
+        JSON,
+        /**
+         * smile紧凑二进制
+         */
+        BINARY
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.github.sparkzxl.cache.redis;
+
+/**
+ * description: 批量命令执行结果，在 {@link RedisBatch#execute()} 之后可用
+ *
+ * @author zhouxinlei
+ */
+public class BatchResponse<T> {
+
+    private T value;
+    private boolean done;
+
+    void set(T value) {
+        this.value = value;
+        this.done = true;
+    }
+
+    /**
+     * 获取命令执行结果
+     *
+     * @return T
+     */
+    public T get() {
+        if (!done) {
+            throw new IllegalStateException("Please call RedisBatch.execute() before getting the result");
+        }
+        return value;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
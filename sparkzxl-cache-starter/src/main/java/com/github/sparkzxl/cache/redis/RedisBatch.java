@@ -0,0 +1,354 @@
+package com.github.sparkzxl.cache.redis;
+
+import cn.hutool.core.convert.Convert;
+import com.google.common.collect.Lists;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * description: redis 批量命令构建器
+ * <p>
+ * 将多个不同类型的命令排队，在 {@link #execute()} 时通过 pipeline 一次性发送，
+ * 每条命令返回 {@link BatchResponse}，执行后可获取对应类型的结果。命令数超过 batchSize 时按批拆分发送。
+ * <pre>
+ * RedisBatch batch = redisOps.batch();
+ * BatchResponse&lt;Long&gt; count = batch.incr(new CacheKey("counter"));
+ * batch.hSet("user", "name", "sparkzxl");
+ * batch.execute();
+ * count.get();
+ * </pre>
+ * 非线程安全，每次批量操作新建一个实例。可通过 {@link #onExecuted(Consumer)} 获取执行后本批写入或删除的key。
+ *
+ * @author zhouxinlei
+ */
+public class RedisBatch {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final int batchSize;
+    private final List<Command<?>> commands = new ArrayList<>();
+    private final Set<String> writeKeys = new LinkedHashSet<>();
+    private int commandCount;
+    private Consumer<Set<String>> executeListener;
+
+    public RedisBatch(RedisTemplate<String, Object> redisTemplate, int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 供不使用 pipeline 的子类使用
+     */
+    protected RedisBatch() {
+        this(null, 1);
+    }
+
+    /**
+     * 注册执行回调，每次 {@link #execute()} 之后传入本批写入或删除的key
+     *
+     * @param listener 回调
+     * @return RedisBatch
+     */
+    public RedisBatch onExecuted(Consumer<Set<String>> listener) {
+        this.executeListener = listener;
+        return this;
+    }
+
+    /**
+     * 将哈希表 key 中的域 field 的值设为 value
+     *
+     * @param key   一定不能为 {@literal null}.
+     * @param field 一定不能为 {@literal null}.
+     * @param value 值，为空时缓存空值
+     * @return 是否新建域
+     */
+    public BatchResponse<Boolean> hSet(@NonNull String key, @NonNull Object field, Object value) {
+        Object val = value == null ? new NullVal() : value;
+        written(key);
+        return add(1, operations -> operations.opsForHash().put(key, field, val), results -> Convert.toBool(results.get(0), false));
+    }
+
+    /**
+     * 将哈希表 key 中的域 field 的值设为 value，并设置过期时间
+     *
+     * @param key   一定不能为 {@literal null}.
+     * @param value 值，为空时缓存空值
+     * @return 是否新建域
+     */
+    public BatchResponse<Boolean> hSet(@NonNull CacheHashKey key, Object value) {
+        Object val = value == null ? new NullVal() : value;
+        written(key.getKey());
+        return add(expireCount(key, 1), operations -> {
+            operations.opsForHash().put(key.getKey(), key.getField(), val);
+            expire(operations, key);
+        }, results -> Convert.toBool(results.get(0), false));
+    }
+
+    /**
+     * 返回哈希表 key 中，一个或多个给定域的值
+     *
+     * @param key    一定不能为 {@literal null}.
+     * @param fields 一定不能为 {@literal null}.
+     * @return 给定域的值列表
+     */
+    public BatchResponse<List<Object>> hmGet(@NonNull String key, @NonNull Object... fields) {
+        List<Object> fieldList = Arrays.asList(fields);
+        return add(1, operations -> operations.opsForHash().multiGet(key, fieldList), results -> toList(results.get(0)));
+    }
+
+    /**
+     * 将一个或多个 member 元素加入到集合 key 当中，key 设置了过期时间时同时设置过期时间
+     *
+     * @param key     一定不能为 {@literal null}.
+     * @param members 元素
+     * @return 被添加到集合中的新元素的数量
+     */
+    public BatchResponse<Long> sAdd(@NonNull CacheKey key, Object... members) {
+        written(key.getKey());
+        return add(expireCount(key, 1), operations -> {
+            operations.opsForSet().add(key.getKey(), members);
+            expire(operations, key);
+        }, results -> Convert.toLong(results.get(0), 0L));
+    }
+
+    /**
+     * 将 member 元素及其 score 值加入到有序集 key 当中
+     *
+     * @param key    一定不能为 {@literal null}.
+     * @param member 元素
+     * @param score  分数
+     * @return 是否新增成员
+     */
+    public BatchResponse<Boolean> zAdd(@NonNull String key, Object member, double score) {
+        written(key);
+        return add(1, operations -> operations.opsForZSet().add(key, member, score), results -> Convert.toBool(results.get(0), false));
+    }
+
+    /**
+     * 将 key 中储存的数字值增一，key 设置了过期时间时同时设置过期时间
+     *
+     * @param key 一定不能为 {@literal null}.
+     * @return 执行 INCR 命令之后 key 的值
+     */
+    public BatchResponse<Long> incr(@NonNull CacheKey key) {
+        return incrBy(key, 1L);
+    }
+
+    /**
+     * 将 key 所储存的值加上增量 increment，key 设置了过期时间时同时设置过期时间
+     *
+     * @param key       一定不能为 {@literal null}.
+     * @param increment 增量
+     * @return 加上 increment 之后， key 的值
+     */
+    public BatchResponse<Long> incrBy(@NonNull CacheKey key, long increment) {
+        written(key.getKey());
+        return add(expireCount(key, 1), operations -> {
+            operations.opsForValue().increment(key.getKey(), increment);
+            expire(operations, key);
+        }, results -> Convert.toLong(results.get(0)));
+    }
+
+    /**
+     * 设置键值，key 设置了过期时间时同时设置过期时间
+     *
+     * @param key   一定不能为 {@literal null}.
+     * @param value 值，为空时缓存空值
+     * @return 设置结果
+     */
+    public BatchResponse<Boolean> set(@NonNull CacheKey key, Object value) {
+        Object val = value == null ? new NullVal() : value;
+        written(key.getKey());
+        return add(1, operations -> {
+            if (key.getExpire() != null) {
+                operations.opsForValue().set(key.getKey(), val, key.getExpire());
+            } else {
+                operations.opsForValue().set(key.getKey(), val);
+            }
+        }, results -> Convert.toBool(results.get(0), true));
+    }
+
+    /**
+     * 返回与键 key 相关联的 value 值
+     *
+     * @param key 一定不能为 {@literal null}.
+     * @return 键 key 的值，不存在时为null
+     */
+    public BatchResponse<Object> get(@NonNull String key) {
+        return add(1, operations -> operations.opsForValue().get(key), results -> {
+            Object value = results.get(0);
+            return value instanceof NullVal ? null : value;
+        });
+    }
+
+    /**
+     * 为给定 key 设置生存时间
+     *
+     * @param key 一定不能为 {@literal null}.
+     * @return 是否成功
+     */
+    public BatchResponse<Boolean> expire(@NonNull CacheKey key) {
+        written(key.getKey());
+        return add(expireCount(key, 0), operations -> expire(operations, key),
+                results -> results.isEmpty() ? Boolean.FALSE : Convert.toBool(results.get(0), false));
+    }
+
+    /**
+     * 异步删除给定的一个或多个key
+     *
+     * @param keys 一定不能为 {@literal null}.
+     * @return 被删除 key 的数量
+     */
+    public BatchResponse<Long> unlink(@NonNull String... keys) {
+        List<String> keyList = Arrays.asList(keys);
+        written(keys);
+        return add(1, operations -> operations.unlink(keyList), results -> Convert.toLong(results.get(0), 0L));
+    }
+
+    /**
+     * 已排队的 redis 命令数
+     *
+     * @return int
+     */
+    public int size() {
+        return commandCount;
+    }
+
+    /**
+     * 通过 pipeline 发送所有排队的命令，并填充每条命令的 {@link BatchResponse}
+     *
+     * @return 所有 redis 命令的原始结果
+     */
+    public List<Object> execute() {
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            List<Object> allResults = new ArrayList<>(commandCount);
+            List<Command<?>> chunk = new ArrayList<>();
+            int chunkCommandCount = 0;
+            for (Command<?> command : commands) {
+                if (chunkCommandCount > 0 && chunkCommandCount + command.resultCount > batchSize) {
+                    allResults.addAll(executeChunk(chunk));
+                    chunk = new ArrayList<>();
+                    chunkCommandCount = 0;
+                }
+                chunk.add(command);
+                chunkCommandCount += command.resultCount;
+            }
+            allResults.addAll(executeChunk(chunk));
+            return allResults;
+        } finally {
+            commands.clear();
+            commandCount = 0;
+            fireExecuted();
+        }
+    }
+
+    /**
+     * 记录写入或删除的key
+     *
+     * @param keys 缓存key
+     */
+    protected void written(String... keys) {
+        Collections.addAll(writeKeys, keys);
+    }
+
+    /**
+     * 执行结束后回调本批写入或删除的key，部分命令失败时同样回调
+     */
+    protected void fireExecuted() {
+        if (writeKeys.isEmpty()) {
+            return;
+        }
+        Set<String> keys = new LinkedHashSet<>(writeKeys);
+        writeKeys.clear();
+        if (executeListener != null) {
+            executeListener.accept(keys);
+        }
+    }
+
+    /**
+     * 设置命令执行结果，供子类使用
+     */
+    protected static <T> void complete(BatchResponse<T> response, T value) {
+        response.set(value);
+    }
+
+    private List<Object> executeChunk(List<Command<?>> chunk) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(@NonNull RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (Command<?> command : chunk) {
+                    command.action.accept(redisOperations);
+                }
+                return null;
+            }
+        });
+        int expected = chunk.stream().mapToInt(command -> command.resultCount).sum();
+        if (results.size() != expected) {
+            throw new IllegalStateException("pipeline返回结果数" + results.size() + "与命令数" + expected + "不一致");
+        }
+        int index = 0;
+        for (Command<?> command : chunk) {
+            command.complete(Lists.newArrayList(results.subList(index, index + command.resultCount)));
+            index += command.resultCount;
+        }
+        return results;
+    }
+
+    private <T> BatchResponse<T> add(int resultCount, Consumer<RedisOperations<String, Object>> action, Function<List<Object>, T> mapper) {
+        BatchResponse<T> response = new BatchResponse<>();
+        commands.add(new Command<>(resultCount, action, mapper, response));
+        commandCount += resultCount;
+        return response;
+    }
+
+    private static int expireCount(CacheKey key, int commandCount) {
+        return key.getExpire() != null ? commandCount + 1 : commandCount;
+    }
+
+    private static void expire(RedisOperations<String, Object> operations, CacheKey key) {
+        if (key.getExpire() != null) {
+            operations.expire(key.getKey(), key.getExpire());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> toList(Object value) {
+        return value instanceof List ? (List<Object>) value : Collections.emptyList();
+    }
+
+    private static final class Command<T> {
+
+        private final int resultCount;
+        private final Consumer<RedisOperations<String, Object>> action;
+        private final Function<List<Object>, T> mapper;
+        private final BatchResponse<T> response;
+
+        private Command(int resultCount, Consumer<RedisOperations<String, Object>> action,
+                        Function<List<Object>, T> mapper, BatchResponse<T> response) {
+            this.resultCount = resultCount;
+            this.action = action;
+            this.mapper = mapper;
+            this.response = response;
+        }
+
+        private void complete(List<Object> results) {
+            response.set(results.isEmpty() && resultCount > 0 ? null : mapper.apply(results));
+        }
+    }
+}
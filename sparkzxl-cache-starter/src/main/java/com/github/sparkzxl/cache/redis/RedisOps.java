@@ -4,6 +4,7 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.lang.TypeReference;
+import cn.hutool.core.thread.NamedThreadFactory;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.github.sparkzxl.core.support.ArgumentException;
@@ -11,18 +12,27 @@ import com.github.sparkzxl.core.util.ArgumentAssert;
 import com.github.sparkzxl.core.util.StrPool;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.*;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -47,8 +57,13 @@ public class RedisOps {
     private static final String KEY_NOT_NULL = "key不能为空";
     private static final String CACHE_KEY_NOT_NULL = "缓存{}不能为空";
     private static final int BATCH_SIZE = 1000;
+    /**
+     * 合并加载key前缀，区分不同命令对同一个key的加载
+     */
+    private static final String GET_FLIGHT_PREFIX = "get:";
+    private static final String HGET_FLIGHT_PREFIX = "hget:";
+    private static final String HGETALL_FLIGHT_PREFIX = "hgetall:";
 
-    private static final Map<String, Object> KEY_LOCKS = new ConcurrentHashMap<>();
     private final RedisTemplate<String, Object> redisTemplate;
     private final ValueOperations<String, Object> valueOps;
     private final HashOperations<String, Object, Object> hashOps;
@@ -60,8 +75,19 @@ public class RedisOps {
      * 全局配置是否缓存null值
      */
     private final boolean defaultCacheNullVal;
+    /**
+     * 缓存加载合并器，解决缓存击穿
+     */
+    private final SingleFlightLoader singleFlightLoader;
 
     public RedisOps(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, boolean defaultCacheNullVal) {
+        this(redisTemplate, stringRedisTemplate, defaultCacheNullVal, new SingleFlightLoader());
+    }
+
+    public RedisOps(RedisTemplate<String, Object> redisTemplate,
+                    StringRedisTemplate stringRedisTemplate,
+                    boolean defaultCacheNullVal,
+                    SingleFlightLoader singleFlightLoader) {
         this.redisTemplate = redisTemplate;
         Assert.notNull(redisTemplate);
         valueOps = redisTemplate.opsForValue();
@@ -71,6 +97,7 @@ public class RedisOps {
         zSetOps = redisTemplate.opsForZSet();
         this.stringRedisTemplate = stringRedisTemplate;
         this.defaultCacheNullVal = defaultCacheNullVal;
+        this.singleFlightLoader = singleFlightLoader;
     }
 
     /**
@@ -554,24 +581,40 @@ public class RedisOps {
         if (value != null) {
             return returnVal(value);
         }
-        // 加锁解决缓存击穿
-        synchronized (KEY_LOCKS.computeIfAbsent(key, v -> new Object())) {
-            value = Convert.convert(new TypeReference<T>() {}, valueOps.get(key));
-            if (value != null) {
-                return returnVal(value);
-            }
-
-            try {
-                value = loader.apply(key);
-                this.set(key, value, cacheNullVal);
-            } finally {
-                KEY_LOCKS.remove(key);
-            }
-        }
+        // 合并并发加载解决缓存击穿
+        value = singleFlightLoader.load(GET_FLIGHT_PREFIX + key,
+                () -> Convert.convert(new TypeReference<T>() {}, valueOps.get(key)),
+                () -> {
+                    T loaded = loader.apply(key);
+                    this.set(key, loaded, cacheNullVal);
+                    return loaded;
+                });
         // NullVal 值
         return returnVal(value);
     }
 
+    /**
+     * 异步返回与键 key 相关联的 value 值
+     * <p>
+     * 如果值不存在， 那么调用 loader 方法获取数据后，set 到缓存，同一个key的并发调用共享同一次加载
+     *
+     * @param key             一定不能为 {@literal null}.
+     * @param loader          缓存加载器
+     * @param cacheNullValues 是否缓存空值
+     * @return CompletableFuture
+     * @see <a href="https://redis.io/commands/get">Redis Documentation: GET</a>
+     */
+    public <T> CompletableFuture<T> getAsync(@NonNull String key, Function<String, T> loader, boolean... cacheNullValues) {
+        boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
+        return singleFlightLoader.<T>loadAsync(GET_FLIGHT_PREFIX + key,
+                () -> Convert.convert(new TypeReference<T>() {}, valueOps.get(key)),
+                () -> {
+                    T loaded = loader.apply(key);
+                    this.set(key, loaded, cacheNullVal);
+                    return loaded;
+                }).thenApply(this::returnVal);
+    }
+
     /**
      * 将键 key 的值设为 value ， 并返回键 key 在被设置之前的旧值。
      * <p>
@@ -633,22 +676,39 @@ public class RedisOps {
         if (value != null) {
             return returnVal(value);
         }
-        synchronized (KEY_LOCKS.computeIfAbsent(key.getKey(), v -> new Object())) {
-            value = Convert.convert(new TypeReference<T>() {}, valueOps.get(key.getKey()));
-            if (value != null) {
-                return returnVal(value);
-            }
-
-            try {
-                value = loader.apply(key);
-                this.set(key, value, cacheNullVal);
-            } finally {
-                KEY_LOCKS.remove(key.getKey());
-            }
-        }
+        value = singleFlightLoader.load(GET_FLIGHT_PREFIX + key.getKey(),
+                () -> Convert.convert(new TypeReference<T>() {}, valueOps.get(key.getKey())),
+                () -> {
+                    T loaded = loader.apply(key);
+                    this.set(key, loaded, cacheNullVal);
+                    return loaded;
+                });
         return returnVal(value);
     }
 
+    /**
+     * 异步返回与键 key 相关联的 value 值
+     * <p>
+     * 如果值不存在， 那么调用 loader 方法获取数据后，set 到缓存，同一个key的并发调用共享同一次加载
+     *
+     * @param key             一定不能为 {@literal null}.
+     * @param loader          加载器
+     * @param cacheNullValues 是否缓存空值
+     * @return CompletableFuture
+     * @see <a href="https://redis.io/commands/get">Redis Documentation: GET</a>
+     */
+    public <T> CompletableFuture<T> getAsync(@NonNull CacheKey key, Function<CacheKey, T> loader, boolean... cacheNullValues) {
+        Assert.notNull(key, CACHE_KEY_NOT_NULL, "cacheKey");
+        boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
+        return singleFlightLoader.<T>loadAsync(GET_FLIGHT_PREFIX + key.getKey(),
+                () -> Convert.convert(new TypeReference<T>() {}, valueOps.get(key.getKey())),
+                () -> {
+                    T loaded = loader.apply(key);
+                    this.set(key, loaded, cacheNullVal);
+                    return loaded;
+                }).thenApply(this::returnVal);
+    }
+
     /**
      * 返回键 key 储存的字符串值的长度
      *
@@ -1025,18 +1085,13 @@ public class RedisOps {
         }
 
         String lockKey = key + "@" + field;
-        synchronized (KEY_LOCKS.computeIfAbsent(lockKey, v -> new Object())) {
-            value = Convert.convert(new TypeReference<T>() {}, hashOps.get(key, field));
-            if (value != null) {
-                return returnVal(value);
-            }
-            try {
-                value = loader.apply(key, field);
-                this.hSet(key, field, value, cacheNullVal);
-            } finally {
-                KEY_LOCKS.remove(lockKey);
-            }
-        }
+        value = singleFlightLoader.load(HGET_FLIGHT_PREFIX + lockKey,
+                () -> Convert.convert(new TypeReference<T>() {}, hashOps.get(key, field)),
+                () -> {
+                    T loaded = loader.apply(key, field);
+                    this.hSet(key, field, loaded, cacheNullVal);
+                    return loaded;
+                });
         return returnVal(value);
     }
 
@@ -1079,18 +1134,13 @@ public class RedisOps {
             return returnVal(value);
         }
         String lockKey = key.getKey() + "@" + key.getField();
-        synchronized (KEY_LOCKS.computeIfAbsent(lockKey, v -> new Object())) {
-            value = Convert.convert(new TypeReference<T>() {}, hashOps.get(key.getKey(), key.getField()));
-            if (value != null) {
-                return returnVal(value);
-            }
-            try {
-                value = loader.apply(key);
-                this.hSet(key, value, cacheNullVal);
-            } finally {
-                KEY_LOCKS.remove(key.getKey());
-            }
-        }
+        value = singleFlightLoader.load(HGET_FLIGHT_PREFIX + lockKey,
+                () -> Convert.convert(new TypeReference<T>() {}, hashOps.get(key.getKey(), key.getField())),
+                () -> {
+                    T loaded = loader.apply(key);
+                    this.hSet(key, loaded, cacheNullVal);
+                    return loaded;
+                });
         return returnVal(value);
     }
 
@@ -1321,19 +1371,16 @@ public class RedisOps {
         if (CollUtil.isNotEmpty(map)) {
             return returnMapVal(map);
         }
-        String lockKey = key.getKey();
-        synchronized (KEY_LOCKS.computeIfAbsent(lockKey, v -> new Object())) {
-            map = Convert.convert(new TypeReference<Map<K, V>>() {}, hashOps.entries(key.getKey()));
-            if (CollUtil.isNotEmpty(map)) {
-                return returnMapVal(map);
-            }
-            try {
-                map = loader.apply(key);
-                this.hmSet(key.getKey(), map, cacheNullVal);
-            } finally {
-                KEY_LOCKS.remove(key.getKey());
-            }
-        }
+        map = singleFlightLoader.load(HGETALL_FLIGHT_PREFIX + key.getKey(),
+                () -> {
+                    Map<K, V> cached = Convert.convert(new TypeReference<Map<K, V>>() {}, hashOps.entries(key.getKey()));
+                    return CollUtil.isNotEmpty(cached) ? cached : null;
+                },
+                () -> {
+                    Map<K, V> loaded = loader.apply(key);
+                    this.hmSet(key.getKey(), loaded, cacheNullVal);
+                    return loaded;
+                });
         return returnMapVal(map);
     }
     // ---------------------------- hash end ----------------------------
@@ -2353,16 +2400,150 @@ public class RedisOps {
      * @create [2021/6/18 3:21 下午 ] [tangyh] [初始创建]
      */
     public void scanUnlink(@NonNull String pattern) {
-        log.info("pattern={}", pattern);
+        ScanUnlinkResult result = scanUnlink(pattern, ScanUnlinkOptions.defaultOptions());
+        log.info("pattern={}, result={}", pattern, result);
+    }
+
+    /**
+     * 流式扫描并删除匹配到的key
+     * <p>
+     * 游标每扫描到一批key即异步删除，不在内存中保留全部key；可按每秒删除数限速；
+     * 集群模式下并行扫描所有主节点。
+     *
+     * @param pattern 表达式
+     * @param options 删除选项
+     * @return 扫描及删除数量
+     */
+    public ScanUnlinkResult scanUnlink(@NonNull String pattern, @NonNull ScanUnlinkOptions options) {
         if (StrUtil.isEmpty(pattern) || StrPool.STAR.equals(pattern.trim())) {
             throw new ArgumentException("必须指定匹配符");
         }
-        List<String> keys = scan(pattern);
-        log.info("keys={}", keys.size());
-        if (CollUtil.isEmpty(keys)) {
+        ScanUnlinkTask task = new ScanUnlinkTask(options);
+        ScanOptions scanOptions = ScanOptions.scanOptions().count(task.batchSize).match(pattern).build();
+        RedisConnectionFactory connectionFactory = redisTemplate.getRequiredConnectionFactory();
+        if (isCluster(connectionFactory)) {
+            List<RedisClusterNode> masters;
+            try (RedisClusterConnection clusterConnection = connectionFactory.getClusterConnection()) {
+                masters = Lists.newArrayList(clusterConnection.clusterGetNodes()).stream()
+                        .filter(RedisClusterNode::isMaster)
+                        .collect(Collectors.toList());
+            }
+            task.nodes = masters.size();
+            scanClusterUnlink(connectionFactory, masters, scanOptions, task);
+        } else {
+            task.nodes = 1;
+            redisTemplate.execute((RedisConnection connection) -> {
+                try (Cursor<byte[]> cursor = connection.scan(scanOptions)) {
+                    task.unlink(connection, cursor);
+                }
+                return null;
+            });
+        }
+        return task.snapshot();
+    }
+
+    private void scanClusterUnlink(RedisConnectionFactory connectionFactory, List<RedisClusterNode> masters,
+                                   ScanOptions scanOptions, ScanUnlinkTask task) {
+        if (masters.isEmpty()) {
             return;
         }
-        unlinkStrs(keys);
+        int parallelism = Math.max(1, Math.min(masters.size(), task.parallelism));
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory("redis-scan-unlink-", true));
+        try {
+            List<Future<?>> futures = masters.stream()
+                    .map(node -> executor.submit(() -> {
+                        try (RedisClusterConnection clusterConnection = connectionFactory.getClusterConnection();
+                             Cursor<byte[]> cursor = clusterConnection.scan(node, scanOptions)) {
+                            task.unlink(clusterConnection, cursor);
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scan unlink interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isCluster(RedisConnectionFactory connectionFactory) {
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            return connection instanceof RedisClusterConnection;
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * 流式删除任务，统计扫描、删除数量
+     */
+    private static final class ScanUnlinkTask {
+
+        private final int batchSize;
+        private final int parallelism;
+        private final RateLimiter rateLimiter;
+        private final Consumer<ScanUnlinkResult> progressListener;
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong unlinked = new AtomicLong();
+        private final long startTime = System.currentTimeMillis();
+        private volatile int nodes;
+
+        private ScanUnlinkTask(ScanUnlinkOptions options) {
+            this.batchSize = options.getBatchSize() > 0 ? options.getBatchSize() : BATCH_SIZE;
+            this.parallelism = options.getParallelism();
+            this.rateLimiter = options.getOpsPerSecond() > 0 ? RateLimiter.create(options.getOpsPerSecond()) : null;
+            this.progressListener = options.getProgressListener();
+        }
+
+        private void unlink(RedisConnection connection, Cursor<byte[]> cursor) {
+            List<byte[]> buffer = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                buffer.add(cursor.next());
+                scanned.incrementAndGet();
+                if (buffer.size() >= batchSize) {
+                    flush(connection, buffer);
+                }
+            }
+            flush(connection, buffer);
+        }
+
+        private void flush(RedisConnection connection, List<byte[]> buffer) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            if (rateLimiter != null) {
+                rateLimiter.acquire(buffer.size());
+            }
+            Long count = connection.unlink(buffer.toArray(new byte[0][]));
+            unlinked.addAndGet(count == null ? 0L : count);
+            buffer.clear();
+            if (progressListener != null) {
+                progressListener.accept(snapshot());
+            }
+        }
+
+        private ScanUnlinkResult snapshot() {
+            return new ScanUnlinkResult(scanned.get(), unlinked.get(), nodes, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * 创建批量命令构建器，排队的命令在执行时通过 pipeline 一次性发送
+     *
+     * @return RedisBatch
+     */
+    public RedisBatch batch() {
+        return new RedisBatch(redisTemplate, BATCH_SIZE);
     }
 
     /**
@@ -0,0 +1,43 @@
+package com.github.sparkzxl.cache.redis;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.function.Consumer;
+
+/**
+ * description: 模式匹配删除选项
+ *
+ * @author zhouxinlei
+ */
+@Data
+@Builder
+public class ScanUnlinkOptions {
+
+    /**
+     * 每批扫描并删除的key数量
+     */
+    @Builder.Default
+    private int batchSize = 1000;
+
+    /**
+     * 每秒最多删除的key数量，小于等于0时不限速
+     */
+    @Builder.Default
+    private double opsPerSecond = 0;
+
+    /**
+     * 集群模式下并行扫描的主节点数量
+     */
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 进度回调，每删除一批key回调一次，集群模式下可能被多个线程并发调用
+     */
+    private Consumer<ScanUnlinkResult> progressListener;
+
+    public static ScanUnlinkOptions defaultOptions() {
+        return ScanUnlinkOptions.builder().build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.sparkzxl.cache.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * description: 模式匹配删除结果
+ *
+ * @author zhouxinlei
+ */
+@Data
+@AllArgsConstructor
+public class ScanUnlinkResult {
+
+    /**
+     * 已扫描到的key数量
+     */
+    private long scanned;
+
+    /**
+     * 已删除的key数量
+     */
+    private long unlinked;
+
+    /**
+     * 扫描的节点数量
+     */
+    private int nodes;
+
+    /**
+     * 耗时，单位：毫秒
+     */
+    private long elapsedMillis;
+}
@@ -0,0 +1,243 @@
+package com.github.sparkzxl.cache.redis;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * description: 缓存加载合并器
+ * <p>
+ * 同一个key并发加载时只有一个线程真正执行加载，其余线程共享同一个 {@link CompletableFuture} 结果，
+ * 等待方不持有任何监视器锁。开启分布式模式后，本地leader再通过Redis租约争抢集群内的加载权，
+ * 未抢到租约的节点轮询缓存等待其他节点加载完成，租约过期后自行加载兜底。
+ * 加载过程中同一线程再次加载同一个key时直接执行加载，避免等待自己的结果造成死锁。
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class SingleFlightLoader {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 1024;
+
+    private final ThreadLocal<Set<String>> loadingKeys = new ThreadLocal<>();
+    private final Executor asyncExecutor;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String leasePrefix;
+    private final Duration leaseTime;
+    private final long waitIntervalMillis;
+
+    /**
+     * 仅JVM内合并加载，使用专用的有界异步加载线程池
+     */
+    public SingleFlightLoader() {
+        this(newAsyncExecutor(Runtime.getRuntime().availableProcessors(), DEFAULT_ASYNC_QUEUE_CAPACITY));
+    }
+
+    /**
+     * 仅JVM内合并加载
+     *
+     * @param asyncExecutor 异步加载线程池
+     */
+    public SingleFlightLoader(Executor asyncExecutor) {
+        this(asyncExecutor, null, null, null, null);
+    }
+
+    /**
+     * JVM内合并加载，并通过Redis租约实现集群内合并加载
+     *
+     * @param asyncExecutor       异步加载线程池
+     * @param stringRedisTemplate redis操作模板，为空时不开启分布式租约
+     * @param leasePrefix         租约key前缀
+     * @param leaseTime           租约时间
+     * @param waitInterval        未获取租约时轮询缓存的间隔
+     */
+    public SingleFlightLoader(Executor asyncExecutor,
+                              StringRedisTemplate stringRedisTemplate,
+                              String leasePrefix,
+                              Duration leaseTime,
+                              Duration waitInterval) {
+        this.asyncExecutor = asyncExecutor;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leasePrefix = leasePrefix;
+        this.leaseTime = leaseTime;
+        this.waitIntervalMillis = waitInterval == null ? 50L : Math.max(1L, waitInterval.toMillis());
+    }
+
+    /**
+     * 创建有界异步加载线程池，队列满时拒绝加载
+     *
+     * @param threads       线程数
+     * @param queueCapacity 队列长度
+     * @return ThreadPoolExecutor
+     */
+    public static ThreadPoolExecutor newAsyncExecutor(int threads, int queueCapacity) {
+        ThreadPoolExecutor asyncExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("cache-single-flight-", true),
+                new ThreadPoolExecutor.AbortPolicy());
+        asyncExecutor.allowCoreThreadTimeOut(true);
+        return asyncExecutor;
+    }
+
+    /**
+     * 同步加载
+     *
+     * @param key    加载key
+     * @param cached 读取缓存，返回非null表示已有缓存
+     * @param loader 加载数据并写入缓存
+     * @param <T>    泛型
+     * @return T
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> cached, Supplier<T> loader) {
+        if (isLoading(key)) {
+            return loader.get();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) join(existing);
+        }
+        execute(key, future, cached, loader);
+        return (T) join(future);
+    }
+
+    /**
+     * 异步加载，并发调用共享同一个future
+     *
+     * @param key    加载key
+     * @param cached 读取缓存，返回非null表示已有缓存
+     * @param loader 加载数据并写入缓存
+     * @param <T>    泛型
+     * @return CompletableFuture<T>
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> loadAsync(String key, Supplier<T> cached, Supplier<T> loader) {
+        if (isLoading(key)) {
+            return CompletableFuture.completedFuture(loader.get());
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (CompletableFuture<T>) (CompletableFuture<?>) existing;
+        }
+        try {
+            asyncExecutor.execute(() -> execute(key, future, cached, loader));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return (CompletableFuture<T>) (CompletableFuture<?>) future;
+    }
+
+    /**
+     * 关闭异步加载线程池
+     */
+    public void shutdown() {
+        if (asyncExecutor instanceof ExecutorService) {
+            ((ExecutorService) asyncExecutor).shutdown();
+        }
+    }
+
+    private <T> void execute(String key, CompletableFuture<Object> future, Supplier<T> cached, Supplier<T> loader) {
+        Set<String> keys = loadingKeys.get();
+        if (keys == null) {
+            keys = new HashSet<>();
+            loadingKeys.set(keys);
+        }
+        keys.add(key);
+        try {
+            future.complete(doLoad(key, cached, loader));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                loadingKeys.remove();
+            }
+            inFlight.remove(key, future);
+        }
+    }
+
+    private boolean isLoading(String key) {
+        Set<String> keys = loadingKeys.get();
+        return keys != null && keys.contains(key);
+    }
+
+    private <T> T doLoad(String key, Supplier<T> cached, Supplier<T> loader) {
+        T value = cached.get();
+        if (value != null || stringRedisTemplate == null) {
+            return value != null ? value : loader.get();
+        }
+        String leaseKey = leasePrefix + ":" + key;
+        String token = IdUtil.fastSimpleUUID();
+        long deadline = System.currentTimeMillis() + leaseTime.toMillis();
+        do {
+            if (tryLease(leaseKey, token)) {
+                try {
+                    value = cached.get();
+                    return value != null ? value : loader.get();
+                } finally {
+                    releaseLease(leaseKey, token);
+                }
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            value = cached.get();
+            if (value != null) {
+                return value;
+            }
+        } while (System.currentTimeMillis() < deadline);
+        // 租约持有者未在租约时间内完成加载，自行加载兜底
+        return loader.get();
+    }
+
+    private boolean tryLease(String leaseKey, String token) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTime));
+        } catch (Exception e) {
+            log.warn("Acquire single flight lease [{}] error, fallback to local load", leaseKey, e);
+            return true;
+        }
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(leaseKey), token);
+        } catch (Exception e) {
+            log.warn("Release single flight lease [{}] error", leaseKey, e);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
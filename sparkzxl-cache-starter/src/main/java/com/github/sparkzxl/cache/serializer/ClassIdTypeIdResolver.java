@@ -0,0 +1,66 @@
+package com.github.sparkzxl.cache.serializer;
+
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * description: 类型id解析器，已注册的类使用短id代替全限定类名，未注册的类仍使用类名
+ *
+ * @author zhouxinlei
+ */
+public class ClassIdTypeIdResolver extends ClassNameIdResolver {
+
+    /**
+     * 短id前缀，类名不会以该字符开头
+     */
+    static final String ID_PREFIX = "#";
+
+    private final Map<String, String> classNameToId;
+    private final Map<String, String> idToClassName;
+
+    public ClassIdTypeIdResolver(JavaType baseType,
+                                 TypeFactory typeFactory,
+                                 PolymorphicTypeValidator ptv,
+                                 Map<String, String> classNameToId,
+                                 Map<String, String> idToClassName) {
+        super(baseType, typeFactory, ptv);
+        this.classNameToId = classNameToId;
+        this.idToClassName = idToClassName;
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return toId(super.idFromValue(value));
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> type) {
+        return toId(super.idFromValueAndType(value, type));
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        if (id != null && id.startsWith(ID_PREFIX)) {
+            String className = idToClassName.get(id);
+            if (className == null) {
+                throw new IllegalArgumentException("Unregistered class id [" + id + "]");
+            }
+            return super.typeFromId(context, className);
+        }
+        return super.typeFromId(context, id);
+    }
+
+    private String toId(String className) {
+        if (className == null) {
+            return null;
+        }
+        String id = classNameToId.get(className);
+        return id != null ? id : className;
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.sparkzxl.cache.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.impl.StdTypeResolverBuilder;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * description: 紧凑二进制序列化
+ * <p>
+ * 使用Smile二进制格式（共享属性名、共享短字符串），已注册的类以短id代替全限定类名写入类型信息，
+ * 超过压缩阈值的数据使用deflate压缩。
+ * <p>
+ * 数据格式：1字节魔数 + 1字节标志位 + Smile数据(可能被压缩)。
+ * 不以魔数开头的数据：Redis原生写入的数值(INCR、HINCRBY、INCRBYFLOAT等)始终按数值读取；
+ * 开启兼容模式时其余数据按 {@link RedisObjectSerializer} JSON格式读取，便于从JSON平滑迁移。
+ *
+ * @author zhouxinlei
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+    /**
+     * 魔数，0xB5不是合法的UTF-8首字节，不会与JSON数据冲突
+     */
+    private static final byte MAGIC = (byte) 0xB5;
+    private static final byte FLAG_NONE = 0;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 2;
+
+    private final ObjectMapper objectMapper;
+    private final int compressThreshold;
+    private final RedisSerializer<Object> legacySerializer;
+
+    /**
+     * @param classIds          类注册表，id一经使用不可变更
+     * @param compressThreshold 压缩阈值，单位字节，小于等于0时不压缩
+     * @param readLegacyJson    是否兼容读取JSON格式数据
+     */
+    public CompactBinaryRedisSerializer(Map<Integer, Class<?>> classIds, int compressThreshold, boolean readLegacyJson) {
+        this.objectMapper = createObjectMapper(classIds == null ? Collections.emptyMap() : classIds);
+        this.compressThreshold = compressThreshold;
+        this.legacySerializer = readLegacyJson ? new RedisObjectSerializer() : null;
+    }
+
+    private static ObjectMapper createObjectMapper(Map<Integer, Class<?>> classIds) {
+        Map<String, String> classNameToId = new HashMap<>(classIds.size());
+        Map<String, String> idToClassName = new HashMap<>(classIds.size());
+        classIds.forEach((id, clazz) -> {
+            String typeId = ClassIdTypeIdResolver.ID_PREFIX + id;
+            classNameToId.put(clazz.getName(), typeId);
+            idToClassName.put(typeId, clazz.getName());
+        });
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .disable(SmileGenerator.Feature.WRITE_HEADER)
+                .disable(SmileParser.Feature.REQUIRE_HEADER)
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper(smileFactory);
+        objectMapper.findAndRegisterModules()
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        StdTypeResolverBuilder typeResolverBuilder = new ObjectMapper.DefaultTypeResolverBuilder(ObjectMapper.DefaultTyping.NON_FINAL,
+                LaissezFaireSubTypeValidator.instance) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+                                                PolymorphicTypeValidator subtypeValidator, Collection<NamedType> subtypes,
+                                                boolean forSer, boolean forDeser) {
+                return new ClassIdTypeIdResolver(baseType, config.getTypeFactory(), subtypeValidator, classNameToId, idToClassName);
+            }
+        };
+        typeResolverBuilder = typeResolverBuilder.init(JsonTypeInfo.Id.CLASS, null);
+        typeResolverBuilder = typeResolverBuilder.inclusion(JsonTypeInfo.As.WRAPPER_ARRAY);
+        objectMapper.setDefaultTyping(typeResolverBuilder);
+        return objectMapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("Could not write binary: " + e.getMessage(), e);
+        }
+        if (compressThreshold > 0 && payload.length > compressThreshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length < payload.length) {
+                return frame(FLAG_DEFLATE, compressed);
+            }
+        }
+        return frame(FLAG_NONE, payload);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC || bytes.length < HEADER_LENGTH) {
+            Number number = parseNumber(bytes);
+            if (number != null) {
+                return number;
+            }
+            if (legacySerializer != null) {
+                return legacySerializer.deserialize(bytes);
+            }
+            throw new SerializationException("Unknown redis value format, binary magic not found");
+        }
+        try {
+            if ((bytes[1] & FLAG_DEFLATE) != 0) {
+                byte[] payload = inflate(bytes);
+                return objectMapper.readValue(payload, Object.class);
+            }
+            return objectMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, Object.class);
+        } catch (Exception e) {
+            throw new SerializationException("Could not read binary: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解析Redis原生写入的数值，与JSON读取数值的类型保持一致：整数优先为Integer，其次为Long，小数为Double
+     *
+     * @param bytes 数据
+     * @return 不是数值时返回null
+     */
+    private static Number parseNumber(byte[] bytes) {
+        // long最长20个字符，INCRBYFLOAT结果最长为17位有效数字加符号、小数点和指数
+        if (bytes.length > 32) {
+            return null;
+        }
+        boolean decimal = false;
+        for (int i = 0; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                continue;
+            }
+            if (b == '-' || b == '+') {
+                if (i != 0 && bytes[i - 1] != 'e' && bytes[i - 1] != 'E') {
+                    return null;
+                }
+            } else if (b == '.' || b == 'e' || b == 'E') {
+                decimal = true;
+            } else {
+                return null;
+            }
+        }
+        String text = new String(bytes, StandardCharsets.US_ASCII);
+        try {
+            if (decimal) {
+                return Double.valueOf(text);
+            }
+            long value = Long.parseLong(text);
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Number) (int) value : (Number) value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] frame(byte flag, byte[] payload) {
+        byte[] result = new byte[payload.length + HEADER_LENGTH];
+        result[0] = MAGIC;
+        result[1] = flag;
+        System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+        return result;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate data");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.github.sparkzxl.cache.service;
 
 import com.github.sparkzxl.cache.redis.CacheHashKey;
 import com.github.sparkzxl.cache.redis.CacheKey;
+import com.github.sparkzxl.cache.redis.RedisBatch;
 import org.springframework.lang.NonNull;
 
 import java.time.Duration;
@@ -408,5 +409,12 @@ public interface CacheService {
      */
     Long sCard(@NonNull CacheKey key);
 
+    /**
+     * 创建批量命令构建器，排队的命令在执行时通过 pipeline 一次性发送
+     *
+     * @return RedisBatch
+     */
+    RedisBatch batch();
+
 
 }
@@ -0,0 +1,134 @@
+package com.github.sparkzxl.cache.service;
+
+import com.github.sparkzxl.cache.redis.BatchResponse;
+import com.github.sparkzxl.cache.redis.CacheHashKey;
+import com.github.sparkzxl.cache.redis.CacheKey;
+import com.github.sparkzxl.cache.redis.RedisBatch;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * description: 基于 {@link CacheService} 的批量命令，在 {@link #execute()} 时按入队顺序逐条执行
+ * <p>
+ * 用于不支持 pipeline 的本地缓存，命令语义与对应的 {@link CacheService} 方法一致，
+ * 本地缓存不支持的哈希、集合、有序集合命令在入队时抛出 {@link UnsupportedOperationException}
+ *
+ * @author zhouxinlei
+ */
+class CacheServiceBatch extends RedisBatch {
+
+    private final CacheService cacheService;
+    private final List<Supplier<Object>> commands = new ArrayList<>();
+
+    CacheServiceBatch(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public BatchResponse<Boolean> hSet(@NonNull String key, @NonNull Object field, Object value) {
+        throw unsupported("hSet");
+    }
+
+    @Override
+    public BatchResponse<Boolean> hSet(@NonNull CacheHashKey key, Object value) {
+        throw unsupported("hSet");
+    }
+
+    @Override
+    public BatchResponse<List<Object>> hmGet(@NonNull String key, @NonNull Object... fields) {
+        throw unsupported("hmGet");
+    }
+
+    @Override
+    public BatchResponse<Long> sAdd(@NonNull CacheKey key, Object... members) {
+        throw unsupported("sAdd");
+    }
+
+    @Override
+    public BatchResponse<Boolean> zAdd(@NonNull String key, Object member, double score) {
+        throw unsupported("zAdd");
+    }
+
+    @Override
+    public BatchResponse<Long> incrBy(@NonNull CacheKey key, long increment) {
+        written(key.getKey());
+        return add(() -> {
+            Long value = cacheService.increment(key.getKey(), increment);
+            if (key.getExpire() != null) {
+                cacheService.expire(key);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public BatchResponse<Boolean> set(@NonNull CacheKey key, Object value) {
+        written(key.getKey());
+        return add(() -> {
+            cacheService.set(key.getKey(), value, key.getExpire());
+            return Boolean.TRUE;
+        });
+    }
+
+    @Override
+    public BatchResponse<Object> get(@NonNull String key) {
+        return add(() -> cacheService.get(key));
+    }
+
+    @Override
+    public BatchResponse<Boolean> expire(@NonNull CacheKey key) {
+        written(key.getKey());
+        return add(() -> key.getExpire() == null ? Boolean.FALSE : cacheService.expire(key));
+    }
+
+    @Override
+    public BatchResponse<Long> unlink(@NonNull String... keys) {
+        written(keys);
+        return add(() -> {
+            long count = Arrays.stream(keys).filter(cacheService::exists).count();
+            cacheService.remove(keys);
+            return count;
+        });
+    }
+
+    @Override
+    public int size() {
+        return commands.size();
+    }
+
+    @Override
+    public List<Object> execute() {
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            List<Object> results = new ArrayList<>(commands.size());
+            for (Supplier<Object> command : commands) {
+                results.add(command.get());
+            }
+            return results;
+        } finally {
+            commands.clear();
+            fireExecuted();
+        }
+    }
+
+    private <T> BatchResponse<T> add(Supplier<T> action) {
+        BatchResponse<T> response = new BatchResponse<>();
+        commands.add(() -> {
+            T value = action.get();
+            complete(response, value);
+            return value;
+        });
+        return response;
+    }
+
+    private static UnsupportedOperationException unsupported(String command) {
+        return new UnsupportedOperationException("本地缓存不支持批量命令: " + command);
+    }
+}
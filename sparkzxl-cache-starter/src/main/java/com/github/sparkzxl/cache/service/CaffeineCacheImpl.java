@@ -4,30 +4,62 @@ import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.TypeReference;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.sparkzxl.cache.properties.CacheProperties;
 import com.github.sparkzxl.cache.redis.CacheHashKey;
 import com.github.sparkzxl.cache.redis.CacheKey;
-import org.apache.commons.lang3.ObjectUtils;
+import com.github.sparkzxl.cache.redis.RedisBatch;
+import com.github.sparkzxl.cache.support.CacheSizeEstimator;
 import org.apache.commons.lang3.StringUtils;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * description: Caffeine本地缓存实现
+ * <p>
+ * 所有缓存项共用一个Caffeine实例，通过自定义{@link Expiry}实现单个缓存项的过期时间，
+ * 并按估算的内存占用计算权重，限制本地缓存总内存
  *
  * @author zhouxinlei
  */
 public class CaffeineCacheImpl implements CacheService {
 
-    private final Cache<String, Cache<String, Object>> cacheMap;
-    private static final long MAX_SIZE = 1000;
+    /**
+     * Caffeine支持的最大过期时间，视为永不过期
+     */
+    private static final long NEVER_EXPIRE = Long.MAX_VALUE >> 1;
+    /**
+     * 更新时保留原有过期时间
+     */
+    private static final long KEEP_TTL = -1L;
+    private static final String TYPE_NONE = "none";
+    private static final String TYPE_CAFFEINE = "caffeine";
+
+    private final Cache<String, CacheValue> cache;
+    private final Policy.VarExpiration<String, CacheValue> varExpiration;
+    private final long defaultExpireNanos;
 
     public CaffeineCacheImpl() {
-        this.cacheMap = Caffeine.newBuilder().maximumSize(MAX_SIZE).build();
+        this(new CacheProperties.CaffeineProperties());
+    }
+
+    public CaffeineCacheImpl(CacheProperties.CaffeineProperties properties) {
+        this.defaultExpireNanos = toExpireNanos(properties.getDefaultExpire(), NEVER_EXPIRE);
+        this.cache = Caffeine.newBuilder()
+                .initialCapacity(properties.getInitialCapacity())
+                .maximumWeight(properties.getMaximumMemory().toBytes())
+                .weigher((String key, CacheValue value) -> CacheSizeEstimator.weigh(key, value.getValue()))
+                .expireAfter(new CacheValueExpiry(defaultExpireNanos))
+                .build();
+        this.varExpiration = this.cache.policy().expireVariably()
+                .orElseThrow(() -> new IllegalStateException("Caffeine variable expiration is not enabled"));
     }
 
     @Override
@@ -37,113 +69,57 @@ public class CaffeineCacheImpl implements CacheService {
 
     @Override
     public void set(String key, Object value, Duration timeout) {
-        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(MAX_SIZE);
-        if (ObjectUtils.isNotEmpty(timeout)) {
-            builder.expireAfterWrite(timeout);
-        }
-        Cache<String, Object> cache = builder.build();
-        cache.put(key, value);
-        this.cacheMap.put(key, cache);
+        this.cache.put(key, new CacheValue(value, toExpireNanos(timeout, defaultExpireNanos)));
     }
 
     @Override
     public boolean setIfAbsent(String key, Object value, Duration timeout) {
-        Cache<String, Object> ifPresent = cacheMap.getIfPresent(key);
-        if (ObjectUtils.isEmpty(ifPresent)) {
-            set(key, value, timeout);
-            return true;
-        }
-        return false;
+        return this.cache.asMap().putIfAbsent(key, new CacheValue(value, toExpireNanos(timeout, defaultExpireNanos))) == null;
     }
 
     @Override
     public boolean setIfAbsent(String key, Object value) {
-        Cache<String, Object> ifPresent = this.cacheMap.getIfPresent(key);
-        if (ObjectUtils.isEmpty(ifPresent)) {
-            set(key, value);
-            return true;
-        }
-        return false;
+        return setIfAbsent(key, value, null);
     }
 
     @Override
     public Long increment(String key) {
-        if (StringUtils.isEmpty(key)) {
-            return null;
-        }
-        Long obj = get(key, k -> 0L);
-        Function<Long, Long> function = x -> {
-            LongAdder longAdder = new LongAdder();
-            if (ObjectUtils.isNotEmpty(x)) {
-                longAdder.add(x);
-            }
-            longAdder.increment();
-            return longAdder.longValue();
-        };
-        Long result = function.apply(obj);
-        set(key, result);
-        return result;
+        return addAndGet(key, 1L);
     }
 
-
     @Override
     public Long increment(String key, long delta) {
-        if (StringUtils.isEmpty(key)) {
-            return null;
-        }
-        Long obj = get(key, k -> 0L);
-        Function<Long, Long> function = x -> {
-            LongAdder longAdder = new LongAdder();
-            if (ObjectUtils.isNotEmpty(x)) {
-                longAdder.add(x);
-            }
-            longAdder.add(delta);
-            return longAdder.longValue();
-        };
-        Long result = function.apply(obj);
-        set(key, result, null);
-        return result;
+        return addAndGet(key, delta);
     }
 
     @Override
     public Long decrement(String key) {
-        if (StringUtils.isEmpty(key)) {
-            return null;
-        }
-        Long obj = get(key, k -> 0L);
-        Function<Long, Long> function = x -> {
-            LongAdder longAdder = new LongAdder();
-            if (ObjectUtils.isNotEmpty(x)) {
-                longAdder.add(x);
-            }
-            longAdder.decrement();
-            return longAdder.longValue();
-        };
-        Long result = function.apply(obj);
-        set(key, result, null);
-        return result;
+        return addAndGet(key, -1L);
     }
 
     @Override
     public Long decrement(String key, long delta) {
+        return addAndGet(key, -delta);
+    }
+
+    private Long addAndGet(String key, long delta) {
         if (StringUtils.isEmpty(key)) {
             return null;
         }
-        Long obj = get(key, k -> 0L);
-        Function<Long, Long> function = x -> {
-            LongAdder longAdder = new LongAdder();
-            longAdder.add(x - delta);
-            return longAdder.longValue();
-        };
-        Long result = function.apply(obj);
-        set(key, result, null);
-        return result;
+        CacheValue result = this.cache.asMap().compute(key, (k, current) -> {
+            if (current == null) {
+                return new CacheValue(delta, defaultExpireNanos);
+            }
+            long base = Convert.toLong(current.getValue(), 0L);
+            return new CacheValue(base + delta, KEEP_TTL);
+        });
+        return (Long) result.getValue();
     }
 
     @Override
     public void remove(String... keys) {
         for (String key : keys) {
-            this.cacheMap.invalidate(key);
+            this.cache.invalidate(key);
         }
     }
 
@@ -172,40 +148,31 @@ public class CaffeineCacheImpl implements CacheService {
         if (StringUtils.isEmpty(key)) {
             return null;
         }
-        Cache<String, Object> cache = cacheMap.get(key, (k) -> {
-            Caffeine<Object, Object> builder = Caffeine.newBuilder()
-                    .maximumSize(MAX_SIZE);
-            if (timeout != null) {
-                builder.expireAfterWrite(timeout);
-            }
-            Cache<String, Object> newCache = builder.build();
-            newCache.get(k, (tk) -> {
-                if (function != null) {
-                    return function.apply(funcParam);
-                }
-                return null;
+        CacheValue cacheValue;
+        if (function == null) {
+            cacheValue = this.cache.getIfPresent(key);
+        } else {
+            cacheValue = this.cache.get(key, (k) -> {
+                T value = function.apply(funcParam);
+                return value == null ? null : new CacheValue(value, toExpireNanos(timeout, defaultExpireNanos));
             });
-            return newCache;
-        });
-        assert cache != null;
-        return Convert.convert(new TypeReference<T>() {}, cache.getIfPresent(key), null);
+        }
+        if (cacheValue == null) {
+            return null;
+        }
+        return Convert.convert(new TypeReference<T>() {
+        }, cacheValue.getValue(), null);
     }
 
 
     @Override
     public void flushDb() {
-        this.cacheMap.invalidateAll();
+        this.cache.invalidateAll();
     }
 
     @Override
     public boolean exists(String key) {
-        Cache cache = this.cacheMap.getIfPresent(key);
-        if (cache == null) {
-            return false;
-        } else {
-            cache.cleanUp();
-            return cache.estimatedSize() > 0L;
-        }
+        return this.cache.getIfPresent(key) != null;
     }
 
     @Override
@@ -225,27 +192,47 @@ public class CaffeineCacheImpl implements CacheService {
 
     @Override
     public Boolean expire(CacheKey key) {
-        return null;
+        assert key.getExpire() != null;
+        if (!exists(key.getKey())) {
+            return false;
+        }
+        this.varExpiration.setExpiresAfter(key.getKey(), key.getExpire().toNanos(), TimeUnit.NANOSECONDS);
+        return true;
     }
 
     @Override
     public Boolean persist(CacheKey key) {
-        return null;
+        if (!exists(key.getKey())) {
+            return false;
+        }
+        this.varExpiration.setExpiresAfter(key.getKey(), NEVER_EXPIRE, TimeUnit.NANOSECONDS);
+        return true;
     }
 
     @Override
     public String type(CacheKey key) {
-        return null;
+        return exists(key.getKey()) ? TYPE_CAFFEINE : TYPE_NONE;
     }
 
     @Override
     public Long ttl(CacheKey key) {
-        return null;
+        return remainingTime(key.getKey(), TimeUnit.SECONDS);
     }
 
     @Override
     public Long pTtl(CacheKey key) {
-        return null;
+        return remainingTime(key.getKey(), TimeUnit.MILLISECONDS);
+    }
+
+    private Long remainingTime(String key, TimeUnit unit) {
+        if (!exists(key)) {
+            return -2L;
+        }
+        OptionalLong expiresAfter = this.varExpiration.getExpiresAfter(key, TimeUnit.NANOSECONDS);
+        if (!expiresAfter.isPresent() || expiresAfter.getAsLong() >= (NEVER_EXPIRE >> 1)) {
+            return -1L;
+        }
+        return unit.convert(expiresAfter.getAsLong(), TimeUnit.NANOSECONDS);
     }
 
     @Override
@@ -337,4 +324,70 @@ public class CaffeineCacheImpl implements CacheService {
     public Long sCard(CacheKey key) {
         return null;
     }
+
+    /**
+     * 本地缓存没有网络往返，批量命令在执行时逐条调用本实例
+     *
+     * @return RedisBatch
+     */
+    @Override
+    public RedisBatch batch() {
+        return new CacheServiceBatch(this);
+    }
+
+    private static long toExpireNanos(Duration timeout, long defaultNanos) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            return defaultNanos;
+        }
+        return Math.min(timeout.toNanos(), NEVER_EXPIRE);
+    }
+
+    /**
+     * 缓存值包装，携带写入时指定的过期时间
+     */
+    private static final class CacheValue {
+
+        private final Object value;
+        private final long expireNanos;
+
+        private CacheValue(Object value, long expireNanos) {
+            this.value = value;
+            this.expireNanos = expireNanos;
+        }
+
+        private Object getValue() {
+            return value;
+        }
+
+        private long getExpireNanos() {
+            return expireNanos;
+        }
+    }
+
+    /**
+     * 按缓存项过期的策略，读操作不影响过期时间
+     */
+    private static final class CacheValueExpiry implements Expiry<String, CacheValue> {
+
+        private final long defaultExpireNanos;
+
+        private CacheValueExpiry(long defaultExpireNanos) {
+            this.defaultExpireNanos = defaultExpireNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, CacheValue value, long currentTime) {
+            return value.getExpireNanos() == KEEP_TTL ? defaultExpireNanos : value.getExpireNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CacheValue value, long currentTime, long currentDuration) {
+            return value.getExpireNanos() == KEEP_TTL ? currentDuration : value.getExpireNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CacheValue value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
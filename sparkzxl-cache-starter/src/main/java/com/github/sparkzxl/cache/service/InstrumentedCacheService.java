@@ -0,0 +1,299 @@
+package com.github.sparkzxl.cache.service;
+
+import com.github.sparkzxl.cache.metrics.CacheMetricsRecorder;
+import com.github.sparkzxl.cache.redis.CacheHashKey;
+import com.github.sparkzxl.cache.redis.CacheKey;
+import com.github.sparkzxl.cache.redis.RedisBatch;
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * description: 带指标统计的缓存实现，包装任意 {@link CacheService}
+ * <p>
+ * 读操作记录命中/未命中及热点key，加载函数被调用即视为未命中并记录加载耗时，写操作记录数据大小
+ *
+ * @author zhouxinlei
+ */
+public class InstrumentedCacheService implements CacheService {
+
+    private final CacheService delegate;
+    private final String cacheName;
+    private final CacheMetricsRecorder recorder;
+
+    public InstrumentedCacheService(CacheService delegate, String cacheName, CacheMetricsRecorder recorder) {
+        this.delegate = delegate;
+        this.cacheName = cacheName;
+        this.recorder = recorder;
+    }
+
+    public CacheService getDelegate() {
+        return delegate;
+    }
+
+    private <T> T recordGet(String key, T value) {
+        if (value != null) {
+            recorder.recordHit(cacheName, key);
+        } else {
+            recorder.recordMiss(cacheName, key);
+        }
+        return value;
+    }
+
+    private <P, T> Function<P, T> instrumentLoader(String key, Function<P, T> loader, boolean[] loaded) {
+        if (loader == null) {
+            return null;
+        }
+        return param -> {
+            loaded[0] = true;
+            long start = System.nanoTime();
+            try {
+                T value = loader.apply(param);
+                recorder.recordPayload(cacheName, key, value);
+                return value;
+            } finally {
+                recorder.recordLoad(cacheName, key, System.nanoTime() - start);
+            }
+        };
+    }
+
+    private <T> T recordLoadingGet(String key, T value, boolean[] loaded) {
+        if (loaded[0]) {
+            recorder.recordMiss(cacheName, key);
+            return value;
+        }
+        return recordGet(key, value);
+    }
+
+    @Override
+    public <T> T get(String key) {
+        return recordGet(key, delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(String key, Function<String, T> function) {
+        boolean[] loaded = new boolean[1];
+        return recordLoadingGet(key, delegate.get(key, instrumentLoader(key, function, loaded)), loaded);
+    }
+
+    @Override
+    public <T, M> T get(String key, Function<M, T> function, M funcParam) {
+        boolean[] loaded = new boolean[1];
+        return recordLoadingGet(key, delegate.get(key, instrumentLoader(key, function, loaded), funcParam), loaded);
+    }
+
+    @Override
+    public <T> T get(String key, Function<String, T> function, Duration timeout) {
+        boolean[] loaded = new boolean[1];
+        return recordLoadingGet(key, delegate.get(key, instrumentLoader(key, function, loaded), timeout), loaded);
+    }
+
+    @Override
+    public <T, M> T get(String key, Function<M, T> function, M funcParam, Duration timeout) {
+        boolean[] loaded = new boolean[1];
+        return recordLoadingGet(key, delegate.get(key, instrumentLoader(key, function, loaded), funcParam, timeout), loaded);
+    }
+
+    @Override
+    public void set(String key, Object obj) {
+        recorder.recordPayload(cacheName, key, obj);
+        delegate.set(key, obj);
+    }
+
+    @Override
+    public void set(String key, Object value, Duration timeout) {
+        recorder.recordPayload(cacheName, key, value);
+        delegate.set(key, value, timeout);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, Duration timeout) {
+        recorder.recordPayload(cacheName, key, value);
+        return delegate.setIfAbsent(key, value, timeout);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value) {
+        recorder.recordPayload(cacheName, key, value);
+        return delegate.setIfAbsent(key, value);
+    }
+
+    @Override
+    public Long increment(String key) {
+        return delegate.increment(key);
+    }
+
+    @Override
+    public Long increment(String key, long delta) {
+        return delegate.increment(key, delta);
+    }
+
+    @Override
+    public Long decrement(String key) {
+        return delegate.decrement(key);
+    }
+
+    @Override
+    public Long decrement(String key, long delta) {
+        return delegate.decrement(key, delta);
+    }
+
+    @Override
+    public void remove(String... keys) {
+        delegate.remove(keys);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return delegate.exists(key);
+    }
+
+    @Override
+    public void flushDb() {
+        delegate.flushDb();
+    }
+
+    @Override
+    public Set<String> keys(@NonNull String pattern) {
+        return delegate.keys(pattern);
+    }
+
+    @Override
+    public List<String> scan(@NonNull String pattern) {
+        return delegate.scan(pattern);
+    }
+
+    @Override
+    public void scanUnlink(@NonNull String pattern) {
+        delegate.scanUnlink(pattern);
+    }
+
+    @Override
+    public Boolean expire(@NonNull CacheKey key) {
+        return delegate.expire(key);
+    }
+
+    @Override
+    public Boolean persist(@NonNull CacheKey key) {
+        return delegate.persist(key);
+    }
+
+    @Override
+    public String type(@NonNull CacheKey key) {
+        return delegate.type(key);
+    }
+
+    @Override
+    public Long ttl(@NonNull CacheKey key) {
+        return delegate.ttl(key);
+    }
+
+    @Override
+    public Long pTtl(@NonNull CacheKey key) {
+        return delegate.pTtl(key);
+    }
+
+    @Override
+    public void hSet(@NonNull CacheHashKey key, Object value, boolean... cacheNullValues) {
+        recorder.recordPayload(cacheName, key.getKey(), value);
+        delegate.hSet(key, value, cacheNullValues);
+    }
+
+    @Override
+    public <T> T hGet(@NonNull CacheHashKey key, boolean... cacheNullValues) {
+        return recordGet(key.getKey(), delegate.hGet(key, cacheNullValues));
+    }
+
+    @Override
+    public <T> T hGet(@NonNull CacheHashKey key, Function<CacheHashKey, T> loader, boolean... cacheNullValues) {
+        boolean[] loaded = new boolean[1];
+        return recordLoadingGet(key.getKey(), delegate.hGet(key, instrumentLoader(key.getKey(), loader, loaded), cacheNullValues), loaded);
+    }
+
+    @Override
+    public Boolean hExists(@NonNull CacheHashKey cacheHashKey) {
+        return delegate.hExists(cacheHashKey);
+    }
+
+    @Override
+    public Long hDel(@NonNull String key, Object... fields) {
+        return delegate.hDel(key, fields);
+    }
+
+    @Override
+    public Long hDel(@NonNull CacheHashKey cacheHashKey) {
+        return delegate.hDel(cacheHashKey);
+    }
+
+    @Override
+    public Long hLen(@NonNull CacheHashKey key) {
+        return delegate.hLen(key);
+    }
+
+    @Override
+    public Long hIncrBy(@NonNull CacheHashKey key, long increment) {
+        return delegate.hIncrBy(key, increment);
+    }
+
+    @Override
+    public Double hIncrBy(@NonNull CacheHashKey key, double increment) {
+        return delegate.hIncrBy(key, increment);
+    }
+
+    @Override
+    public Set<Object> hKeys(@NonNull CacheHashKey key) {
+        return delegate.hKeys(key);
+    }
+
+    @Override
+    public List<Object> hVals(@NonNull CacheHashKey key) {
+        return delegate.hVals(key);
+    }
+
+    @Override
+    public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key) {
+        Map<K, V> value = delegate.hGetAll(key);
+        recordGet(key.getKey(), value == null || value.isEmpty() ? null : value);
+        return value;
+    }
+
+    @Override
+    public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key, Function<CacheHashKey, Map<K, V>> loader, boolean... cacheNullValues) {
+        boolean[] loaded = new boolean[1];
+        return recordLoadingGet(key.getKey(), delegate.hGetAll(key, instrumentLoader(key.getKey(), loader, loaded), cacheNullValues), loaded);
+    }
+
+    @Override
+    public Long sAdd(@NonNull CacheKey key, Object value) {
+        return delegate.sAdd(key, value);
+    }
+
+    @Override
+    public Long sRem(@NonNull CacheKey key, Object... members) {
+        return delegate.sRem(key, members);
+    }
+
+    @Override
+    public Set<Object> sMembers(@NonNull CacheKey key) {
+        return delegate.sMembers(key);
+    }
+
+    @Override
+    public <T> T sPop(@NonNull CacheKey key) {
+        return delegate.sPop(key);
+    }
+
+    @Override
+    public Long sCard(@NonNull CacheKey key) {
+        return delegate.sCard(key);
+    }
+
+    @Override
+    public RedisBatch batch() {
+        return delegate.batch();
+    }
+}
@@ -0,0 +1,508 @@
+package com.github.sparkzxl.cache.service;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.sparkzxl.cache.properties.CacheProperties;
+import com.github.sparkzxl.cache.redis.CacheHashKey;
+import com.github.sparkzxl.cache.redis.CacheKey;
+import com.github.sparkzxl.cache.redis.RedisBatch;
+import com.github.sparkzxl.cache.support.CacheInvalidateMessage;
+import com.github.sparkzxl.cache.support.NearCacheStats;
+import com.github.sparkzxl.core.jackson.JsonUtil;
+import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * description: 二级缓存实现，本地Caffeine作为近端缓存，Redis作为远端缓存
+ * <p>
+ * 仅对配置的key前缀开启本地缓存，写入、删除时通过Redis发布订阅广播失效消息，保证各节点本地缓存一致。
+ * 读取远端缓存前记录失效序号，期间发生过失效时不写入本地缓存，避免失效前读到的旧值覆盖回本地；
+ * 哈希field以 key:field 缓存在本地，并按key索引已缓存的field，删除或设置过期时间时只失效索引中该key下的field
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class MultiLevelCacheImpl implements CacheService, MessageListener {
+
+    private final CaffeineCacheImpl localCache;
+    private final CacheService remoteCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String topic;
+    private final Duration localExpire;
+    private final List<String> keyPrefixes;
+    private final String nodeId = IdUtil.fastSimpleUUID();
+    private final Map<String, NearCacheStats> statsMap = new ConcurrentHashMap<>();
+    /**
+     * 本地缓存失效序号，每次失效递增
+     */
+    private final AtomicLong invalidationSeq = new AtomicLong();
+    /**
+     * 哈希key -> 本地缓存的field key，写入后按本地过期时间过期，本地field不会晚于索引过期
+     */
+    private final Cache<String, Set<String>> hashFieldIndex;
+
+    public MultiLevelCacheImpl(CaffeineCacheImpl localCache,
+                               CacheService remoteCache,
+                               StringRedisTemplate stringRedisTemplate,
+                               CacheProperties.MultiLevelProperties properties) {
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.topic = properties.getTopic();
+        this.localExpire = properties.getLocalExpire();
+        // 最长前缀优先匹配
+        this.keyPrefixes = CollUtil.isEmpty(properties.getKeyPrefixes()) ? Collections.emptyList() :
+                properties.getKeyPrefixes().stream()
+                        .filter(StringUtils::isNotEmpty)
+                        .distinct()
+                        .sorted(Comparator.comparingInt(String::length).reversed())
+                        .collect(Collectors.toList());
+        this.keyPrefixes.forEach(prefix -> statsMap.put(prefix, new NearCacheStats(prefix)));
+        this.hashFieldIndex = Caffeine.newBuilder()
+                .expireAfterWrite(localExpire)
+                .build();
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * 获取各缓存名称的本地命中统计
+     *
+     * @return Map<String, NearCacheStats>
+     */
+    public Map<String, NearCacheStats> getStats() {
+        return Collections.unmodifiableMap(statsMap);
+    }
+
+    private NearCacheStats matchStats(String key) {
+        if (key == null) {
+            return null;
+        }
+        for (String prefix : keyPrefixes) {
+            if (key.startsWith(prefix)) {
+                return statsMap.get(prefix);
+            }
+        }
+        return null;
+    }
+
+    private Duration localTimeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative() || timeout.isZero() || timeout.compareTo(localExpire) > 0) {
+            return localExpire;
+        }
+        return timeout;
+    }
+
+    @Override
+    public <T> T get(String key) {
+        return get(key, null, null, null);
+    }
+
+    @Override
+    public <T> T get(String key, Function<String, T> function) {
+        return get(key, function, key, null);
+    }
+
+    @Override
+    public <T, M> T get(String key, Function<M, T> function, M funcParam) {
+        return get(key, function, funcParam, null);
+    }
+
+    @Override
+    public <T> T get(String key, Function<String, T> function, Duration timeout) {
+        return get(key, function, key, timeout);
+    }
+
+    @Override
+    public <T, M> T get(String key, Function<M, T> function, M funcParam, Duration timeout) {
+        NearCacheStats stats = matchStats(key);
+        if (stats == null) {
+            return remoteCache.get(key, function, funcParam, timeout);
+        }
+        T value = localCache.get(key);
+        if (value != null) {
+            stats.recordHit();
+            return value;
+        }
+        stats.recordMiss();
+        long seq = invalidationSeq.get();
+        value = remoteCache.get(key, function, funcParam, timeout);
+        if (value != null) {
+            putLocal(key, value, localTimeout(timeout), seq);
+        }
+        return value;
+    }
+
+    @Override
+    public void set(String key, Object obj) {
+        set(key, obj, null);
+    }
+
+    @Override
+    public void set(String key, Object value, Duration timeout) {
+        remoteCache.set(key, value, timeout);
+        invalidate(key);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value, Duration timeout) {
+        boolean result = remoteCache.setIfAbsent(key, value, timeout);
+        if (result) {
+            invalidate(key);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, Object value) {
+        return setIfAbsent(key, value, null);
+    }
+
+    @Override
+    public Long increment(String key) {
+        Long result = remoteCache.increment(key);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public Long increment(String key, long delta) {
+        Long result = remoteCache.increment(key, delta);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public Long decrement(String key) {
+        Long result = remoteCache.decrement(key);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public Long decrement(String key, long delta) {
+        Long result = remoteCache.decrement(key, delta);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public void remove(String... keys) {
+        remoteCache.remove(keys);
+        invalidateWhole(keys);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return remoteCache.exists(key);
+    }
+
+    @Override
+    public void flushDb() {
+        remoteCache.flushDb();
+        clearLocal();
+    }
+
+    @Override
+    public Set<String> keys(@NonNull String pattern) {
+        return remoteCache.keys(pattern);
+    }
+
+    @Override
+    public List<String> scan(@NonNull String pattern) {
+        return remoteCache.scan(pattern);
+    }
+
+    @Override
+    public void scanUnlink(@NonNull String pattern) {
+        remoteCache.scanUnlink(pattern);
+        clearLocal();
+    }
+
+    @Override
+    public Boolean expire(@NonNull CacheKey key) {
+        Boolean result = remoteCache.expire(key);
+        invalidateWhole(key.getKey());
+        return result;
+    }
+
+    @Override
+    public Boolean persist(@NonNull CacheKey key) {
+        Boolean result = remoteCache.persist(key);
+        invalidateWhole(key.getKey());
+        return result;
+    }
+
+    @Override
+    public String type(@NonNull CacheKey key) {
+        return remoteCache.type(key);
+    }
+
+    @Override
+    public Long ttl(@NonNull CacheKey key) {
+        return remoteCache.ttl(key);
+    }
+
+    @Override
+    public Long pTtl(@NonNull CacheKey key) {
+        return remoteCache.pTtl(key);
+    }
+
+    @Override
+    public void hSet(@NonNull CacheHashKey key, Object value, boolean... cacheNullValues) {
+        remoteCache.hSet(key, value, cacheNullValues);
+        invalidate(key.tran().getKey());
+    }
+
+    @Override
+    public <T> T hGet(@NonNull CacheHashKey key, boolean... cacheNullValues) {
+        return hGet(key, null, cacheNullValues);
+    }
+
+    @Override
+    public <T> T hGet(@NonNull CacheHashKey key, Function<CacheHashKey, T> loader, boolean... cacheNullValues) {
+        String localKey = key.tran().getKey();
+        NearCacheStats stats = matchStats(localKey);
+        if (stats == null) {
+            return loader == null ? remoteCache.hGet(key, cacheNullValues) : remoteCache.hGet(key, loader, cacheNullValues);
+        }
+        T value = localCache.get(localKey);
+        if (value != null) {
+            stats.recordHit();
+            return value;
+        }
+        stats.recordMiss();
+        long seq = invalidationSeq.get();
+        value = loader == null ? remoteCache.hGet(key, cacheNullValues) : remoteCache.hGet(key, loader, cacheNullValues);
+        if (value != null) {
+            // 先登记索引再写入，写入期间的整体失效一定能看到该field
+            hashFieldIndex.asMap().compute(key.getKey(), (k, fields) -> {
+                Set<String> result = fields == null ? ConcurrentHashMap.newKeySet() : fields;
+                result.add(localKey);
+                return result;
+            });
+            putLocal(localKey, value, localTimeout(key.getExpire()), seq);
+        }
+        return value;
+    }
+
+    @Override
+    public Boolean hExists(@NonNull CacheHashKey cacheHashKey) {
+        return remoteCache.hExists(cacheHashKey);
+    }
+
+    @Override
+    public Long hDel(@NonNull String key, Object... fields) {
+        Long result = remoteCache.hDel(key, fields);
+        invalidate(Arrays.stream(fields)
+                .map(field -> new CacheHashKey(key, field).tran().getKey())
+                .toArray(String[]::new));
+        return result;
+    }
+
+    @Override
+    public Long hDel(@NonNull CacheHashKey cacheHashKey) {
+        return hDel(cacheHashKey.getKey(), cacheHashKey.getField());
+    }
+
+    @Override
+    public Long hLen(@NonNull CacheHashKey key) {
+        return remoteCache.hLen(key);
+    }
+
+    @Override
+    public Long hIncrBy(@NonNull CacheHashKey key, long increment) {
+        Long result = remoteCache.hIncrBy(key, increment);
+        invalidate(key.tran().getKey());
+        return result;
+    }
+
+    @Override
+    public Double hIncrBy(@NonNull CacheHashKey key, double increment) {
+        Double result = remoteCache.hIncrBy(key, increment);
+        invalidate(key.tran().getKey());
+        return result;
+    }
+
+    @Override
+    public Set<Object> hKeys(@NonNull CacheHashKey key) {
+        return remoteCache.hKeys(key);
+    }
+
+    @Override
+    public List<Object> hVals(@NonNull CacheHashKey key) {
+        return remoteCache.hVals(key);
+    }
+
+    @Override
+    public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key) {
+        return remoteCache.hGetAll(key);
+    }
+
+    @Override
+    public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key, Function<CacheHashKey, Map<K, V>> loader, boolean... cacheNullValues) {
+        return remoteCache.hGetAll(key, loader, cacheNullValues);
+    }
+
+    @Override
+    public Long sAdd(@NonNull CacheKey key, Object value) {
+        return remoteCache.sAdd(key, value);
+    }
+
+    @Override
+    public Long sRem(@NonNull CacheKey key, Object... members) {
+        return remoteCache.sRem(key, members);
+    }
+
+    @Override
+    public Set<Object> sMembers(@NonNull CacheKey key) {
+        return remoteCache.sMembers(key);
+    }
+
+    @Override
+    public <T> T sPop(@NonNull CacheKey key) {
+        return remoteCache.sPop(key);
+    }
+
+    @Override
+    public Long sCard(@NonNull CacheKey key) {
+        return remoteCache.sCard(key);
+    }
+
+    /**
+     * 批量命令作用于Redis，执行后整体失效本批写入或删除的key的本地缓存并广播失效消息
+     *
+     * @return RedisBatch
+     */
+    @Override
+    public RedisBatch batch() {
+        return remoteCache.batch().onExecuted(keys -> invalidateWhole(keys.toArray(new String[0])));
+    }
+
+    /**
+     * 写入本地缓存，读取远端期间发生过失效时放弃写入；写入后再次校验，避免覆盖写入前刚完成的失效
+     */
+    private void putLocal(String key, Object value, Duration timeout, long seq) {
+        if (invalidationSeq.get() != seq) {
+            return;
+        }
+        localCache.set(key, value, timeout);
+        if (invalidationSeq.get() != seq) {
+            localCache.remove(key);
+        }
+    }
+
+    /**
+     * 删除本地缓存并广播失效消息，仅处理开启本地缓存的key
+     *
+     * @param keys 缓存key
+     */
+    private void invalidate(String... keys) {
+        invalidate(keys, false);
+    }
+
+    /**
+     * 整体失效key，同时失效其哈希field的本地缓存
+     *
+     * @param keys 缓存key
+     */
+    private void invalidateWhole(String... keys) {
+        invalidate(keys, true);
+    }
+
+    private void invalidate(String[] keys, boolean whole) {
+        List<String> nearKeys = Lists.newArrayListWithCapacity(keys.length);
+        for (String key : keys) {
+            NearCacheStats stats = matchStats(key);
+            if (stats != null) {
+                evictLocal(key, whole);
+                stats.recordInvalidation();
+                nearKeys.add(key);
+            }
+        }
+        if (!nearKeys.isEmpty()) {
+            publish(whole ? new CacheInvalidateMessage(nodeId, null, nearKeys, false)
+                    : new CacheInvalidateMessage(nodeId, nearKeys, null, false));
+        }
+    }
+
+    private void evictLocal(String key, boolean whole) {
+        invalidationSeq.incrementAndGet();
+        localCache.remove(key);
+        if (whole) {
+            Set<String> fields = hashFieldIndex.asMap().remove(key);
+            if (fields != null) {
+                localCache.remove(fields.toArray(new String[0]));
+            }
+        }
+    }
+
+    private void clearLocal() {
+        invalidationSeq.incrementAndGet();
+        localCache.flushDb();
+        hashFieldIndex.invalidateAll();
+        if (!keyPrefixes.isEmpty()) {
+            publish(new CacheInvalidateMessage(nodeId, null, null, true));
+        }
+    }
+
+    private void publish(CacheInvalidateMessage message) {
+        try {
+            stringRedisTemplate.convertAndSend(topic, JsonUtil.toJson(message));
+        } catch (Exception e) {
+            log.error("Publish cache invalidate message error, keys: {}", message.getKeys(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        CacheInvalidateMessage invalidateMessage;
+        try {
+            invalidateMessage = JsonUtil.parse(new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidateMessage.class);
+        } catch (Exception e) {
+            log.error("Parse cache invalidate message error", e);
+            return;
+        }
+        if (invalidateMessage == null || nodeId.equals(invalidateMessage.getNodeId())) {
+            return;
+        }
+        if (invalidateMessage.isClear()) {
+            invalidationSeq.incrementAndGet();
+            localCache.flushDb();
+            hashFieldIndex.invalidateAll();
+            return;
+        }
+        onInvalidate(invalidateMessage.getKeys(), false);
+        onInvalidate(invalidateMessage.getHashKeys(), true);
+    }
+
+    private void onInvalidate(List<String> keys, boolean whole) {
+        if (CollUtil.isEmpty(keys)) {
+            return;
+        }
+        for (String key : keys) {
+            evictLocal(key, whole);
+            NearCacheStats stats = matchStats(key);
+            if (stats != null) {
+                stats.recordInvalidation();
+            }
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.github.sparkzxl.cache.service;
 
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.TypeReference;
+import com.github.sparkzxl.cache.redis.BatchResponse;
 import com.github.sparkzxl.cache.redis.CacheHashKey;
 import com.github.sparkzxl.cache.redis.CacheKey;
+import com.github.sparkzxl.cache.redis.RedisBatch;
 import com.github.sparkzxl.cache.redis.RedisOps;
 import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
@@ -249,11 +251,14 @@ public class RedisCacheImpl implements CacheService {
 
     @Override
     public Long sAdd(@NonNull CacheKey key, Object value) {
-        Long result = redisOps.sAdd(key, value);
-        if (key.getExpire() != null) {
-            redisOps.expire(key.getKey(), key.getExpire());
+        if (key.getExpire() == null) {
+            return redisOps.sAdd(key, value);
         }
-        return result;
+        // sAdd 与 expire 在同一个 pipeline 中发送
+        RedisBatch batch = redisOps.batch();
+        BatchResponse<Long> result = batch.sAdd(key, value);
+        batch.execute();
+        return result.get();
     }
 
     @Override
@@ -275,4 +280,9 @@ public class RedisCacheImpl implements CacheService {
     public Long sCard(@NonNull CacheKey key) {
         return redisOps.sCard(key);
     }
+
+    @Override
+    public RedisBatch batch() {
+        return redisOps.batch();
+    }
 }
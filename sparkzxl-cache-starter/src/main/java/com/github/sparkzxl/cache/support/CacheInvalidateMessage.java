@@ -0,0 +1,39 @@
+package com.github.sparkzxl.cache.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * description: 二级缓存失效广播消息
+ *
+ * @author zhouxinlei
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidateMessage {
+
+    /**
+     * 发送节点标识，节点忽略自身发出的消息
+     */
+    private String nodeId;
+
+    /**
+     * 失效的缓存key
+     */
+    private List<String> keys;
+
+    /**
+     * 整体失效的缓存key，同时失效其哈希field的本地缓存(key:field)
+     */
+    private List<String> hashKeys;
+
+    /**
+     * 是否清空全部本地缓存
+     */
+    private boolean clear;
+
+}
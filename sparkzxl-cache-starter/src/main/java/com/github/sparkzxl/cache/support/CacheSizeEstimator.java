@@ -0,0 +1,96 @@
+package com.github.sparkzxl.cache.support;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * description: 缓存对象内存占用估算
+ * <p>
+ * 仅用于本地缓存权重计算，集合类按前 {@link #SAMPLE_SIZE} 个元素采样推算，避免每次写入遍历大对象
+ *
+ * @author zhouxinlei
+ */
+public final class CacheSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int DEFAULT_OBJECT_SIZE = 256;
+    private static final int SAMPLE_SIZE = 16;
+
+    private CacheSizeEstimator() {
+    }
+
+    /**
+     * 估算对象占用字节数
+     *
+     * @param value 对象
+     * @return long
+     */
+    public static long estimate(Object value) {
+        return estimate(value, 0);
+    }
+
+    /**
+     * 估算缓存键值对占用权重
+     *
+     * @param key   缓存键
+     * @param value 缓存值
+     * @return int
+     */
+    public static int weigh(Object key, Object value) {
+        long size = estimate(key) + estimate(value);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence) {
+            return STRING_OVERHEAD + 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return OBJECT_HEADER + REFERENCE_SIZE;
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_HEADER + ((byte[]) value).length;
+        }
+        // 嵌套层级过深时直接按默认值估算
+        if (depth > 2) {
+            return DEFAULT_OBJECT_SIZE;
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            return OBJECT_HEADER + sample(collection.iterator(), collection.size(), depth);
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            return OBJECT_HEADER + sample(map.entrySet().iterator(), map.size(), depth);
+        }
+        if (value instanceof Map.Entry) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) value;
+            return OBJECT_HEADER + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            return OBJECT_HEADER + (long) length * REFERENCE_SIZE;
+        }
+        return DEFAULT_OBJECT_SIZE;
+    }
+
+    private static long sample(Iterator<?> iterator, int size, int depth) {
+        if (size == 0) {
+            return 0;
+        }
+        long sampled = 0;
+        int count = 0;
+        while (iterator.hasNext() && count < SAMPLE_SIZE) {
+            sampled += REFERENCE_SIZE + estimate(iterator.next(), depth + 1);
+            count++;
+        }
+        return count == 0 ? 0 : sampled / count * size;
+    }
+}
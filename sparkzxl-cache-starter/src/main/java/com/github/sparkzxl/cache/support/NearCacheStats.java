@@ -0,0 +1,64 @@
+package com.github.sparkzxl.cache.support;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * description: 二级缓存本地命中统计
+ *
+ * @author zhouxinlei
+ */
+public class NearCacheStats {
+
+    private final String cacheName;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    public NearCacheStats(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    public void recordInvalidation() {
+        invalidationCount.increment();
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    public double hitRate() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCacheStats{" +
+                "cacheName='" + cacheName + '\'' +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", invalidationCount=" + getInvalidationCount() +
+                '}';
+    }
+}
@@ -32,4 +32,8 @@ public class ConfigurationConstant {
 
     public static final String MONGO_PREFIX = "spring.data.mongodb";
 
+    public static final String CACHE_PREFIX = "cache";
+
+    public static final String UID_PREFIX = "uid";
+
 }
@@ -24,6 +24,11 @@ public enum IdTypeEnum {
      * 600万/s的稳定吞吐量
      */
     CACHE,
+    /**
+     * 集群部署动态扩容时使用
+     * sequence按线程分片无锁生成, 时钟小幅回拨时借用未来时间而不是直接失败
+     */
+    SHARDED,
     ;
 
     public boolean eq(IdTypeEnum t) {
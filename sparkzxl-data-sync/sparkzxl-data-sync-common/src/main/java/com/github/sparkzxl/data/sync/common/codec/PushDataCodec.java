@@ -0,0 +1,182 @@
+package com.github.sparkzxl.data.sync.common.codec;
+
+import com.alibaba.fastjson.JSON;
+import com.github.sparkzxl.data.sync.common.entity.PushData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * description: PushData二进制帧编解码
+ * <p>
+ * 帧格式：1字节魔数 + 1字节格式版本 + 1字节标志位 + 消息体(可能被deflate压缩)。
+ * 消息体依次为：配置分组(2字节长度 + UTF-8)、事件类型(2字节长度 + UTF-8)、版本号(8字节)、数据(4字节长度 + UTF-8 JSON数组)。
+ * 解码只解析帧头，数据部分以字节区间交给消费端直接反序列化为目标类型，不再经过中间对象。
+ * <p>
+ * 消费端在握手时通过 {@link #CODEC_HEADER} 请求头协商，服务端仅向协商成功的会话发送二进制帧。
+ *
+ * @author zhouxinlei
+ */
+public class PushDataCodec {
+
+    /**
+     * 协商请求头
+     */
+    public static final String CODEC_HEADER = "X-Data-Sync-Codec";
+
+    /**
+     * 二进制编码
+     */
+    public static final String CODEC_BINARY = "binary";
+
+    private static final byte MAGIC = (byte) 0xD5;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_NONE = 0;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 3;
+    private static final int BUFFER_SIZE = 4096;
+
+    private PushDataCodec() {
+    }
+
+    /**
+     * 编码
+     *
+     * @param pushData          推送数据
+     * @param compressThreshold 压缩阈值，单位字节，小于等于0时不压缩
+     * @return byte[]
+     */
+    public static byte[] encode(PushData<?> pushData, int compressThreshold) {
+        byte[] body = encodeBody(pushData);
+        if (compressThreshold > 0 && body.length > compressThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length < body.length) {
+                return frame(FLAG_DEFLATE, compressed);
+            }
+        }
+        return frame(FLAG_NONE, body);
+    }
+
+    /**
+     * 解码帧头
+     *
+     * @param frame 二进制帧
+     * @return PushDataFrame
+     */
+    public static PushDataFrame decode(ByteBuffer frame) {
+        if (frame.remaining() < HEADER_LENGTH || frame.get() != MAGIC) {
+            throw new IllegalArgumentException("Unknown push data frame, binary magic not found");
+        }
+        byte formatVersion = frame.get();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported push data frame version [" + formatVersion + "]");
+        }
+        byte flag = frame.get();
+        ByteBuffer body;
+        try {
+            body = (flag & FLAG_DEFLATE) != 0 ? ByteBuffer.wrap(inflate(frame)) : frame.slice();
+            String configGroup = readString(body);
+            String eventType = readString(body);
+            long version = body.getLong();
+            int dataLength = body.getInt();
+            if (dataLength < 0 || dataLength > body.remaining()) {
+                throw new IllegalArgumentException("Invalid push data frame data length [" + dataLength + "]");
+            }
+            byte[] array;
+            int dataOffset;
+            if (body.hasArray()) {
+                array = body.array();
+                dataOffset = body.arrayOffset() + body.position();
+            } else {
+                array = new byte[dataLength];
+                dataOffset = 0;
+                body.get(array);
+            }
+            return new PushDataFrame(configGroup, eventType, version, array, dataOffset, dataLength);
+        } catch (BufferUnderflowException | DataFormatException e) {
+            throw new IllegalArgumentException("Truncated push data frame", e);
+        }
+    }
+
+    private static byte[] encodeBody(PushData<?> pushData) {
+        byte[] data = JSON.toJSONBytes(pushData.getData());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 64);
+        try (DataOutputStream output = new DataOutputStream(out)) {
+            writeString(output, pushData.getConfigGroup());
+            writeString(output, pushData.getEventType());
+            output.writeLong(pushData.getVersion());
+            output.writeInt(data.length);
+            output.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode push data", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] frame(byte flag, byte[] body) {
+        byte[] result = new byte[body.length + HEADER_LENGTH];
+        result[0] = MAGIC;
+        result[1] = FORMAT_VERSION;
+        result[2] = flag;
+        System.arraycopy(body, 0, result, HEADER_LENGTH, body.length);
+        return result;
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer compressed) throws DataFormatException {
+        byte[] input = new byte[compressed.remaining()];
+        compressed.get(input);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate data");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.sparkzxl.data.sync.common.codec;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * description: 解码后的PushData二进制帧，数据部分为UTF-8 JSON数组的字节区间
+ *
+ * @author zhouxinlei
+ */
+@Getter
+@AllArgsConstructor
+public class PushDataFrame {
+
+    private final String configGroup;
+
+    private final String eventType;
+
+    private final long version;
+
+    private final byte[] data;
+
+    private final int dataOffset;
+
+    private final int dataLength;
+}
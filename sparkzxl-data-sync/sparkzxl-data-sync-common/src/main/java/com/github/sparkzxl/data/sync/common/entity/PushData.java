@@ -32,6 +32,11 @@ public class PushData<T> {
      */
     private List<T> data;
 
+    /**
+     * config group version after this push, 0 means unversioned.
+     */
+    private long version;
+
     /**
      * no args constructor.
      */
@@ -100,6 +105,26 @@ public class PushData<T> {
         return this;
     }
 
+    /**
+     * get version.
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * set version.
+     *
+     * @param version version
+     * @return this
+     */
+    public PushData<T> setVersion(final long version) {
+        this.version = version;
+        return this;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -109,12 +134,12 @@ public class PushData<T> {
             return false;
         }
         PushData<?> that = (PushData<?>) o;
-        return Objects.equals(configGroup, that.configGroup) && Objects.equals(eventType, that.eventType) && Objects.equals(data, that.data);
+        return Objects.equals(configGroup, that.configGroup) && Objects.equals(eventType, that.eventType) && Objects.equals(data, that.data) && version == that.version;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(configGroup, eventType, data);
+        return Objects.hash(configGroup, eventType, data, version);
     }
 
     @Override
@@ -128,6 +153,8 @@ public class PushData<T> {
                 + '\''
                 + ", data="
                 + data
+                + ", version="
+                + version
                 + '}';
     }
 }
\ No newline at end of file
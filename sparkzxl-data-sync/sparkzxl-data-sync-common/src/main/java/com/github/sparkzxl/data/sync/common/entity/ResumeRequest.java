@@ -0,0 +1,23 @@
+package com.github.sparkzxl.data.sync.common.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * description: 断线续传请求，消费端携带各配置分组已应用的版本号，服务端据此补发缺失的增量数据
+ *
+ * @author zhouxinlei
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeRequest {
+
+    /**
+     * 配置分组 -> 已应用的版本号
+     */
+    private Map<String, Long> versions;
+}
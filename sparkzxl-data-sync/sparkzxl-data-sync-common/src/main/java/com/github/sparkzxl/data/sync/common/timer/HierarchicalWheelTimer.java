@@ -1,16 +1,27 @@
 package com.github.sparkzxl.data.sync.common.timer;
 
 import cn.hutool.core.thread.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * description: HierarchicalWheelTimer
  *
  * <p>The type Hierarchical Wheel timer.</p>
+ * <p>
+ * 高吞吐模式下，add只把任务放入无锁插入队列，由时钟线程在每个tick批量放入时间轮，
+ * 时间轮只被时钟线程修改，不再需要读写锁；到期任务交给可配置的执行器并发执行。
+ * 时钟线程空闲时阻塞到下一个桶到期，add在时钟线程阻塞时放入一个已到期的唤醒桶将其唤醒。
+ * 待执行任务数(时间轮 + 插入队列 + 执行器队列)超过上限时拒绝新任务，向调用方施加背压。
  *
  * @author zhouxinlei
  * @see TimingWheel
@@ -18,10 +29,20 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class HierarchicalWheelTimer implements Timer {
 
+    private static final Logger logger = LoggerFactory.getLogger(HierarchicalWheelTimer.class);
+
     private static final AtomicIntegerFieldUpdater<HierarchicalWheelTimer> WORKER_STATE_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(HierarchicalWheelTimer.class, "workerState");
 
-    private final ExecutorService taskExecutor;
+    private static final int WORKER_STATE_INIT = 0;
+
+    private static final int WORKER_STATE_STARTED = 1;
+
+    private static final int WORKER_STATE_SHUTDOWN = 2;
+
+    private final Executor taskExecutor;
+
+    private final boolean ownsExecutor;
 
     private final DelayQueue<TimerTaskList> delayQueue = new DelayQueue<>();
 
@@ -35,6 +56,38 @@ public class HierarchicalWheelTimer implements Timer {
 
     private final ReentrantReadWriteLock.WriteLock writeLock = readWriteLock.writeLock();
 
+    /**
+     * 高吞吐模式的插入队列，普通模式为null
+     */
+    private final Queue<TimerTaskList.TimerTaskEntry> insertionQueue;
+
+    /**
+     * 高吞吐模式下唤醒时钟线程的桶，过期时间为-1，放入延迟队列后立即到期
+     */
+    private final TimerTaskList wakeupBucket = new TimerTaskList(new AtomicInteger(0));
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+
+    private volatile boolean parked;
+
+    private final AtomicInteger queuedCounter = new AtomicInteger(0);
+
+    private final AtomicInteger awaitingCounter = new AtomicInteger(0);
+
+    private final int maxPendingTasks;
+
+    private final LongAdder executedCounter = new LongAdder();
+
+    private final LongAdder rejectedCounter = new LongAdder();
+
+    private final LongAdder taskLatencyTotal = new LongAdder();
+
+    private final AtomicLong maxTaskLatency = new AtomicLong();
+
+    private final AtomicLong maxTickLag = new AtomicLong();
+
+    private volatile long lastTickLag;
+
     private volatile int workerState;
 
     private final Thread workerThread;
@@ -60,9 +113,38 @@ public class HierarchicalWheelTimer implements Timer {
                                   final Long tickMs,
                                   final Integer wheelSize,
                                   final Long startMs) {
+        this(executorName, tickMs, wheelSize, startMs, null, 0, false);
+    }
+
+    /**
+     * Instantiates a new System timer.
+     *
+     * @param executorName    the executor name
+     * @param tickMs          the tick ms
+     * @param wheelSize       the wheel size
+     * @param startMs         the start ms
+     * @param taskExecutor    the executor running expired tasks, null for a single thread executor owned by the timer
+     * @param maxPendingTasks the max pending tasks, add is rejected when exceeded, 0 means unlimited
+     * @param highThroughput  whether to use the lock-free insertion queue drained by the tick thread
+     */
+    public HierarchicalWheelTimer(final String executorName,
+                                  final Long tickMs,
+                                  final Integer wheelSize,
+                                  final Long startMs,
+                                  final Executor taskExecutor,
+                                  final int maxPendingTasks,
+                                  final boolean highThroughput) {
         ThreadFactory threadFactory = new NamedThreadFactory(executorName, false);
-        taskExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>(), threadFactory);
+        if (taskExecutor == null) {
+            this.taskExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+            this.ownsExecutor = true;
+        } else {
+            this.taskExecutor = taskExecutor;
+            this.ownsExecutor = false;
+        }
+        this.maxPendingTasks = maxPendingTasks;
+        this.insertionQueue = highThroughput ? new ConcurrentLinkedQueue<>() : null;
         workerThread = threadFactory.newThread(new Worker(this));
         timingWheel = new TimingWheel(tickMs, wheelSize, startMs, taskCounter, delayQueue);
     }
@@ -72,34 +154,87 @@ public class HierarchicalWheelTimer implements Timer {
         if (timerTask == null) {
             throw new NullPointerException("timer task null");
         }
+        if (maxPendingTasks > 0 && pendingTasks() >= maxPendingTasks) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Number of pending timer tasks (" + pendingTasks()
+                    + ") is greater than or equal to maximum allowed pending tasks (" + maxPendingTasks + ")");
+        }
+        start();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        TimerTaskList.TimerTaskEntry timerTaskEntry = new TimerTaskList.TimerTaskEntry(this, timerTask, timerTask.getDelayMs() + millis);
+        if (insertionQueue != null) {
+            queuedCounter.incrementAndGet();
+            insertionQueue.offer(timerTaskEntry);
+            if (parked && wakeupPending.compareAndSet(false, true)) {
+                delayQueue.offer(wakeupBucket);
+            }
+            return;
+        }
         this.readLock.lock();
         try {
-            start();
-            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
-            this.addTimerTaskEntry(new TimerTaskList.TimerTaskEntry(this, timerTask, timerTask.getDelayMs() + millis));
+            this.addTimerTaskEntry(timerTaskEntry);
         } finally {
             this.readLock.unlock();
         }
-
     }
 
     private void addTimerTaskEntry(final TimerTaskList.TimerTaskEntry timerTaskEntry) {
         if (!timingWheel.add(timerTaskEntry)) {
             if (!timerTaskEntry.cancelled()) {
-                taskExecutor.submit(() -> timerTaskEntry.getTimerTask().run(timerTaskEntry));
+                execute(timerTaskEntry);
             }
         }
     }
 
+    private void execute(final TimerTaskList.TimerTaskEntry timerTaskEntry) {
+        awaitingCounter.incrementAndGet();
+        try {
+            taskExecutor.execute(() -> {
+                awaitingCounter.decrementAndGet();
+                recordTaskLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) - timerTaskEntry.getExpirationMs());
+                try {
+                    timerTaskEntry.getTimerTask().run(timerTaskEntry);
+                } catch (Throwable e) {
+                    logger.error("timer task execute error", e);
+                } finally {
+                    executedCounter.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            awaitingCounter.decrementAndGet();
+            rejectedCounter.increment();
+            logger.error("timer task is rejected by executor", e);
+        }
+    }
+
     @Override
     public void advanceClock(final long timeoutMs) throws InterruptedException {
+        if (insertionQueue != null) {
+            drainInsertionQueue();
+            // 先标记阻塞再检查插入队列，与add的先入队再检查标记配合，保证新任务不会等到下一个桶到期才被处理
+            parked = true;
+            TimerTaskList bucket;
+            try {
+                bucket = insertionQueue.isEmpty() ? delayQueue.poll(timeoutMs, TimeUnit.MILLISECONDS) : delayQueue.poll();
+            } finally {
+                parked = false;
+            }
+            while (bucket != null) {
+                if (bucket == wakeupBucket) {
+                    wakeupPending.set(false);
+                } else {
+                    flush(bucket);
+                }
+                bucket = delayQueue.poll();
+            }
+            return;
+        }
         TimerTaskList bucket = delayQueue.poll(timeoutMs, TimeUnit.MILLISECONDS);
         if (bucket != null) {
             writeLock.lock();
             try {
                 while (bucket != null) {
-                    timingWheel.advanceClock(bucket.getExpiration());
-                    bucket.flush(this::addTimerTaskEntry);
+                    flush(bucket);
                     bucket = delayQueue.poll();
                 }
             } finally {
@@ -108,15 +243,65 @@ public class HierarchicalWheelTimer implements Timer {
         }
     }
 
+    private void flush(final TimerTaskList bucket) {
+        long expiration = bucket.getExpiration();
+        recordTickLag(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) - expiration);
+        timingWheel.advanceClock(expiration);
+        bucket.flush(this::addTimerTaskEntry);
+    }
+
+    private void drainInsertionQueue() {
+        TimerTaskList.TimerTaskEntry timerTaskEntry;
+        while ((timerTaskEntry = insertionQueue.poll()) != null) {
+            queuedCounter.decrementAndGet();
+            addTimerTaskEntry(timerTaskEntry);
+        }
+    }
+
+    private void recordTickLag(final long lag) {
+        long value = Math.max(lag, 0L);
+        lastTickLag = value;
+        maxTickLag.accumulateAndGet(value, Math::max);
+    }
+
+    private void recordTaskLatency(final long latency) {
+        long value = Math.max(latency, 0L);
+        taskLatencyTotal.add(value);
+        maxTaskLatency.accumulateAndGet(value, Math::max);
+    }
+
     private void start() {
         int state = WORKER_STATE_UPDATER.get(this);
-        if (state == 0) {
-            if (WORKER_STATE_UPDATER.compareAndSet(this, 0, 1)) {
+        if (state == WORKER_STATE_INIT) {
+            if (WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_INIT, WORKER_STATE_STARTED)) {
                 workerThread.start();
             }
+        } else if (state == WORKER_STATE_SHUTDOWN) {
+            throw new RejectedExecutionException("timer is shutdown");
         }
     }
 
+    /**
+     * 待执行任务数，包括时间轮中的任务、插入队列中的任务和等待执行器调度的任务
+     *
+     * @return int
+     */
+    public int pendingTasks() {
+        return taskCounter.get() + queuedCounter.get() + awaitingCounter.get();
+    }
+
+    /**
+     * 获取定时器指标
+     *
+     * @return TimerMetrics
+     */
+    public TimerMetrics metrics() {
+        long executed = executedCounter.sum();
+        return new TimerMetrics(pendingTasks(), taskCounter.get(), queuedCounter.get(), awaitingCounter.get(),
+                executed, rejectedCounter.sum(), lastTickLag, maxTickLag.get(),
+                executed == 0 ? 0L : taskLatencyTotal.sum() / executed, maxTaskLatency.get());
+    }
+
     @Override
     public int size() {
         return taskCounter.get();
@@ -124,28 +309,35 @@ public class HierarchicalWheelTimer implements Timer {
 
     @Override
     public void shutdown() {
-        taskExecutor.shutdown();
+        if (WORKER_STATE_UPDATER.getAndSet(this, WORKER_STATE_SHUTDOWN) == WORKER_STATE_STARTED) {
+            workerThread.interrupt();
+        }
+        if (ownsExecutor) {
+            ((ExecutorService) taskExecutor).shutdown();
+        }
     }
 
     private static class Worker implements Runnable {
 
-        private final Timer timer;
+        private final HierarchicalWheelTimer timer;
 
         /**
          * Instantiates a new Worker.
          *
          * @param timer the timer
          */
-        Worker(final Timer timer) {
+        Worker(final HierarchicalWheelTimer timer) {
             this.timer = timer;
         }
 
         @Override
         public void run() {
-            while (true) {
+            while (WORKER_STATE_UPDATER.get(timer) == WORKER_STATE_STARTED) {
                 try {
                     timer.advanceClock(100L);
                 } catch (InterruptedException ignored) {
+                } catch (Throwable e) {
+                    logger.error("timer advance clock error", e);
                 }
             }
         }
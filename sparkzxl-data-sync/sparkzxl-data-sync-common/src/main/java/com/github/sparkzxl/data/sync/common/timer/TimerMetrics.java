@@ -0,0 +1,66 @@
+package com.github.sparkzxl.data.sync.common.timer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * description: 定时器指标快照
+ *
+ * @author zhouxinlei
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TimerMetrics {
+
+    /**
+     * 待执行任务数
+     */
+    private final int pendingTasks;
+
+    /**
+     * 时间轮中的任务数
+     */
+    private final int scheduledTasks;
+
+    /**
+     * 插入队列中尚未放入时间轮的任务数
+     */
+    private final int queuedTasks;
+
+    /**
+     * 已到期等待执行器调度的任务数
+     */
+    private final int awaitingTasks;
+
+    /**
+     * 已执行任务数
+     */
+    private final long executedTasks;
+
+    /**
+     * 被拒绝的任务数
+     */
+    private final long rejectedTasks;
+
+    /**
+     * 最近一次tick相对到期时间的滞后，单位毫秒
+     */
+    private final long lastTickLagMs;
+
+    /**
+     * 最大tick滞后，单位毫秒
+     */
+    private final long maxTickLagMs;
+
+    /**
+     * 任务从到期到开始执行的平均延迟，单位毫秒
+     */
+    private final long avgTaskLatencyMs;
+
+    /**
+     * 任务从到期到开始执行的最大延迟，单位毫秒
+     */
+    private final long maxTaskLatencyMs;
+}
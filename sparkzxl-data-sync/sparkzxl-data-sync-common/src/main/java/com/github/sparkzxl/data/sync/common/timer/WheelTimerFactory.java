@@ -1,5 +1,8 @@
 package com.github.sparkzxl.data.sync.common.timer;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * description: WheelTimerFactory .
  * shared wheel time.
@@ -11,6 +14,8 @@ public class WheelTimerFactory {
 
     private static final String NAME = "shared_wheel_timer";
 
+    private static final int MAX_PENDING_TASKS = 1 << 20;
+
     private static final TimerSharedRef SHARED_TIMER = new TimerSharedRef();
 
     /**
@@ -23,12 +28,36 @@ public class WheelTimerFactory {
     }
 
     /**
-     * New wheel timer hashed wheel timer.
+     * New wheel timer hashed wheel timer, expired tasks run serially on a single thread executor owned
+     * and shut down by the timer.
      *
      * @return the hashed wheel timer
      */
     public static Timer newWheelTimer() {
-        return new HierarchicalWheelTimer(NAME);
+        return newWheelTimer(null, MAX_PENDING_TASKS);
+    }
+
+    /**
+     * New high throughput wheel timer.
+     *
+     * @param taskExecutor    the executor running expired tasks, e.g. a virtual thread per task executor on JDK 21+,
+     *                        null for a single thread executor owned by the timer; a given executor is not shut down by the timer
+     * @param maxPendingTasks the max pending tasks, 0 means unlimited
+     * @return the hierarchical wheel timer
+     */
+    public static Timer newWheelTimer(final Executor taskExecutor, final int maxPendingTasks) {
+        return new HierarchicalWheelTimer(NAME, 1L, 20, TimeUnit.NANOSECONDS.toMillis(System.nanoTime()),
+                taskExecutor, maxPendingTasks, true);
+    }
+
+    /**
+     * Gets shared timer metrics.
+     *
+     * @return the timer metrics, null when the shared timer does not collect metrics
+     */
+    public static TimerMetrics getSharedTimerMetrics() {
+        Timer timer = ((TimerShared) SHARED_TIMER.getRef()).getSharedObj();
+        return timer instanceof HierarchicalWheelTimer ? ((HierarchicalWheelTimer) timer).metrics() : null;
     }
 
     private abstract static class Shared<T> {
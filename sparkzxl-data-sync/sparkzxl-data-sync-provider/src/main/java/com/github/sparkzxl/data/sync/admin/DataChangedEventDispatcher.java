@@ -1,7 +1,9 @@
 package com.github.sparkzxl.data.sync.admin;
 
 import com.github.sparkzxl.data.sync.admin.event.DataChangedEvent;
+import com.github.sparkzxl.data.sync.admin.listener.DataChangeLog;
 import com.github.sparkzxl.data.sync.admin.listener.DataChangedListener;
+import com.github.sparkzxl.data.sync.common.entity.PushData;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
@@ -18,16 +20,21 @@ public class DataChangedEventDispatcher implements ApplicationListener<DataChang
 
     private final ApplicationContext applicationContext;
 
+    private final DataChangeLog dataChangeLog;
+
     private List<DataChangedListener> listeners;
 
-    public DataChangedEventDispatcher(final ApplicationContext applicationContext) {
+    public DataChangedEventDispatcher(final ApplicationContext applicationContext, final DataChangeLog dataChangeLog) {
         this.applicationContext = applicationContext;
+        this.dataChangeLog = dataChangeLog;
     }
 
     @Override
     public void onApplicationEvent(DataChangedEvent event) {
+        PushData<?> pushData = dataChangeLog.record(event.getGroupKey().getCode().toLowerCase(Locale.ROOT),
+                event.getEventType().name(), event.getSource());
         for (DataChangedListener listener : listeners) {
-            listener.onChanged(event.getGroupKey().getCode().toLowerCase(Locale.ROOT), event.getEventType().name(), event.getSource());
+            listener.onChanged(pushData);
         }
     }
 
@@ -12,6 +12,7 @@ import com.github.sparkzxl.data.sync.admin.config.zookeeper.CuratorProperties;
 import com.github.sparkzxl.data.sync.admin.handler.MergeDataHandler;
 import com.github.sparkzxl.data.sync.admin.handler.NacosMetaMergeDataHandler;
 import com.github.sparkzxl.data.sync.admin.handler.ZkMetaMergeDataHandler;
+import com.github.sparkzxl.data.sync.admin.listener.DataChangeLog;
 import com.github.sparkzxl.data.sync.admin.listener.DataChangedInit;
 import com.github.sparkzxl.data.sync.admin.listener.DataChangedListener;
 import com.github.sparkzxl.data.sync.admin.listener.nacos.NacosDataChangedInit;
@@ -56,8 +57,14 @@ public class DataSyncProviderAutoConfig {
     }
 
     @Bean
-    public DataChangedEventDispatcher getDataChangedEventDispatcher(ApplicationContext applicationContext) {
-        return new DataChangedEventDispatcher(applicationContext);
+    @ConditionalOnMissingBean
+    public DataChangeLog dataChangeLog(DataSyncProviderProperties dataSyncProviderProperties) {
+        return new DataChangeLog(dataSyncProviderProperties.getChangeLogCapacity());
+    }
+
+    @Bean
+    public DataChangedEventDispatcher getDataChangedEventDispatcher(ApplicationContext applicationContext, DataChangeLog dataChangeLog) {
+        return new DataChangedEventDispatcher(applicationContext, dataChangeLog);
     }
 
     /**
@@ -18,6 +18,11 @@ public class DataSyncProviderProperties {
      */
     private DataSyncPushType type = DataSyncPushType.WEBSOCKET;
 
+    /**
+     * 每个配置分组在内存中保留的增量变更条数，用于消费端断线重连后补发，default: 1024.
+     */
+    private int changeLogCapacity = 1024;
+
     public DataSyncPushType getType() {
         return type;
     }
@@ -25,4 +30,12 @@ public class DataSyncProviderProperties {
     public void setType(DataSyncPushType type) {
         this.type = type;
     }
+
+    public int getChangeLogCapacity() {
+        return changeLogCapacity;
+    }
+
+    public void setChangeLogCapacity(int changeLogCapacity) {
+        this.changeLogCapacity = changeLogCapacity;
+    }
 }
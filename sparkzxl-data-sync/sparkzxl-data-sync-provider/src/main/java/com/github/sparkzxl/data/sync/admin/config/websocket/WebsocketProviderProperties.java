@@ -22,6 +22,21 @@ public class WebsocketProviderProperties {
      */
     private int messageMaxSize;
 
+    /**
+     * max pending messages per session, the session is evicted when exceeded, default is 1024.
+     */
+    private int sendQueueSize = 1024;
+
+    /**
+     * async send timeout in milliseconds, the session is evicted when exceeded, default is 10000.
+     */
+    private long sendTimeout = 10000L;
+
+    /**
+     * binary frames larger than this size in bytes are deflate compressed, 0 disables compression, default is 4096.
+     */
+    private int compressThreshold = 4096;
+
     /**
      * Gets the value of enabled.
      *
@@ -57,4 +72,58 @@ public class WebsocketProviderProperties {
     public void setMessageMaxSize(final int messageMaxSize) {
         this.messageMaxSize = messageMaxSize;
     }
+
+    /**
+     * get sendQueueSize.
+     *
+     * @return sendQueueSize
+     */
+    public int getSendQueueSize() {
+        return sendQueueSize;
+    }
+
+    /**
+     * set sendQueueSize.
+     *
+     * @param sendQueueSize sendQueueSize
+     */
+    public void setSendQueueSize(final int sendQueueSize) {
+        this.sendQueueSize = sendQueueSize;
+    }
+
+    /**
+     * get sendTimeout.
+     *
+     * @return sendTimeout
+     */
+    public long getSendTimeout() {
+        return sendTimeout;
+    }
+
+    /**
+     * set sendTimeout.
+     *
+     * @param sendTimeout sendTimeout
+     */
+    public void setSendTimeout(final long sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * get compressThreshold.
+     *
+     * @return compressThreshold
+     */
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    /**
+     * set compressThreshold.
+     *
+     * @param compressThreshold compressThreshold
+     */
+    public void setCompressThreshold(final int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
 }
@@ -18,9 +18,14 @@ public abstract class AbstractDataChangedListener implements DataChangedListener
 
     @Override
     public <T> void onChanged(String configGroup, String eventType, List<T> data) {
-        logger.info("onDataChanged，configGroup:{}，eventType:{}，size:{}", configGroup, eventType, data.size());
-        PushData<?> configData = new PushData<>(configGroup, eventType, data);
-        publishConfig(configData);
+        onChanged(new PushData<>(configGroup, eventType, data));
+    }
+
+    @Override
+    public <T> void onChanged(PushData<T> pushData) {
+        logger.info("onDataChanged，configGroup:{}，eventType:{}，version:{}，size:{}", pushData.getConfigGroup(),
+                pushData.getEventType(), pushData.getVersion(), pushData.getData().size());
+        publishConfig(pushData);
     }
 
     /**
@@ -0,0 +1,176 @@
+package com.github.sparkzxl.data.sync.admin.listener;
+
+import com.github.sparkzxl.data.sync.common.entity.PushData;
+import com.github.sparkzxl.data.sync.common.enums.DataEventTypeEnum;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * description: 配置变更日志
+ * <p>
+ * 为每个配置分组维护单调递增的版本号，并在内存中保留最近的增量变更(CREATE/UPDATE/DELETE)，
+ * 重连的消费端携带已应用的版本号即可补发缺失的增量，超出保留范围时需全量同步。
+ * 版本号以启动时间(微秒)为起点，服务重启后版本号不会回退，旧版本号一律回退为全量同步。
+ *
+ * @author zhouxinlei
+ */
+public class DataChangeLog {
+
+    private final int capacity;
+
+    private final Map<String, GroupLog> groupLogMap = Maps.newConcurrentMap();
+
+    /**
+     * 当前线程定向全量同步开始前各配置分组的版本号
+     */
+    private final ThreadLocal<Map<String, Long>> snapshotVersions = new ThreadLocal<>();
+
+    /**
+     * @param capacity 每个配置分组保留的增量变更条数
+     */
+    public DataChangeLog(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * 记录变更并生成带版本号的推送数据
+     *
+     * @param configGroup 配置分组
+     * @param eventType   事件类型
+     * @param data        变更数据
+     * @return PushData<T>
+     */
+    public <T> PushData<T> record(String configGroup, String eventType, List<T> data) {
+        PushData<T> pushData = new PushData<>(configGroup, eventType, data);
+        GroupLog groupLog = groupLogMap.computeIfAbsent(configGroup, group -> new GroupLog());
+        DataEventTypeEnum dataEventType = DataEventTypeEnum.acquireByName(eventType);
+        Map<String, Long> snapshot = snapshotVersions.get();
+        if (dataEventType == DataEventTypeEnum.MYSELF && snapshot != null) {
+            // 使用加载数据前的版本号，加载期间产生的增量在续传时补发
+            pushData.setVersion(snapshot.getOrDefault(configGroup, groupLog.initialVersion));
+            return pushData;
+        }
+        groupLog.record(pushData, dataEventType);
+        return pushData;
+    }
+
+    /**
+     * 定向全量同步加载数据前调用，记录各配置分组当前版本号，全量数据以该版本号下发
+     */
+    public void beginSnapshot() {
+        Map<String, Long> snapshot = Maps.newHashMap();
+        groupLogMap.forEach((configGroup, groupLog) -> snapshot.put(configGroup, groupLog.version));
+        snapshotVersions.set(snapshot);
+    }
+
+    /**
+     * 定向全量同步结束后调用，清除记录的版本号
+     */
+    public void endSnapshot() {
+        snapshotVersions.remove();
+    }
+
+    /**
+     * 计算消费端缺失的增量变更
+     *
+     * @param versions 消费端各配置分组已应用的版本号
+     * @return 缺失的增量变更，无法补发时返回null，需全量同步
+     */
+    public List<PushData<?>> replay(Map<String, Long> versions) {
+        if (versions == null || versions.isEmpty()) {
+            return null;
+        }
+        for (String configGroup : versions.keySet()) {
+            if (!groupLogMap.containsKey(configGroup)) {
+                return null;
+            }
+        }
+        List<PushData<?>> deltas = Lists.newArrayList();
+        for (Map.Entry<String, GroupLog> entry : groupLogMap.entrySet()) {
+            Long version = versions.get(entry.getKey());
+            if (version == null) {
+                return null;
+            }
+            List<PushData<?>> groupDeltas = entry.getValue().since(version);
+            if (groupDeltas == null) {
+                return null;
+            }
+            deltas.addAll(groupDeltas);
+        }
+        return deltas;
+    }
+
+    /**
+     * 获取配置分组当前版本号
+     *
+     * @param configGroup 配置分组
+     * @return long
+     */
+    public long currentVersion(String configGroup) {
+        GroupLog groupLog = groupLogMap.get(configGroup);
+        return groupLog == null ? 0L : groupLog.version;
+    }
+
+    private final class GroupLog {
+
+        private final Deque<PushData<?>> deltas = new ArrayDeque<>();
+
+        /**
+         * 分组创建时的版本号，全量同步开始时分组尚不存在则以该版本号下发，续传时补发其后全部增量
+         */
+        private final long initialVersion = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+        private volatile long version = initialVersion;
+
+        /**
+         * 可补发的最小版本号，消费端版本号小于该值时需全量同步
+         */
+        private long baseVersion = version;
+
+        private synchronized void record(PushData<?> pushData, DataEventTypeEnum eventType) {
+            switch (eventType) {
+                case MYSELF:
+                    // 定向全量同步不产生变更，只携带当前版本号
+                    pushData.setVersion(version);
+                    return;
+                case REFRESH:
+                    version++;
+                    deltas.clear();
+                    baseVersion = version;
+                    pushData.setVersion(version);
+                    return;
+                default:
+                    version++;
+                    pushData.setVersion(version);
+                    deltas.addLast(pushData);
+                    if (deltas.size() > capacity) {
+                        deltas.pollFirst();
+                        baseVersion = deltas.peekFirst().getVersion() - 1;
+                    }
+            }
+        }
+
+        private synchronized List<PushData<?>> since(long clientVersion) {
+            if (clientVersion == version) {
+                return Collections.emptyList();
+            }
+            if (clientVersion > version || clientVersion < baseVersion) {
+                return null;
+            }
+            List<PushData<?>> result = Lists.newArrayList();
+            for (PushData<?> delta : deltas) {
+                if (delta.getVersion() > clientVersion) {
+                    result.add(delta);
+                }
+            }
+            return result;
+        }
+    }
+}
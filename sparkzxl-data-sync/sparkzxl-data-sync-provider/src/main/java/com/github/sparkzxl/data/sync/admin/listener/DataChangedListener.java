@@ -1,5 +1,7 @@
 package com.github.sparkzxl.data.sync.admin.listener;
 
+import com.github.sparkzxl.data.sync.common.entity.PushData;
+
 import java.util.List;
 
 /**
@@ -22,4 +24,13 @@ public interface DataChangedListener {
 
     }
 
+    /**
+     * On versioned data changed.
+     *
+     * @param pushData the push data with config group version
+     */
+    default <T> void onChanged(PushData<T> pushData) {
+        onChanged(pushData.getConfigGroup(), pushData.getEventType(), pushData.getData());
+    }
+
 }
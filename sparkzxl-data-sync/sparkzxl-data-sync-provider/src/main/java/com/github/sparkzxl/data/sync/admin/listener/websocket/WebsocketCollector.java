@@ -1,7 +1,13 @@
 package com.github.sparkzxl.data.sync.admin.listener.websocket;
 
+import com.alibaba.fastjson.JSON;
 import com.github.sparkzxl.core.spring.SpringContextUtils;
 import com.github.sparkzxl.data.sync.admin.DataSyncService;
+import com.github.sparkzxl.data.sync.admin.config.websocket.WebsocketProviderProperties;
+import com.github.sparkzxl.data.sync.admin.listener.DataChangeLog;
+import com.github.sparkzxl.data.sync.common.codec.PushDataCodec;
+import com.github.sparkzxl.data.sync.common.entity.PushData;
+import com.github.sparkzxl.data.sync.common.entity.ResumeRequest;
 import com.github.sparkzxl.data.sync.common.enums.DataEventTypeEnum;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -10,12 +16,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
-import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * description: The type Websocket data changed listener.
@@ -28,10 +33,12 @@ public class WebsocketCollector {
 
     private static final Logger logger = LoggerFactory.getLogger(WebsocketCollector.class);
 
-    private static final Set<Session> SESSION_SET = new CopyOnWriteArraySet<>();
+    private static final Map<Session, WebsocketSessionSender> SESSION_SENDERS = new ConcurrentHashMap<>();
 
     private static final String SESSION_KEY = "sessionKey";
 
+    private static final String RESUME_MESSAGE_PREFIX = "{";
+
     /**
      * On open.
      *
@@ -41,7 +48,9 @@ public class WebsocketCollector {
     public void onOpen(final Session session) {
         logger.info("websocket on client[{}] open successful,maxTextMessageBufferSize:{}",
                 getClientIp(session), session.getMaxTextMessageBufferSize());
-        SESSION_SET.add(session);
+        WebsocketProviderProperties properties = SpringContextUtils.getBean(WebsocketProviderProperties.class);
+        boolean binaryCodec = PushDataCodec.CODEC_BINARY.equals(session.getUserProperties().get(PushDataCodec.CODEC_HEADER));
+        SESSION_SENDERS.put(session, new WebsocketSessionSender(session, properties.getSendQueueSize(), properties.getSendTimeout(), binaryCodec));
     }
 
     private static String getClientIp(final Session session) {
@@ -63,17 +72,55 @@ public class WebsocketCollector {
      */
     @OnMessage
     public void onMessage(final String message, final Session session) {
-        if (!Objects.equals(message, DataEventTypeEnum.MYSELF.name())) {
-            return;
+        if (Objects.equals(message, DataEventTypeEnum.MYSELF.name())) {
+            syncAll(session);
+        } else if (StringUtils.startsWith(message, RESUME_MESSAGE_PREFIX)) {
+            resume(message, session);
         }
+    }
+
+    private void syncAll(final Session session) {
+        DataChangeLog dataChangeLog = SpringContextUtils.getBean(DataChangeLog.class);
         try {
             WebSocketThreadLocalContext.put(SESSION_KEY, session);
+            dataChangeLog.beginSnapshot();
             SpringContextUtils.getBean(DataSyncService.class).syncAll(DataEventTypeEnum.MYSELF);
         } finally {
+            dataChangeLog.endSnapshot();
             WebSocketThreadLocalContext.clear();
         }
     }
 
+    /**
+     * 断线续传，补发消费端缺失的增量变更，变更日志不足以补齐或增量超过发送队列剩余容量时回退为全量同步，
+     * 避免补发溢出发送队列导致会话被剔除后反复重连续传
+     *
+     * @param message the resume request
+     * @param session the session
+     */
+    private void resume(final String message, final Session session) {
+        List<PushData<?>> deltas = null;
+        try {
+            ResumeRequest resumeRequest = JSON.parseObject(message, ResumeRequest.class);
+            deltas = SpringContextUtils.getBean(DataChangeLog.class).replay(resumeRequest.getVersions());
+        } catch (Exception e) {
+            logger.warn("websocket client[{}] resume request is invalid: {}", getClientIp(session), e.getMessage());
+        }
+        WebsocketSessionSender sender = SESSION_SENDERS.get(session);
+        if (sender == null) {
+            return;
+        }
+        if (deltas == null || deltas.size() > sender.remainingCapacity()) {
+            logger.info("websocket client[{}] resume fallback to full sync, deltas: {}", getClientIp(session),
+                    deltas == null ? null : deltas.size());
+            syncAll(session);
+            return;
+        }
+        logger.info("websocket client[{}] resume with {} deltas", getClientIp(session), deltas.size());
+        int compressThreshold = compressThreshold();
+        deltas.forEach(delta -> sendMessageBySession(session, delta.getConfigGroup(), WebsocketPayload.of(delta, compressThreshold), false));
+    }
+
     /**
      * On close.
      *
@@ -104,30 +151,65 @@ public class WebsocketCollector {
      * @param type    the type
      */
     public static void send(final String message, final DataEventTypeEnum type) {
+        send(null, message, type);
+    }
+
+    /**
+     * Send, the push data is encoded at most once per wire format and shared by all sessions.
+     *
+     * @param pushData the push data
+     */
+    public static void send(final PushData<?> pushData) {
+        send(pushData.getConfigGroup(), WebsocketPayload.of(pushData, compressThreshold()),
+                DataEventTypeEnum.acquireByName(pushData.getEventType()));
+    }
+
+    /**
+     * Send, the message is serialized once and shared by all sessions.
+     *
+     * @param configGroup the config group, pending messages of the same group are replaced by a full snapshot
+     * @param message     the message
+     * @param type        the type
+     */
+    public static void send(final String configGroup, final String message, final DataEventTypeEnum type) {
         if (StringUtils.isBlank(message)) {
             return;
         }
+        send(configGroup, WebsocketPayload.ofText(message), type);
+    }
+
+    private static void send(final String configGroup, final WebsocketPayload message, final DataEventTypeEnum type) {
+        boolean snapshot = DataEventTypeEnum.REFRESH == type || DataEventTypeEnum.MYSELF == type;
         if (DataEventTypeEnum.MYSELF == type) {
             Session session = WebSocketThreadLocalContext.get(SESSION_KEY, Session.class);
             if (Objects.nonNull(session)) {
-                sendMessageBySession(session, message);
+                sendMessageBySession(session, configGroup, message, true);
             }
         } else {
-            SESSION_SET.forEach(session -> sendMessageBySession(session, message));
+            SESSION_SENDERS.keySet().forEach(session -> sendMessageBySession(session, configGroup, message, snapshot));
         }
-
     }
 
-    private static synchronized void sendMessageBySession(final Session session, final String message) {
-        try {
-            session.getBasicRemote().sendText(message);
-        } catch (IOException e) {
-            logger.error("websocket send result is exception: ", e);
+    private static void sendMessageBySession(final Session session, final String configGroup, final WebsocketPayload message, final boolean snapshot) {
+        WebsocketSessionSender sender = SESSION_SENDERS.get(session);
+        if (sender == null) {
+            return;
         }
+        if (!sender.offer(configGroup, message, snapshot)) {
+            SESSION_SENDERS.remove(session);
+            sender.evict("send queue is full");
+        }
+    }
+
+    private static int compressThreshold() {
+        return SpringContextUtils.getBean(WebsocketProviderProperties.class).getCompressThreshold();
     }
 
     private void clearSession(final Session session) {
-        SESSION_SET.remove(session);
+        WebsocketSessionSender sender = SESSION_SENDERS.remove(session);
+        if (sender != null) {
+            sender.close();
+        }
         WebSocketThreadLocalContext.clear();
     }
 }
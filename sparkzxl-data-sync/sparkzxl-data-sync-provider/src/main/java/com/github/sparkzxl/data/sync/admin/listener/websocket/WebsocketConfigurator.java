@@ -1,6 +1,7 @@
 package com.github.sparkzxl.data.sync.admin.listener.websocket;
 
 import com.github.sparkzxl.data.sync.admin.config.websocket.WebsocketProviderProperties;
+import com.github.sparkzxl.data.sync.common.codec.PushDataCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
@@ -12,6 +13,7 @@ import javax.servlet.http.HttpSession;
 import javax.websocket.HandshakeResponse;
 import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpointConfig;
+import java.util.List;
 
 import static org.apache.tomcat.websocket.server.Constants.BINARY_BUFFER_SIZE_SERVLET_CONTEXT_INIT_PARAM;
 import static org.apache.tomcat.websocket.server.Constants.TEXT_BUFFER_SIZE_SERVLET_CONTEXT_INIT_PARAM;
@@ -33,6 +35,10 @@ public class WebsocketConfigurator extends ServerEndpointConfig.Configurator imp
     public void modifyHandshake(final ServerEndpointConfig sec, final HandshakeRequest request, final HandshakeResponse response) {
         HttpSession httpSession = (HttpSession) request.getHttpSession();
         sec.getUserProperties().put(WebsocketListener.CLIENT_IP_NAME, httpSession.getAttribute(WebsocketListener.CLIENT_IP_NAME));
+        List<String> codec = request.getHeaders().get(PushDataCodec.CODEC_HEADER);
+        if (codec != null && codec.contains(PushDataCodec.CODEC_BINARY)) {
+            sec.getUserProperties().put(PushDataCodec.CODEC_HEADER, PushDataCodec.CODEC_BINARY);
+        }
         super.modifyHandshake(sec, request, response);
     }
 
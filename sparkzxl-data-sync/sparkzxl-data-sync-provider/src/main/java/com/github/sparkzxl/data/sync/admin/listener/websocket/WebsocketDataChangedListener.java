@@ -1,10 +1,8 @@
 package com.github.sparkzxl.data.sync.admin.listener.websocket;
 
 
-import com.alibaba.fastjson.JSON;
 import com.github.sparkzxl.data.sync.admin.listener.DataChangedListener;
 import com.github.sparkzxl.data.sync.common.entity.PushData;
-import com.github.sparkzxl.data.sync.common.enums.DataEventTypeEnum;
 
 import java.util.List;
 
@@ -18,7 +16,11 @@ public class WebsocketDataChangedListener implements DataChangedListener {
 
     @Override
     public <T> void onChanged(String configGroup, String eventType, List<T> data) {
-        PushData<?> configData = new PushData<>(configGroup, eventType, data);
-        WebsocketCollector.send(JSON.toJSONString(configData), DataEventTypeEnum.acquireByName(eventType));
+        onChanged(new PushData<>(configGroup, eventType, data));
+    }
+
+    @Override
+    public <T> void onChanged(PushData<T> pushData) {
+        WebsocketCollector.send(pushData);
     }
 }
@@ -0,0 +1,71 @@
+package com.github.sparkzxl.data.sync.admin.listener.websocket;
+
+import com.alibaba.fastjson.JSON;
+import com.github.sparkzxl.data.sync.common.codec.PushDataCodec;
+import com.github.sparkzxl.data.sync.common.entity.PushData;
+
+/**
+ * description: websocket推送内容，按需编码为文本或二进制帧，每种格式只编码一次，由所有会话共享
+ *
+ * @author zhouxinlei
+ */
+final class WebsocketPayload {
+
+    private final PushData<?> pushData;
+
+    private final int compressThreshold;
+
+    private volatile String text;
+
+    private volatile byte[] binary;
+
+    private WebsocketPayload(final PushData<?> pushData, final String text, final int compressThreshold) {
+        this.pushData = pushData;
+        this.text = text;
+        this.compressThreshold = compressThreshold;
+    }
+
+    static WebsocketPayload of(final PushData<?> pushData, final int compressThreshold) {
+        return new WebsocketPayload(pushData, null, compressThreshold);
+    }
+
+    static WebsocketPayload ofText(final String text) {
+        return new WebsocketPayload(null, text, 0);
+    }
+
+    /**
+     * 获取发送内容
+     *
+     * @param binaryCodec 会话是否协商了二进制帧
+     * @return String或byte[]
+     */
+    Object resolve(final boolean binaryCodec) {
+        return binaryCodec && pushData != null ? binary() : text();
+    }
+
+    String text() {
+        String result = text;
+        if (result == null) {
+            synchronized (this) {
+                result = text;
+                if (result == null) {
+                    text = result = JSON.toJSONString(pushData);
+                }
+            }
+        }
+        return result;
+    }
+
+    private byte[] binary() {
+        byte[] result = binary;
+        if (result == null) {
+            synchronized (this) {
+                result = binary;
+                if (result == null) {
+                    binary = result = PushDataCodec.encode(pushData, compressThreshold);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,201 @@
+package com.github.sparkzxl.data.sync.admin.listener.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * description: websocket会话发送队列
+ * <p>
+ * 每个会话持有有界发送队列，同一时刻只有一个异步发送在途，发送完成后继续发送下一条，
+ * 慢消费者不会阻塞其他会话。同一配置分组的全量数据入队时会丢弃队列中该分组尚未发送的数据；
+ * 队列溢出或发送失败(含发送超时)的会话被剔除，消费端重连后通过版本号续传补齐数据。
+ *
+ * @author zhouxinlei
+ */
+class WebsocketSessionSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebsocketSessionSender.class);
+
+    private final Session session;
+
+    private final int queueSize;
+
+    private final boolean binaryCodec;
+
+    private final Deque<OutboundMessage> queue = new ArrayDeque<>();
+
+    private boolean sending;
+
+    private volatile boolean closed;
+
+    WebsocketSessionSender(final Session session, final int queueSize, final long sendTimeout, final boolean binaryCodec) {
+        this.session = session;
+        this.queueSize = Math.max(1, queueSize);
+        this.binaryCodec = binaryCodec;
+        if (sendTimeout > 0) {
+            session.getAsyncRemote().setSendTimeout(sendTimeout);
+        }
+    }
+
+    /**
+     * 消息入队
+     *
+     * @param configGroup 配置分组，为空时不做合并
+     * @param payload     推送内容，多个会话共享编码结果
+     * @param snapshot    是否为全量数据
+     * @return 队列已满或会话已关闭时返回false
+     */
+    boolean offer(final String configGroup, final WebsocketPayload payload, final boolean snapshot) {
+        Object data = payload.resolve(binaryCodec);
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (snapshot && configGroup != null) {
+                queue.removeIf(message -> Objects.equals(configGroup, message.configGroup));
+            }
+            if (queue.size() >= queueSize) {
+                return false;
+            }
+            queue.addLast(new OutboundMessage(configGroup, data));
+            if (sending) {
+                return true;
+            }
+            sending = true;
+        }
+        sendNext();
+        return true;
+    }
+
+    /**
+     * 发送队列剩余容量
+     *
+     * @return 可继续入队的消息数
+     */
+    synchronized int remainingCapacity() {
+        return closed ? 0 : queueSize - queue.size();
+    }
+
+    /**
+     * 剔除会话，丢弃未发送的数据并关闭连接
+     *
+     * @param reason 原因
+     */
+    void evict(final String reason) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+        }
+        logger.warn("websocket session[{}] is evicted: {}", session.getId(), reason);
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+        } catch (Exception e) {
+            logger.debug("websocket session[{}] close error: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    /**
+     * 发送下一条消息，发送在调用线程内同步完成时继续循环，避免回调递归
+     */
+    private void sendNext() {
+        while (true) {
+            OutboundMessage message;
+            synchronized (this) {
+                message = closed ? null : queue.pollFirst();
+                if (message == null) {
+                    sending = false;
+                    return;
+                }
+            }
+            SendCompletion completion = new SendCompletion();
+            try {
+                if (message.payload instanceof byte[]) {
+                    session.getAsyncRemote().sendBinary(ByteBuffer.wrap((byte[]) message.payload), completion);
+                } else {
+                    session.getAsyncRemote().sendText((String) message.payload, completion);
+                }
+            } catch (Exception e) {
+                evict("send error: " + e.getMessage());
+                return;
+            }
+            if (completion.detach()) {
+                return;
+            }
+            if (!completion.result.isOK()) {
+                onFailure(completion.result);
+                return;
+            }
+        }
+    }
+
+    private void onFailure(final SendResult result) {
+        Throwable exception = result.getException();
+        evict("send error: " + (exception == null ? "unknown" : exception.getMessage()));
+    }
+
+    private final class SendCompletion implements SendHandler {
+
+        private static final int PENDING = 0;
+        private static final int INLINE = 1;
+        private static final int DETACHED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private volatile SendResult result;
+
+        @Override
+        public void onResult(final SendResult result) {
+            this.result = result;
+            if (state.compareAndSet(PENDING, INLINE)) {
+                return;
+            }
+            if (result.isOK()) {
+                sendNext();
+            } else {
+                onFailure(result);
+            }
+        }
+
+        /**
+         * @return 发送尚未完成时返回true，由回调线程继续发送
+         */
+        private boolean detach() {
+            return state.compareAndSet(PENDING, DETACHED);
+        }
+    }
+
+    private static final class OutboundMessage {
+
+        private final String configGroup;
+
+        /**
+         * String或byte[]
+         */
+        private final Object payload;
+
+        private OutboundMessage(final String configGroup, final Object payload) {
+            this.configGroup = configGroup;
+            this.payload = payload;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.guthub.sparkzxl.data.sync.websocket;
 
 import com.github.sparkzxl.data.sync.api.DataSyncService;
-import com.google.common.collect.ImmutableMap;
+import com.github.sparkzxl.data.sync.common.codec.PushDataCodec;
+import com.google.common.collect.Maps;
 import com.guthub.sparkzxl.data.sync.websocket.client.WebsocketReceiveClient;
 import com.guthub.sparkzxl.data.sync.websocket.config.WebsocketConsumerProperties;
 import com.guthub.sparkzxl.data.sync.websocket.handler.DataHandler;
@@ -41,10 +42,16 @@ public class WebsocketDataSyncServiceImpl implements DataSyncService {
     public WebsocketDataSyncServiceImpl(final WebsocketConsumerProperties websocketConsumerProperties,
                                         final List<DataHandler> dataHandlerList) {
         String[] urls = StringUtils.split(websocketConsumerProperties.getUrls(), ",");
+        Map<String, String> headers = Maps.newHashMap();
+        if (StringUtils.isNotEmpty(websocketConsumerProperties.getAllowOrigin())) {
+            headers.put(ORIGIN_HEADER_NAME, websocketConsumerProperties.getAllowOrigin());
+        }
+        if (websocketConsumerProperties.isBinaryCodec()) {
+            headers.put(PushDataCodec.CODEC_HEADER, PushDataCodec.CODEC_BINARY);
+        }
         for (String url : urls) {
             try {
-                if (StringUtils.isNotEmpty(websocketConsumerProperties.getAllowOrigin())) {
-                    Map<String, String> headers = ImmutableMap.of(ORIGIN_HEADER_NAME, websocketConsumerProperties.getAllowOrigin());
+                if (!headers.isEmpty()) {
                     clients.add(new WebsocketReceiveClient(new URI(url), headers, dataHandlerList));
                 } else {
                     clients.add(new WebsocketReceiveClient(new URI(url), dataHandlerList));
@@ -1,7 +1,10 @@
 package com.guthub.sparkzxl.data.sync.websocket.client;
 
 import com.alibaba.fastjson.JSONObject;
+import com.github.sparkzxl.data.sync.common.codec.PushDataCodec;
+import com.github.sparkzxl.data.sync.common.codec.PushDataFrame;
 import com.github.sparkzxl.data.sync.common.entity.PushData;
+import com.github.sparkzxl.data.sync.common.entity.ResumeRequest;
 import com.github.sparkzxl.data.sync.common.enums.DataEventTypeEnum;
 import com.github.sparkzxl.data.sync.common.timer.AbstractRoundTask;
 import com.github.sparkzxl.data.sync.common.timer.Timer;
@@ -15,8 +18,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,6 +43,16 @@ public class WebsocketReceiveClient extends WebSocketClient {
 
     private TimerTask timerTask;
 
+    /**
+     * 各配置分组已应用的版本号
+     */
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 已发起续传请求时各配置分组的版本号，版本号未推进前不重复请求
+     */
+    private final Map<String, Long> resumeVersions = new ConcurrentHashMap<>();
+
     /**
      * Instantiates a new websocket client.
      *
@@ -94,7 +110,12 @@ public class WebsocketReceiveClient extends WebSocketClient {
     @Override
     public void onOpen(final ServerHandshake serverHandshake) {
         if (!alreadySync) {
-            send(DataEventTypeEnum.MYSELF.name());
+            resumeVersions.clear();
+            if (versions.isEmpty()) {
+                send(DataEventTypeEnum.MYSELF.name());
+            } else {
+                send(JSONObject.toJSONString(new ResumeRequest(versions)));
+            }
             alreadySync = true;
         }
     }
@@ -105,6 +126,21 @@ public class WebsocketReceiveClient extends WebSocketClient {
         handleResult(result);
     }
 
+    @Override
+    public void onMessage(final ByteBuffer bytes) {
+        logger.info("websocket received the binary message, size [{}].", bytes.remaining());
+        try {
+            PushDataFrame frame = PushDataCodec.decode(bytes);
+            if (!acceptVersion(frame.getConfigGroup(), frame.getEventType(), frame.getVersion())) {
+                return;
+            }
+            websocketDataConsumerHandler.executor(frame.getConfigGroup(), frame.getData(), frame.getDataOffset(),
+                    frame.getDataLength(), frame.getEventType());
+        } catch (IllegalArgumentException e) {
+            logger.error("websocket received invalid binary message: {}", e.getMessage());
+        }
+    }
+
     @Override
     public void onClose(final int i, final String s, final boolean b) {
         this.close();
@@ -147,8 +183,47 @@ public class WebsocketReceiveClient extends WebSocketClient {
 
     private void handleResult(final String result) {
         PushData<?> pushData = JSONObject.parseObject(result, PushData.class);
+        if (!acceptVersion(pushData.getConfigGroup(), pushData.getEventType(), pushData.getVersion())) {
+            return;
+        }
         String eventType = pushData.getEventType();
         String json = JSONObject.toJSONString(pushData.getData());
         websocketDataConsumerHandler.executor(pushData.getConfigGroup(), json, eventType);
     }
+
+    /**
+     * 校验推送数据版本号，丢弃重复的增量，发现版本缺口时请求服务端补发
+     *
+     * @param configGroup 配置分组
+     * @param type        事件类型
+     * @param version     版本号
+     * @return 是否应用该推送数据
+     */
+    private boolean acceptVersion(final String configGroup, final String type, final long version) {
+        if (version <= 0) {
+            return true;
+        }
+        DataEventTypeEnum eventType = DataEventTypeEnum.acquireByName(type);
+        if (DataEventTypeEnum.REFRESH == eventType || DataEventTypeEnum.MYSELF == eventType) {
+            versions.put(configGroup, version);
+            return true;
+        }
+        Long current = versions.get(configGroup);
+        if (current == null) {
+            // 尚未全量同步过的分组，增量直接应用但不记录版本号
+            return true;
+        }
+        if (version <= current) {
+            return false;
+        }
+        if (version == current + 1) {
+            versions.put(configGroup, version);
+            return true;
+        }
+        if (!Objects.equals(resumeVersions.put(configGroup, current), current)) {
+            logger.warn("websocket config group[{}] version gap [{} -> {}], request resume", configGroup, current, version);
+            send(JSONObject.toJSONString(new ResumeRequest(versions)));
+        }
+        return false;
+    }
 }
@@ -24,4 +24,9 @@ public class WebsocketConsumerProperties {
      * allowOrigin.
      */
     private String allowOrigin;
+
+    /**
+     * 是否与服务端协商使用二进制帧，不支持的服务端继续推送JSON文本
+     */
+    private boolean binaryCodec = true;
 }
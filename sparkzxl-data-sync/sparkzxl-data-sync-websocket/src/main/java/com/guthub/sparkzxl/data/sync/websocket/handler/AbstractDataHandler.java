@@ -1,9 +1,13 @@
 package com.guthub.sparkzxl.data.sync.websocket.handler;
 
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.util.ParameterizedTypeImpl;
 import com.github.sparkzxl.data.sync.api.DataSubscriber;
 import com.github.sparkzxl.data.sync.common.enums.DataEventTypeEnum;
 import org.apache.commons.collections4.CollectionUtils;
 
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -18,10 +22,41 @@ public abstract class AbstractDataHandler<T> implements DataHandler {
 
     protected final List<? extends DataSubscriber<T>> subscribers;
 
+    private volatile Type listType;
+
     protected AbstractDataHandler(List<? extends DataSubscriber<T>> subscribers) {
         this.subscribers = subscribers;
     }
 
+    /**
+     * 数据类型，返回null时二进制帧的数据先解码为字符串再经 {@link #convert(String)} 转换
+     *
+     * @return Class<T>
+     */
+    protected Class<T> dataClass() {
+        return null;
+    }
+
+    /**
+     * Convert list from UTF-8 json array bytes in a single pass.
+     *
+     * @param data   the data
+     * @param offset the offset
+     * @param length the length
+     * @return the list
+     */
+    protected List<T> convert(byte[] data, int offset, int length) {
+        Class<T> dataClass = dataClass();
+        if (dataClass == null) {
+            return convert(new String(data, offset, length, StandardCharsets.UTF_8));
+        }
+        Type type = listType;
+        if (type == null) {
+            listType = type = new ParameterizedTypeImpl(new Type[]{dataClass}, null, List.class);
+        }
+        return JSON.parseObject(data, offset, length, StandardCharsets.UTF_8, type);
+    }
+
     /**
      * Convert list.
      *
@@ -53,7 +88,15 @@ public abstract class AbstractDataHandler<T> implements DataHandler {
 
     @Override
     public void handle(final String json, final String eventType) {
-        List<T> dataList = convert(json);
+        handle(convert(json), eventType);
+    }
+
+    @Override
+    public void handle(final byte[] data, final int offset, final int length, final String eventType) {
+        handle(convert(data, offset, length), eventType);
+    }
+
+    private void handle(final List<T> dataList, final String eventType) {
         if (CollectionUtils.isEmpty(dataList)) {
             return;
         }
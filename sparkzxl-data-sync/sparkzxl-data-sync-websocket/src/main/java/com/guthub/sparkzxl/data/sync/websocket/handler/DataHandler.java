@@ -1,5 +1,7 @@
 package com.guthub.sparkzxl.data.sync.websocket.handler;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * description: The interface Data handler.
  *
@@ -16,6 +18,18 @@ public interface DataHandler {
      */
     void handle(String json, String eventType);
 
+    /**
+     * Handle data from a binary frame.
+     *
+     * @param data      the frame bytes
+     * @param offset    the offset of the UTF-8 json array
+     * @param length    the length of the UTF-8 json array
+     * @param eventType the event type
+     */
+    default void handle(byte[] data, int offset, int length, String eventType) {
+        handle(new String(data, offset, length, StandardCharsets.UTF_8), eventType);
+    }
+
     /**
      * config  group
      *
@@ -21,6 +21,11 @@ public class MetaDataHandler extends AbstractDataHandler<MetaData> {
         super(subscribers);
     }
 
+    @Override
+    protected Class<MetaData> dataClass() {
+        return MetaData.class;
+    }
+
     @Override
     public List<MetaData> convert(final String json) {
         return JSONArray.parseArray(json, MetaData.class);
@@ -36,4 +36,17 @@ public class WebsocketDataConsumerHandler {
     public void executor(final String configGroup, final String json, final String eventType) {
         DATA_HANDLER_MAP.get(configGroup).handle(json, eventType);
     }
+
+    /**
+     * Executor for a binary frame, the data is decoded directly into the handler's type.
+     *
+     * @param configGroup the config group
+     * @param data        the frame bytes
+     * @param offset      the offset of the data
+     * @param length      the length of the data
+     * @param eventType   the event type
+     */
+    public void executor(final String configGroup, final byte[] data, final int offset, final int length, final String eventType) {
+        DATA_HANDLER_MAP.get(configGroup).handle(data, offset, length, eventType);
+    }
 }
@@ -2,20 +2,35 @@ package com.github.sparkzxl.lock;
 
 import cn.hutool.core.text.StrPool;
 import org.aopalliance.intercept.MethodInvocation;
-import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * description: 分布式锁Key生成器
+ * <p>
+ * 每个方法的key表达式只解析一次并缓存为key计划：形如 #param、#param.field 的简单引用直接读取参数，
+ * 其余表达式首次求值后编译为字节码，编译后的表达式因类型变化失败时退回解释执行
  *
  * @author zhouxinlei
  * @since 2022-05-01 21:49:43
@@ -24,7 +39,11 @@ public class DefaultLockKeyBuilder implements LockKeyBuilder {
 
     private static final ParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
 
-    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+
+    private static final Pattern SIMPLE_REFERENCE = Pattern.compile("^#([A-Za-z_$][\\w$]*)((?:\\.[A-Za-z_$][\\w$]*)*)$");
+
+    private final Map<Method, KeyPlan> keyPlanCache = new ConcurrentHashMap<>();
 
     @Override
     public String buildKey(MethodInvocation invocation, String[] definitionKeys) {
@@ -35,17 +54,247 @@ public class DefaultLockKeyBuilder implements LockKeyBuilder {
         return "";
     }
 
+    @Override
+    public List<String> buildKeys(MethodInvocation invocation, String[] definitionKeys) {
+        List<String> keys = new ArrayList<>();
+        for (Object value : obtainKeyPlan(invocation.getMethod(), definitionKeys).buildValues(invocation.getArguments())) {
+            if (value instanceof Iterable) {
+                ((Iterable<?>) value).forEach(element -> keys.add(stringValue(element)));
+            } else if (value != null && value.getClass().isArray()) {
+                for (int i = 0; i < Array.getLength(value); i++) {
+                    keys.add(stringValue(Array.get(value, i)));
+                }
+            } else {
+                keys.add(stringValue(value));
+            }
+        }
+        return keys;
+    }
+
     protected String getSpElDefinitionKey(String[] definitionKeys, Method method, Object[] parameterValues) {
-        EvaluationContext context = new MethodBasedEvaluationContext(new Object(), method, parameterValues,
-                NAME_DISCOVERER);
         List<String> definitionKeyList = new ArrayList<>(definitionKeys.length);
-        for (String definitionKey : definitionKeys) {
-            if (definitionKey != null && !definitionKey.isEmpty()) {
-                String key = PARSER.parseExpression(definitionKey).getValue(context, String.class);
-                definitionKeyList.add(key);
-            }
+        for (Object value : obtainKeyPlan(method, definitionKeys).buildValues(parameterValues)) {
+            definitionKeyList.add(stringValue(value));
         }
         return StringUtils.collectionToDelimitedString(definitionKeyList, StrPool.COLON, "", "");
     }
 
+    private KeyPlan obtainKeyPlan(Method method, String[] definitionKeys) {
+        KeyPlan keyPlan = keyPlanCache.get(method);
+        if (keyPlan == null || !keyPlan.matches(definitionKeys)) {
+            keyPlan = new KeyPlan(method, definitionKeys);
+            keyPlanCache.put(method, keyPlan);
+        }
+        return keyPlan;
+    }
+
+    private static String stringValue(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        return DefaultConversionService.getSharedInstance().convert(value, String.class);
+    }
+
+    /**
+     * 方法的key计划
+     */
+    private static final class KeyPlan {
+
+        private final String[] definitionKeys;
+        private final String[] parameterNames;
+        private final KeyPart[] parts;
+        private final boolean requireContext;
+
+        private KeyPlan(Method method, String[] definitionKeys) {
+            this.definitionKeys = definitionKeys;
+            String[] names = NAME_DISCOVERER.getParameterNames(method);
+            this.parameterNames = names == null ? new String[0] : names;
+            List<KeyPart> partList = new ArrayList<>(definitionKeys.length);
+            boolean context = false;
+            for (String definitionKey : definitionKeys) {
+                if (definitionKey != null && !definitionKey.isEmpty()) {
+                    ExpressionPart expressionPart = new ExpressionPart(PARSER.parseExpression(definitionKey));
+                    KeyPart part = parseReference(definitionKey.trim(), expressionPart);
+                    partList.add(part != null ? part : expressionPart);
+                    context |= part == null;
+                }
+            }
+            this.parts = partList.toArray(new KeyPart[0]);
+            this.requireContext = context;
+        }
+
+        private boolean matches(String[] keys) {
+            return definitionKeys == keys || Arrays.equals(definitionKeys, keys);
+        }
+
+        private KeyPart parseReference(String definitionKey, ExpressionPart fallback) {
+            Matcher matcher = SIMPLE_REFERENCE.matcher(definitionKey);
+            if (!matcher.matches()) {
+                return null;
+            }
+            int index = parameterIndex(matcher.group(1));
+            if (index < 0) {
+                return null;
+            }
+            String path = matcher.group(2);
+            String[] properties = path.isEmpty() ? new String[0] : path.substring(1).split("\\.");
+            return new ReferencePart(index, properties, fallback);
+        }
+
+        private int parameterIndex(String name) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return i;
+                }
+            }
+            // 与MethodBasedEvaluationContext一致，支持#p0、#a0
+            if (name.length() > 1 && (name.charAt(0) == 'p' || name.charAt(0) == 'a')) {
+                try {
+                    return Integer.parseInt(name.substring(1));
+                } catch (NumberFormatException ignored) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        private List<Object> buildValues(Object[] parameterValues) {
+            EvaluationContext context = requireContext ? createContext(parameterValues) : null;
+            List<Object> values = new ArrayList<>(parts.length);
+            for (KeyPart part : parts) {
+                values.add(part.getValue(parameterValues, context, this));
+            }
+            return values;
+        }
+
+        private EvaluationContext createContext(Object[] parameterValues) {
+            StandardEvaluationContext context = new StandardEvaluationContext(new Object());
+            for (int i = 0; i < parameterValues.length; i++) {
+                context.setVariable("a" + i, parameterValues[i]);
+                context.setVariable("p" + i, parameterValues[i]);
+                if (i < parameterNames.length) {
+                    context.setVariable(parameterNames[i], parameterValues[i]);
+                }
+            }
+            return context;
+        }
+    }
+
+    private interface KeyPart {
+
+        Object getValue(Object[] parameterValues, EvaluationContext context, KeyPlan keyPlan);
+    }
+
+    /**
+     * SpEL表达式，首次求值成功后尝试编译
+     */
+    private static final class ExpressionPart implements KeyPart {
+
+        private final Expression expression;
+        private volatile boolean compileAttempted;
+
+        private ExpressionPart(Expression expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        public Object getValue(Object[] parameterValues, EvaluationContext context, KeyPlan keyPlan) {
+            if (context == null) {
+                context = keyPlan.createContext(parameterValues);
+            }
+            Object value;
+            try {
+                value = expression.getValue(context);
+            } catch (SpelEvaluationException e) {
+                if (!(expression instanceof SpelExpression) || !compileAttempted) {
+                    throw e;
+                }
+                ((SpelExpression) expression).revertToInterpreted();
+                value = expression.getValue(context);
+            }
+            if (!compileAttempted && expression instanceof SpelExpression) {
+                compileAttempted = true;
+                ((SpelExpression) expression).compileExpression();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 参数及其属性的直接引用
+     */
+    private static final class ReferencePart implements KeyPart {
+
+        private final int index;
+        private final String[] properties;
+        private final ExpressionPart fallback;
+        private final Map<Class<?>, Accessor>[] accessors;
+
+        @SuppressWarnings("unchecked")
+        private ReferencePart(int index, String[] properties, ExpressionPart fallback) {
+            this.index = index;
+            this.properties = properties;
+            this.fallback = fallback;
+            this.accessors = new Map[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                accessors[i] = new ConcurrentHashMap<>(4);
+            }
+        }
+
+        @Override
+        public Object getValue(Object[] parameterValues, EvaluationContext context, KeyPlan keyPlan) {
+            Object value = index < parameterValues.length ? parameterValues[index] : null;
+            for (int i = 0; i < properties.length; i++) {
+                String property = properties[i];
+                Accessor accessor = value == null ? null :
+                        accessors[i].computeIfAbsent(value.getClass(), clazz -> Accessor.of(clazz, property));
+                if (accessor == null || accessor == Accessor.UNSUPPORTED) {
+                    // 空值或非普通属性交给SpEL处理，保持与表达式求值一致的行为
+                    return fallback.getValue(parameterValues, context, keyPlan);
+                }
+                value = accessor.get(value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 属性读取器，优先getter，其次public字段
+     */
+    private static final class Accessor {
+
+        private static final Accessor UNSUPPORTED = new Accessor(null, null);
+
+        private final Method getter;
+        private final Field field;
+
+        private Accessor(Method getter, Field field) {
+            this.getter = getter;
+            this.field = field;
+        }
+
+        private static Accessor of(Class<?> clazz, String property) {
+            if (Map.class.isAssignableFrom(clazz)) {
+                return UNSUPPORTED;
+            }
+            String suffix = StringUtils.capitalize(property);
+            for (String prefix : new String[]{"get", "is"}) {
+                Method getter = ReflectionUtils.findMethod(clazz, prefix + suffix);
+                if (getter != null && getter.getReturnType() != void.class
+                        && Modifier.isPublic(getter.getModifiers())) {
+                    ReflectionUtils.makeAccessible(getter);
+                    return new Accessor(getter, null);
+                }
+            }
+            Field field = ReflectionUtils.findField(clazz, property);
+            if (field != null && Modifier.isPublic(field.getModifiers())) {
+                return new Accessor(null, field);
+            }
+            return UNSUPPORTED;
+        }
+
+        private Object get(Object target) {
+            return getter != null ? ReflectionUtils.invokeMethod(getter, target) : ReflectionUtils.getField(field, target);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package com.github.sparkzxl.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * description: JVM本地锁注册表
+ * <p>
+ * 按锁key分段的本地可重入锁，同一节点同一key只有持有本地锁的线程去竞争分布式锁，其他线程在本地排队；
+ * 持有者按 {@link LockInfo#getThreadId()} 识别，同一线程再次加锁且分布式锁仍被持有时直接重入。
+ * 本地锁按引用计数在无人使用时移除
+ *
+ * @author zhouxinlei
+ */
+class LocalLockRegistry {
+
+    private final ConcurrentMap<String, LocalLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 获取本地锁并增加引用计数，使用完毕后必须调用 {@link #release(String, LocalLock)}
+     */
+    LocalLock obtain(String key) {
+        return locks.compute(key, (k, lock) -> {
+            if (lock == null) {
+                lock = new LocalLock();
+            }
+            lock.references++;
+            return lock;
+        });
+    }
+
+    LocalLock get(String key) {
+        return locks.get(key);
+    }
+
+    void release(String key, LocalLock localLock) {
+        locks.computeIfPresent(key, (k, lock) -> lock == localLock && --lock.references == 0 ? null : lock);
+    }
+
+    static final class LocalLock {
+
+        private static final long NO_OWNER = -1L;
+
+        private final ReentrantLock sync = new ReentrantLock(true);
+        private final Condition released = sync.newCondition();
+        /**
+         * 引用计数，只在ConcurrentHashMap的compute中修改
+         */
+        private int references;
+        private long ownerThreadId = NO_OWNER;
+        private int holdCount;
+        private LockInfo lockInfo;
+
+        /**
+         * 当前线程已持有时返回持有的锁信息
+         *
+         * @return 已持有的锁信息，未持有返回null
+         */
+        LockInfo heldLockInfo(long threadId) {
+            sync.lock();
+            try {
+                return ownerThreadId == threadId ? lockInfo : null;
+            } finally {
+                sync.unlock();
+            }
+        }
+
+        /**
+         * 持有者重入一层
+         */
+        void enter() {
+            sync.lock();
+            try {
+                holdCount++;
+            } finally {
+                sync.unlock();
+            }
+        }
+
+        boolean tryAcquire(long threadId, long timeout) throws InterruptedException {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            sync.lockInterruptibly();
+            try {
+                while (ownerThreadId != NO_OWNER) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                }
+                ownerThreadId = threadId;
+                holdCount = 1;
+                return true;
+            } finally {
+                sync.unlock();
+            }
+        }
+
+        void bind(LockInfo lockInfo) {
+            sync.lock();
+            try {
+                this.lockInfo = lockInfo;
+            } finally {
+                sync.unlock();
+            }
+        }
+
+        boolean isHeldBy(LockInfo lockInfo) {
+            sync.lock();
+            try {
+                return this.lockInfo == lockInfo && ownerThreadId == lockInfo.getThreadId();
+            } finally {
+                sync.unlock();
+            }
+        }
+
+        /**
+         * 退出一层重入
+         *
+         * @return 是否仍被持有
+         */
+        boolean exit() {
+            sync.lock();
+            try {
+                return --holdCount > 0;
+            } finally {
+                sync.unlock();
+            }
+        }
+
+        void unlock() {
+            sync.lock();
+            try {
+                ownerThreadId = NO_OWNER;
+                holdCount = 0;
+                lockInfo = null;
+                released.signal();
+            } finally {
+                sync.unlock();
+            }
+        }
+    }
+}
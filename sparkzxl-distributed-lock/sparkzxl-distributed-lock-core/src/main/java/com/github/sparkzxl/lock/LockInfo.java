@@ -53,4 +53,9 @@ public class LockInfo {
      */
     private LockExecutor lockExecutor;
 
+    /**
+     * 锁模式
+     */
+    private LockMode lockMode;
+
 }
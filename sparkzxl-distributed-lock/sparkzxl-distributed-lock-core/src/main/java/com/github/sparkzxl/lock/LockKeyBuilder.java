@@ -2,6 +2,9 @@ package com.github.sparkzxl.lock;
 
 import org.aopalliance.intercept.MethodInvocation;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * description: 锁key构建
  *
@@ -19,4 +22,15 @@ public interface LockKeyBuilder {
      */
     String buildKey(MethodInvocation invocation, String[] definitionKeys);
 
+    /**
+     * 构建多个key，每个表达式的结果(集合、数组会展开)各自作为一个key
+     *
+     * @param invocation     invocation
+     * @param definitionKeys 定义
+     * @return key列表
+     */
+    default List<String> buildKeys(MethodInvocation invocation, String[] definitionKeys) {
+        return Collections.singletonList(buildKey(invocation, definitionKeys));
+    }
+
 }
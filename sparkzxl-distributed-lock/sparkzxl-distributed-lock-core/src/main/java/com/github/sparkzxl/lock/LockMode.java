@@ -0,0 +1,26 @@
+package com.github.sparkzxl.lock;
+
+/**
+ * description: 锁模式
+ *
+ * @author zhouxinlei
+ */
+public enum LockMode {
+
+    /**
+     * 独占锁
+     */
+    EXCLUSIVE,
+
+    /**
+     * 读锁，与其他读锁共享，与写锁互斥
+     */
+    READ,
+
+    /**
+     * 写锁，与读锁、写锁互斥
+     * <p>
+     * 读写锁与独占锁使用不同的存储结构，同一个key不要混用独占锁和读写锁
+     */
+    WRITE
+}
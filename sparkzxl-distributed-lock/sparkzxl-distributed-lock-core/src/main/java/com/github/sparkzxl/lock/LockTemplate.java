@@ -4,15 +4,20 @@ import cn.hutool.core.util.IdUtil;
 import com.github.sparkzxl.lock.autoconfigure.DistributedLockProperties;
 import com.github.sparkzxl.lock.exception.LockException;
 import com.github.sparkzxl.lock.executor.LockExecutor;
+import com.github.sparkzxl.lock.metrics.LockMetricsCollector;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
 
 /**
  * description: 锁模板方法
@@ -28,9 +33,13 @@ public class LockTemplate implements InitializingBean {
     private DistributedLockProperties properties;
     @Setter
     private List<LockExecutor> executors;
+    @Setter
+    private LockMetricsCollector metricsCollector;
 
     private LockExecutor primaryExecutor;
 
+    private final LocalLockRegistry localLocks = new LocalLockRegistry();
+
     public LockTemplate() {
     }
 
@@ -42,49 +51,263 @@ public class LockTemplate implements InitializingBean {
         return lock(key, expire, acquireTimeout, null);
     }
 
+    public LockInfo lock(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor) {
+        return lock(key, expire, acquireTimeout, executor, LockMode.EXCLUSIVE);
+    }
+
     /**
      * 加锁方法
+     * <p>
+     * 开启本地锁时，同一节点同一key先竞争本地锁，只有持有本地锁的线程去获取分布式锁，同一线程重复加锁直接重入。
+     * 本地锁只作用于续期(看门狗)的独占锁：依赖过期时间释放的锁(包括不自动释放的注解锁)可能永远不会调用releaseLock，
+     * 本地锁无法感知其过期，因此直接竞争分布式锁
      *
      * @param key            锁key 同一个key只能被一个客户端持有
      * @param expire         过期时间(ms) 防止死锁
      * @param acquireTimeout 尝试获取锁超时时间(ms)
      * @param executor       执行器
+     * @param lockMode       锁模式
      * @return 加锁成功返回锁信息 失败返回null
      */
-    public LockInfo lock(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor) {
+    public LockInfo lock(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor,
+                         LockMode lockMode) {
+        if (null == metricsCollector) {
+            return lockInternal(key, expire, acquireTimeout, executor, lockMode);
+        }
+        long start = System.nanoTime();
+        LockInfo lockInfo = lockInternal(key, expire, acquireTimeout, executor, lockMode);
+        metricsCollector.onAcquire(key, obtainExecutor(executor).getClass(), lockInfo, System.nanoTime() - start);
+        return lockInfo;
+    }
+
+    private LockInfo lockInternal(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor,
+                                  LockMode lockMode) {
         acquireTimeout = acquireTimeout < 0 ? properties.getAcquireTimeout() : acquireTimeout;
-        long retryInterval = properties.getRetryInterval();
+        LockExecutor lockExecutor = obtainExecutor(executor);
+        if (!properties.isLocalLock() || lockMode != LockMode.EXCLUSIVE || !lockExecutor.renewal() || expire > 0) {
+            return doLock(key, expire, acquireTimeout, executor, lockMode);
+        }
+        long start = System.currentTimeMillis();
+        long threadId = Thread.currentThread().getId();
+        LocalLockRegistry.LocalLock localLock = localLocks.obtain(key);
+        LockInfo lockInfo = null;
+        try {
+            LockInfo heldLockInfo = localLock.heldLockInfo(threadId);
+            if (null != heldLockInfo) {
+                if (heldLockInfo.getLockExecutor() != lockExecutor) {
+                    // 同一线程使用其他执行器加锁，不经过本地锁
+                    return doLock(key, expire, acquireTimeout, executor, lockMode);
+                }
+                if (isHeld(heldLockInfo)) {
+                    localLock.enter();
+                    lockInfo = heldLockInfo;
+                    return lockInfo;
+                }
+                // 分布式锁已丢失，丢弃本地持有状态后重新加锁
+                log.warn("lock key[{}] is no longer held remotely, discard local hold", key);
+                localLock.unlock();
+                localLocks.release(key, localLock);
+            }
+            if (!localLock.tryAcquire(threadId, acquireTimeout)) {
+                return null;
+            }
+            try {
+                long remainingTimeout = Math.max(acquireTimeout - (System.currentTimeMillis() - start), 0);
+                lockInfo = doLock(key, expire, remainingTimeout, executor, lockMode);
+            } finally {
+                if (null == lockInfo) {
+                    localLock.unlock();
+                }
+            }
+            localLock.bind(lockInfo);
+            return lockInfo;
+        } catch (InterruptedException e) {
+            log.error("lock error", e);
+            Thread.currentThread().interrupt();
+            throw new LockException(e.getMessage());
+        } finally {
+            if (null == lockInfo) {
+                localLocks.release(key, localLock);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isHeld(LockInfo lockInfo) {
+        try {
+            return lockInfo.getLockExecutor().isHeldLock(lockInfo.getLockKey(), lockInfo.getLockValue(), lockInfo.getLockInstance());
+        } catch (Exception e) {
+            log.warn("check lock key[{}] held error: {}", lockInfo.getLockKey(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 多key加锁，全部成功或全部失败
+     * <p>
+     * 执行器支持时一次原子获取全部key，否则按key排序后逐个加锁，失败时释放已获取的锁，排序保证不同请求间不会交叉等待
+     *
+     * @param keys           锁key
+     * @param expire         过期时间(ms) 防止死锁
+     * @param acquireTimeout 尝试获取锁超时时间(ms)
+     * @param executor       执行器
+     * @return 加锁成功返回锁信息 失败返回null
+     */
+    public LockInfo lockAll(Collection<String> keys, long expire, long acquireTimeout, Class<? extends LockExecutor> executor) {
+        Assert.notEmpty(keys, "lock keys must not be empty");
+        List<String> lockKeys = keys.stream().distinct().sorted().collect(Collectors.toList());
+        if (lockKeys.size() == 1) {
+            return lock(lockKeys.get(0), expire, acquireTimeout, executor);
+        }
+        if (null == metricsCollector) {
+            return lockAllInternal(lockKeys, expire, acquireTimeout, executor);
+        }
+        long start = System.nanoTime();
+        LockInfo lockInfo = lockAllInternal(lockKeys, expire, acquireTimeout, executor);
+        metricsCollector.onAcquire(String.join(",", lockKeys), obtainExecutor(executor).getClass(), lockInfo, System.nanoTime() - start);
+        return lockInfo;
+    }
+
+    private LockInfo lockAllInternal(List<String> lockKeys, long expire, long acquireTimeout, Class<? extends LockExecutor> executor) {
+        acquireTimeout = acquireTimeout < 0 ? properties.getAcquireTimeout() : acquireTimeout;
+        LockExecutor lockExecutor = obtainExecutor(executor);
+        if (lockExecutor.supportMultiAcquire(lockKeys)) {
+            return doLockAll(lockKeys, expire, acquireTimeout, lockExecutor);
+        }
+        long start = System.currentTimeMillis();
+        List<LockInfo> lockInfos = new ArrayList<>(lockKeys.size());
+        boolean locked = false;
+        try {
+            for (String key : lockKeys) {
+                long remainingTimeout = Math.max(acquireTimeout - (System.currentTimeMillis() - start), 0);
+                LockInfo lockInfo = lockInternal(key, expire, remainingTimeout, executor, LockMode.EXCLUSIVE);
+                if (null == lockInfo) {
+                    return null;
+                }
+                lockInfos.add(lockInfo);
+            }
+            locked = true;
+        } finally {
+            if (!locked) {
+                for (int i = lockInfos.size() - 1; i >= 0; i--) {
+                    releaseInternal(lockInfos.get(i));
+                }
+            }
+        }
+        int acquireCount = lockInfos.stream().mapToInt(LockInfo::getAcquireCount).sum();
+        return new MultiLockInfo(Thread.currentThread().getId(), lockKeys, IdUtil.simpleUUID(), expire, acquireTimeout,
+                acquireCount, null, lockExecutor, lockInfos);
+    }
+
+    private LockInfo doLock(String key, long expire, long acquireTimeout, Class<? extends LockExecutor> executor,
+                            LockMode lockMode) {
         LockExecutor lockExecutor = obtainExecutor(executor);
         log.debug(String.format("use lock class: %s", lockExecutor.getClass()));
-        expire = !lockExecutor.renewal() && expire <= 0 ? properties.getExpire() : expire;
-        int acquireCount = 0;
+        long lockExpire = !lockExecutor.renewal() && expire <= 0 ? properties.getExpire() : expire;
         String value = IdUtil.simpleUUID();
+        return acquire(lockExecutor, key, value, acquireTimeout,
+                timeout -> lockExecutor.acquire(key, value, lockExpire, timeout, lockMode),
+                (lockInstance, acquireCount) -> new LockInfo(Thread.currentThread().getId(), key, value, lockExpire,
+                        acquireTimeout, acquireCount, lockInstance, lockExecutor, lockMode));
+    }
+
+    private LockInfo doLockAll(List<String> lockKeys, long expire, long acquireTimeout, LockExecutor lockExecutor) {
+        long lockExpire = !lockExecutor.renewal() && expire <= 0 ? properties.getExpire() : expire;
+        String value = IdUtil.simpleUUID();
+        return acquire(lockExecutor, lockKeys.get(0), value, acquireTimeout,
+                timeout -> lockExecutor.acquireMulti(lockKeys, value, lockExpire, timeout),
+                (lockInstance, acquireCount) -> new MultiLockInfo(Thread.currentThread().getId(), lockKeys, value,
+                        lockExpire, acquireTimeout, acquireCount, lockInstance, lockExecutor, null));
+    }
+
+    /**
+     * 重试获取锁直到成功或超时
+     */
+    private LockInfo acquire(LockExecutor lockExecutor, String key, String value, long acquireTimeout,
+                             LongFunction<Object> acquirer, BiFunction<Object, Integer, LockInfo> lockInfoFactory) {
+        long retryInterval = properties.getRetryInterval();
+        int acquireCount = 0;
         long start = System.currentTimeMillis();
         try {
-            do {
-                long threadId = Thread.currentThread().getId();
+            while (true) {
                 acquireCount++;
-                Object lockInstance = lockExecutor.acquire(key, value, expire, acquireTimeout);
+                long remainingTimeout = acquireTimeout - (System.currentTimeMillis() - start);
+                Object lockInstance = acquirer.apply(lockExecutor.blockingAcquire() ? Math.max(remainingTimeout, 0) : acquireTimeout);
                 if (null != lockInstance) {
-                    return new LockInfo(threadId, key, value, expire, acquireTimeout, acquireCount, lockInstance,
-                            lockExecutor);
+                    return lockInfoFactory.apply(lockInstance, acquireCount);
                 }
-                TimeUnit.MILLISECONDS.sleep(retryInterval);
-            } while (System.currentTimeMillis() - start < acquireTimeout);
+                remainingTimeout = acquireTimeout - (System.currentTimeMillis() - start);
+                if (remainingTimeout <= 0 || lockExecutor.blockingAcquire()) {
+                    break;
+                }
+                lockExecutor.awaitRelease(key, value, retryInterval, remainingTimeout);
+            }
         } catch (InterruptedException e) {
             log.error("lock error", e);
+            Thread.currentThread().interrupt();
+            lockExecutor.cancelAcquire(key, value);
             throw new LockException(e.getMessage());
         }
+        lockExecutor.cancelAcquire(key, value);
         return null;
     }
 
-    @SuppressWarnings("unchecked")
     public boolean releaseLock(LockInfo lockInfo) {
         if (null == lockInfo) {
             return false;
         }
+        return releaseInternal(lockInfo, metricsCollector);
+    }
+
+    private boolean releaseInternal(LockInfo lockInfo) {
+        return releaseInternal(lockInfo, null);
+    }
+
+    /**
+     * 释放锁，重入的锁只退出一层，最外层释放时记录指标
+     */
+    private boolean releaseInternal(LockInfo lockInfo, LockMetricsCollector collector) {
+        LocalLockRegistry.LocalLock localLock = properties.isLocalLock() ? localLocks.get(lockInfo.getLockKey()) : null;
+        if (null == localLock || !localLock.isHeldBy(lockInfo)) {
+            return doReleaseLock(lockInfo, collector);
+        }
+        if (localLock.exit()) {
+            localLocks.release(lockInfo.getLockKey(), localLock);
+            return true;
+        }
+        try {
+            return doReleaseLock(lockInfo, collector);
+        } finally {
+            localLock.unlock();
+            localLocks.release(lockInfo.getLockKey(), localLock);
+        }
+    }
+
+    private boolean doReleaseLock(LockInfo lockInfo, LockMetricsCollector collector) {
+        boolean released = doReleaseLock(lockInfo);
+        if (null != collector) {
+            collector.onRelease(lockInfo, released);
+        }
+        return released;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean doReleaseLock(LockInfo lockInfo) {
+        if (lockInfo instanceof MultiLockInfo) {
+            MultiLockInfo multiLockInfo = (MultiLockInfo) lockInfo;
+            List<LockInfo> lockInfos = multiLockInfo.getLockInfos();
+            if (null == lockInfos) {
+                return lockInfo.getLockExecutor().releaseMultiLock(multiLockInfo.getLockKeys(), lockInfo.getLockValue(),
+                        lockInfo.getLockInstance());
+            }
+            boolean released = true;
+            for (int i = lockInfos.size() - 1; i >= 0; i--) {
+                released &= releaseInternal(lockInfos.get(i));
+            }
+            return released;
+        }
         return lockInfo.getLockExecutor().releaseLock(lockInfo.getLockKey(), lockInfo.getLockValue(),
-                lockInfo.getLockInstance());
+                lockInfo.getLockInstance(), lockInfo.getLockMode());
     }
 
     protected LockExecutor obtainExecutor(Class<? extends LockExecutor> clazz) {
@@ -0,0 +1,37 @@
+package com.github.sparkzxl.lock;
+
+import com.github.sparkzxl.lock.executor.LockExecutor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * description: 多key锁信息对象
+ *
+ * @author zhouxinlei
+ */
+@Getter
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class MultiLockInfo extends LockInfo {
+
+    /**
+     * 排序后的锁key
+     */
+    private final List<String> lockKeys;
+
+    /**
+     * 执行器不支持原子加锁时，按顺序逐个获取的锁信息，原子加锁时为null
+     */
+    private final List<LockInfo> lockInfos;
+
+    public MultiLockInfo(long threadId, List<String> lockKeys, String lockValue, Long expire, Long acquireTimeout,
+                         int acquireCount, Object lockInstance, LockExecutor lockExecutor, List<LockInfo> lockInfos) {
+        super(threadId, String.join(",", lockKeys), lockValue, expire, acquireTimeout, acquireCount, lockInstance,
+                lockExecutor, LockMode.EXCLUSIVE);
+        this.lockKeys = lockKeys;
+        this.lockInfos = lockInfos;
+    }
+}
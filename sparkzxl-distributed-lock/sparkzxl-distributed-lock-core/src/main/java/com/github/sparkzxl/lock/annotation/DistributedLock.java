@@ -2,6 +2,7 @@ package com.github.sparkzxl.lock.annotation;
 
 import com.github.sparkzxl.lock.DefaultLockFailureStrategy;
 import com.github.sparkzxl.lock.LockFailureStrategy;
+import com.github.sparkzxl.lock.LockMode;
 import com.github.sparkzxl.lock.autoconfigure.DistributedLockProperties;
 import com.github.sparkzxl.lock.executor.LockExecutor;
 
@@ -39,6 +40,21 @@ public @interface DistributedLock {
      */
     String[] keys() default "";
 
+    /**
+     * 锁模式，默认独占锁
+     *
+     * @return LockMode
+     */
+    LockMode mode() default LockMode.EXCLUSIVE;
+
+    /**
+     * 是否多key锁，为true时keys中每个表达式的结果(集合、数组会展开)各自作为一个锁key，全部加锁成功才执行方法，
+     * 只支持独占锁
+     *
+     * @return 是否多key锁
+     */
+    boolean multiKey() default false;
+
     /**
      * @return 过期时间 单位：毫秒
      * <pre>
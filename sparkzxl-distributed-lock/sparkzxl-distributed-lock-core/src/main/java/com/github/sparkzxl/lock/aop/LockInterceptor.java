@@ -4,21 +4,29 @@ import cn.hutool.core.util.ReflectUtil;
 import com.github.sparkzxl.lock.LockFailureStrategy;
 import com.github.sparkzxl.lock.LockInfo;
 import com.github.sparkzxl.lock.LockKeyBuilder;
+import com.github.sparkzxl.lock.LockMode;
 import com.github.sparkzxl.lock.LockTemplate;
 import com.github.sparkzxl.lock.annotation.DistributedLock;
 import com.github.sparkzxl.lock.autoconfigure.DistributedLockProperties;
+import com.github.sparkzxl.lock.executor.LockExecutor;
+import com.github.sparkzxl.lock.metrics.LockMetricsCollector;
 import io.vavr.control.Option;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
-import java.util.HashMap;
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 
 /**
@@ -39,13 +47,18 @@ public class LockInterceptor implements MethodInterceptor {
 
     private final DistributedLockProperties distributedLockProperties;
 
+    private final Map<Method, LockMetadata> lockMetadataCache = new ConcurrentHashMap<>();
+
+    @Setter
+    private LockMetricsCollector metricsCollector;
+
     public LockInterceptor(LockTemplate lockTemplate,
                            LockKeyBuilder lockKeyBuilder,
                            DistributedLockProperties distributedLockProperties) {
         this.lockTemplate = lockTemplate;
         this.lockKeyBuilder = lockKeyBuilder;
         this.distributedLockProperties = distributedLockProperties;
-        this.lockFailureStrategyMap = new HashMap<>();
+        this.lockFailureStrategyMap = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -55,23 +68,35 @@ public class LockInterceptor implements MethodInterceptor {
         if (!cls.equals(invocation.getThis().getClass())) {
             return invocation.proceed();
         }
-        DistributedLock distributedLock = invocation.getMethod().getAnnotation(DistributedLock.class);
+        LockMetadata metadata = lockMetadataCache.computeIfAbsent(invocation.getMethod(), this::createLockMetadata);
         LockInfo lockInfo = null;
         try {
-            String prefix = distributedLockProperties.getLockKeyPrefix() + ":";
-            prefix += StringUtils.hasText(distributedLock.name()) ? distributedLock.name() : invocation.getMethod().getDeclaringClass().getName() + invocation.getMethod().getName();
-            String key = prefix + "#" + lockKeyBuilder.buildKey(invocation, distributedLock.keys());
-            lockInfo = lockTemplate.lock(key, distributedLock.expire(), distributedLock.acquireTimeout(), distributedLock.executor());
+            String key;
+            if (metadata.multiKey) {
+                List<String> lockKeys = lockKeyBuilder.buildKeys(invocation, metadata.keys);
+                Assert.isTrue(lockKeys.stream().noneMatch(Objects::isNull),
+                        () -> "multi key lock of method [" + invocation.getMethod().getName() + "] resolved a null key");
+                List<String> keys = lockKeys.stream()
+                        .map(metadata.keyPrefix::concat)
+                        .collect(Collectors.toList());
+                key = String.join(",", keys);
+                lockInfo = lockTemplate.lockAll(keys, metadata.expire, metadata.acquireTimeout, metadata.executor);
+            } else {
+                key = metadata.keyPrefix + lockKeyBuilder.buildKey(invocation, metadata.keys);
+                lockInfo = lockTemplate.lock(key, metadata.expire, metadata.acquireTimeout, metadata.executor, metadata.lockMode);
+            }
             if (null != lockInfo) {
                 log.info("Thread[{}] -> get lock key[{}] success", lockInfo.getThreadId(), key);
                 return invocation.proceed();
             }
             // lock failure
-            LockFailureStrategy lockFailureStrategy = getLockFailureStrategy(distributedLock.failureStrategy());
-            lockFailureStrategy.onLockFailure(key, invocation.getMethod(), invocation.getArguments());
+            if (null != metricsCollector) {
+                metricsCollector.onLockFailure(key, metadata.failureStrategy.getClass());
+            }
+            metadata.failureStrategy.onLockFailure(key, invocation.getMethod(), invocation.getArguments());
             return null;
         } finally {
-            if (null != lockInfo && distributedLock.autoRelease()) {
+            if (null != lockInfo && metadata.autoRelease) {
                 log.info("Thread[{}] -> releaseLock key [{}]", lockInfo.getThreadId(), lockInfo.getLockKey());
                 final boolean releaseLock = lockTemplate.releaseLock(lockInfo);
                 if (!releaseLock) {
@@ -81,6 +106,20 @@ public class LockInterceptor implements MethodInterceptor {
         }
     }
 
+    private LockMetadata createLockMetadata(Method method) {
+        DistributedLock distributedLock = method.getAnnotation(DistributedLock.class);
+        String keyPrefix = distributedLockProperties.getLockKeyPrefix() + ":"
+                + (StringUtils.hasText(distributedLock.name()) ? distributedLock.name() : method.getDeclaringClass().getName() + method.getName())
+                + "#";
+        // 不自动释放的锁依赖过期时间释放，不能交给看门狗无限续期
+        long expire = !distributedLock.autoRelease() && distributedLock.expire() <= 0 ? distributedLockProperties.getExpire() : distributedLock.expire();
+        Assert.isTrue(!distributedLock.multiKey() || distributedLock.mode() == LockMode.EXCLUSIVE,
+                "multi key lock only supports exclusive mode");
+        return new LockMetadata(keyPrefix, distributedLock.keys(), expire, distributedLock.acquireTimeout(),
+                distributedLock.autoRelease(), distributedLock.executor(), distributedLock.mode(), distributedLock.multiKey(),
+                getLockFailureStrategy(distributedLock.failureStrategy()));
+    }
+
     public LockFailureStrategy getLockFailureStrategy(Class<? extends LockFailureStrategy> failureStrategyClass) {
         return Option.of(lockFailureStrategyMap.get(failureStrategyClass)).getOrElse(() -> {
             LockFailureStrategy lockFailureStrategy = ReflectUtil.newInstance(failureStrategyClass);
@@ -89,4 +128,21 @@ public class LockInterceptor implements MethodInterceptor {
         });
     }
 
+    /**
+     * 方法上解析好的锁注解信息
+     */
+    @RequiredArgsConstructor
+    private static final class LockMetadata {
+
+        private final String keyPrefix;
+        private final String[] keys;
+        private final long expire;
+        private final long acquireTimeout;
+        private final boolean autoRelease;
+        private final Class<? extends LockExecutor> executor;
+        private final LockMode lockMode;
+        private final boolean multiKey;
+        private final LockFailureStrategy failureStrategy;
+    }
+
 }
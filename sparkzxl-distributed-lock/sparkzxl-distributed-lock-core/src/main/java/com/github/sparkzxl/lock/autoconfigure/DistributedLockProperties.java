@@ -3,6 +3,9 @@ package com.github.sparkzxl.lock.autoconfigure;
 import com.github.sparkzxl.lock.executor.LockExecutor;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import java.time.Duration;
 
 /**
  * description: lock配置
@@ -29,6 +32,33 @@ public class DistributedLockProperties {
      */
     private Long retryInterval = 100L;
 
+    /**
+     * 是否等待锁释放通知，开启后加锁失败的请求按先后顺序排队，锁释放时通知队首立即重试，
+     * 不再按重试间隔轮询，目前只有redisTemplate执行器支持
+     */
+    private boolean waitNotify = true;
+
+    /**
+     * 是否开启本地锁，开启后同一节点同一key只有一个线程竞争分布式锁，其余线程在本地排队，同一线程可重入
+     */
+    private boolean localLock = true;
+
+    /**
+     * 是否开启看门狗续期，开启后未指定过期时间的锁使用较短的租约，持有期间由看门狗定时续期，
+     * 持有者宕机后锁在租约到期后释放，目前只有redisTemplate执行器支持
+     */
+    private boolean watchdog = true;
+
+    /**
+     * 看门狗租约时长 单位：毫秒，每隔租约时长的1/3续期一次
+     */
+    private Long leaseTime = 5000L;
+
+    /**
+     * 看门狗时间轮tick时长 单位：毫秒
+     */
+    private Long watchdogTick = 100L;
+
     /**
      * 默认执行器，不设置默认取容器第一个(默认注入顺序，redisson>redisTemplate>zookeeper)
      */
@@ -38,4 +68,29 @@ public class DistributedLockProperties {
      * 锁key前缀
      */
     private String lockKeyPrefix = "lock";
+
+    /**
+     * 锁指标配置
+     */
+    @NestedConfigurationProperty
+    private MetricsProperties metrics = new MetricsProperties();
+
+    @Data
+    public static class MetricsProperties {
+
+        /**
+         * 是否开启锁指标统计，需要引入micrometer
+         */
+        private boolean enabled = false;
+
+        /**
+         * 锁持有时间告警阈值，超过后输出日志并发布LockSlowHolderEvent，小于等于0不检测
+         */
+        private Duration slowHoldThreshold = Duration.ofSeconds(10);
+
+        /**
+         * 最多统计的key模式数量，超出部分归入other
+         */
+        private int maxPatterns = 100;
+    }
 }
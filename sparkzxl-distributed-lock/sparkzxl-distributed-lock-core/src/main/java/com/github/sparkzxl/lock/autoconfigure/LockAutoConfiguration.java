@@ -5,11 +5,14 @@ import com.github.sparkzxl.lock.annotation.DistributedLock;
 import com.github.sparkzxl.lock.aop.LockAnnotationAdvisor;
 import com.github.sparkzxl.lock.aop.LockInterceptor;
 import com.github.sparkzxl.lock.executor.LockExecutor;
+import com.github.sparkzxl.lock.metrics.LockMetricsCollector;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.Ordered;
 
 import java.util.List;
@@ -22,6 +25,7 @@ import java.util.List;
  */
 @Configuration
 @EnableConfigurationProperties(DistributedLockProperties.class)
+@Import(LockMetricsConfiguration.class)
 @RequiredArgsConstructor
 @SuppressWarnings("rawtypes")
 public class LockAutoConfiguration {
@@ -30,10 +34,11 @@ public class LockAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public LockTemplate lockTemplate(List<LockExecutor> executors) {
+    public LockTemplate lockTemplate(List<LockExecutor> executors, ObjectProvider<LockMetricsCollector> metricsCollector) {
         LockTemplate lockTemplate = new LockTemplate();
         lockTemplate.setProperties(properties);
         lockTemplate.setExecutors(executors);
+        lockTemplate.setMetricsCollector(metricsCollector.getIfAvailable());
         return lockTemplate;
     }
 
@@ -51,8 +56,11 @@ public class LockAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public LockInterceptor lockInterceptor(LockTemplate lockTemplate, LockKeyBuilder lockKeyBuilder) {
-        return new LockInterceptor(lockTemplate, lockKeyBuilder, properties);
+    public LockInterceptor lockInterceptor(LockTemplate lockTemplate, LockKeyBuilder lockKeyBuilder,
+                                           ObjectProvider<LockMetricsCollector> metricsCollector) {
+        LockInterceptor lockInterceptor = new LockInterceptor(lockTemplate, lockKeyBuilder, properties);
+        lockInterceptor.setMetricsCollector(metricsCollector.getIfAvailable());
+        return lockInterceptor;
     }
 
     @Bean
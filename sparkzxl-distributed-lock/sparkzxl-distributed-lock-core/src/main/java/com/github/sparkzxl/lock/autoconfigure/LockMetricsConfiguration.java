@@ -0,0 +1,36 @@
+package com.github.sparkzxl.lock.autoconfigure;
+
+import com.github.sparkzxl.lock.metrics.LockMetricsCollector;
+import com.github.sparkzxl.lock.metrics.MicrometerLockMetricsCollector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * description: 分布式锁指标配置
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "distributed-lock.metrics", name = "enabled", havingValue = "true")
+public class LockMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LockMetricsCollector lockMetricsCollector(ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                                     ApplicationEventPublisher applicationEventPublisher,
+                                                     DistributedLockProperties distributedLockProperties) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        log.info("Autowired lockMetricsCollector success!");
+        return new MicrometerLockMetricsCollector(meterRegistry, applicationEventPublisher, distributedLockProperties.getMetrics());
+    }
+}
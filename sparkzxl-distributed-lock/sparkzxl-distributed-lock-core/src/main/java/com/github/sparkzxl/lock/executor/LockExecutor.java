@@ -1,5 +1,11 @@
 package com.github.sparkzxl.lock.executor;
 
+import com.github.sparkzxl.lock.LockMode;
+import com.github.sparkzxl.lock.exception.LockException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * description: 分布式锁核心执行处理器
  *
@@ -9,7 +15,7 @@ package com.github.sparkzxl.lock.executor;
 public interface LockExecutor<T> {
 
     /**
-     * 续期，目前只有redisson支持，切expire参数为-1才会续期
+     * 续期，目前redisson(expire参数为-1)和开启看门狗的redisTemplate(expire参数小于等于0)支持
      *
      * @return 是否续期
      */
@@ -17,6 +23,16 @@ public interface LockExecutor<T> {
         return false;
     }
 
+    /**
+     * acquire内部是否已阻塞等待锁释放(如redisson订阅、zookeeper watch)，为true时LockTemplate不再休眠重试，
+     * 而是将剩余的获取锁超时时间传给acquire
+     *
+     * @return 是否阻塞获取
+     */
+    default boolean blockingAcquire() {
+        return false;
+    }
+
     /**
      * 加锁
      *
@@ -44,4 +60,103 @@ public interface LockExecutor<T> {
      */
     boolean releaseLock(String key, String value, T lockInstance);
 
+    /**
+     * 按锁模式加锁，默认只支持独占锁
+     *
+     * @param lockKey        锁标识
+     * @param lockValue      锁值
+     * @param expire         锁有效时间
+     * @param acquireTimeout 获取锁超时时间
+     * @param lockMode       锁模式
+     * @return 锁信息
+     */
+    default T acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockMode lockMode) {
+        if (lockMode == LockMode.EXCLUSIVE) {
+            return acquire(lockKey, lockValue, expire, acquireTimeout);
+        }
+        throw new LockException(String.format("%s does not support %s lock", getClass().getSimpleName(), lockMode));
+    }
+
+    /**
+     * 按锁模式解锁
+     *
+     * @param key          加锁key
+     * @param value        加锁value
+     * @param lockInstance 锁实例
+     * @param lockMode     锁模式
+     * @return 是否释放成功
+     */
+    default boolean releaseLock(String key, String value, T lockInstance, LockMode lockMode) {
+        return releaseLock(key, value, lockInstance);
+    }
+
+    /**
+     * 锁是否仍被持有，用于本地锁重入前校验分布式锁没有过期或丢失
+     *
+     * @param key          加锁key
+     * @param value        加锁value
+     * @param lockInstance 锁实例
+     * @return 是否仍被持有，无法判断时返回true
+     */
+    default boolean isHeldLock(String key, String value, T lockInstance) {
+        return true;
+    }
+
+    /**
+     * 是否支持一次原子获取多个key，不支持时由LockTemplate按key顺序逐个加锁
+     *
+     * @param lockKeys 排序后的锁key
+     * @return 是否支持
+     */
+    default boolean supportMultiAcquire(List<String> lockKeys) {
+        return false;
+    }
+
+    /**
+     * 原子获取多个key，全部成功或全部失败
+     *
+     * @param lockKeys       排序后的锁key
+     * @param lockValue      锁值
+     * @param expire         锁有效时间
+     * @param acquireTimeout 获取锁超时时间
+     * @return 锁信息
+     */
+    default T acquireMulti(List<String> lockKeys, String lockValue, long expire, long acquireTimeout) {
+        throw new LockException(String.format("%s does not support multi key lock", getClass().getSimpleName()));
+    }
+
+    /**
+     * 释放原子获取的多个key
+     *
+     * @param lockKeys     排序后的锁key
+     * @param lockValue    锁值
+     * @param lockInstance 锁实例
+     * @return 是否全部释放成功
+     */
+    default boolean releaseMultiLock(List<String> lockKeys, String lockValue, T lockInstance) {
+        throw new LockException(String.format("%s does not support multi key lock", getClass().getSimpleName()));
+    }
+
+    /**
+     * 加锁失败后等待锁释放，默认休眠重试间隔
+     *
+     * @param lockKey          锁标识
+     * @param lockValue        锁值
+     * @param retryInterval    重试时间间隔
+     * @param remainingTimeout 剩余的获取锁超时时间
+     * @throws InterruptedException 线程中断
+     */
+    default void awaitRelease(String lockKey, String lockValue, long retryInterval, long remainingTimeout) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(Math.min(retryInterval, remainingTimeout));
+    }
+
+    /**
+     * 获取锁超时放弃时调用，用于清理排队信息
+     *
+     * @param lockKey   锁标识
+     * @param lockValue 锁值
+     */
+    default void cancelAcquire(String lockKey, String lockValue) {
+    }
+
 }
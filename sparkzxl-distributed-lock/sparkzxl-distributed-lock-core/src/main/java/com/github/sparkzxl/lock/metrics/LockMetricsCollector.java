@@ -0,0 +1,39 @@
+package com.github.sparkzxl.lock.metrics;
+
+import com.github.sparkzxl.lock.LockFailureStrategy;
+import com.github.sparkzxl.lock.LockInfo;
+import com.github.sparkzxl.lock.executor.LockExecutor;
+
+/**
+ * description: 锁指标收集
+ *
+ * @author zhouxinlei
+ */
+public interface LockMetricsCollector {
+
+    /**
+     * 加锁完成
+     *
+     * @param key       锁key，多key锁为逗号拼接的key
+     * @param executor  加锁使用的执行器
+     * @param lockInfo  锁信息，加锁失败为null
+     * @param waitNanos 等待耗时，单位：纳秒
+     */
+    void onAcquire(String key, Class<? extends LockExecutor> executor, LockInfo lockInfo, long waitNanos);
+
+    /**
+     * 锁释放
+     *
+     * @param lockInfo 锁信息
+     * @param released 是否释放成功
+     */
+    void onRelease(LockInfo lockInfo, boolean released);
+
+    /**
+     * 加锁失败并执行失败策略
+     *
+     * @param key             锁key
+     * @param failureStrategy 失败策略
+     */
+    void onLockFailure(String key, Class<? extends LockFailureStrategy> failureStrategy);
+}
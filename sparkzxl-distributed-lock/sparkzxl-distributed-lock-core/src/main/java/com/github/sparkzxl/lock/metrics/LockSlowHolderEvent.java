@@ -0,0 +1,25 @@
+package com.github.sparkzxl.lock.metrics;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * description: 锁持有时间超过阈值事件
+ *
+ * @author zhouxinlei
+ */
+public class LockSlowHolderEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SlowLockHolder holder;
+
+    public LockSlowHolderEvent(SlowLockHolder holder) {
+        super(holder);
+        this.holder = holder;
+    }
+
+    @Override
+    public SlowLockHolder getSource() {
+        return holder;
+    }
+}
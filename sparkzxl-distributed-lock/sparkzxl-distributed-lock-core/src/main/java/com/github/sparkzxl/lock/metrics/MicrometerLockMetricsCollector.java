@@ -0,0 +1,238 @@
+package com.github.sparkzxl.lock.metrics;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.github.sparkzxl.lock.LockFailureStrategy;
+import com.github.sparkzxl.lock.LockInfo;
+import com.github.sparkzxl.lock.autoconfigure.DistributedLockProperties;
+import com.github.sparkzxl.lock.executor.LockExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * description: 基于Micrometer的锁指标收集
+ * <p>
+ * 按key模式记录等待耗时、获取次数、持有耗时分布以及各失败策略的失败次数；
+ * 持有时间超过阈值的锁在释放时或定时巡检时输出日志并发布 {@link LockSlowHolderEvent}；
+ * 依赖过期时间释放的锁可能永远不会释放，巡检时移除已过期的持有记录
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class MicrometerLockMetricsCollector implements LockMetricsCollector, DisposableBean {
+
+    private static final String OTHER_PATTERN = "other";
+    private static final String TAG_PATTERN = "pattern";
+    private static final String TAG_EXECUTOR = "executor";
+    private static final String MULTI_KEY_SEPARATOR = ",";
+    private static final long EXPIRE_INSPECT_PERIOD = 1000L;
+
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long slowHoldThresholdNanos;
+    private final int maxPatterns;
+    private final Map<String, PatternMeters> metersMap = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+    /**
+     * 持有中的锁，key为锁值
+     */
+    private final Map<String, HeldLock> heldLocks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService inspector;
+
+    public MicrometerLockMetricsCollector(MeterRegistry meterRegistry,
+                                          ApplicationEventPublisher eventPublisher,
+                                          DistributedLockProperties.MetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.slowHoldThresholdNanos = properties.getSlowHoldThreshold().toNanos();
+        this.maxPatterns = properties.getMaxPatterns();
+        long period = slowHoldThresholdNanos > 0 ? Math.max(properties.getSlowHoldThreshold().toMillis() / 2, 100) : EXPIRE_INSPECT_PERIOD;
+        this.inspector = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("lock-slow-holder-", true));
+        this.inspector.scheduleWithFixedDelay(this::inspectHeldLocks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onAcquire(String key, Class<? extends LockExecutor> executor, LockInfo lockInfo, long waitNanos) {
+        if (lockInfo == null) {
+            meters(key, executor).waitTimeout.record(waitNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        HeldLock heldLock = new HeldLock(lockInfo, Thread.currentThread().getName());
+        // 重入时锁已在持有中，不重复统计
+        if (heldLocks.putIfAbsent(lockInfo.getLockValue(), heldLock) != null) {
+            return;
+        }
+        PatternMeters meters = meters(key, executor);
+        meters.waitAcquired.record(waitNanos, TimeUnit.NANOSECONDS);
+        meters.attempts.record(lockInfo.getAcquireCount());
+    }
+
+    @Override
+    public void onRelease(LockInfo lockInfo, boolean released) {
+        HeldLock heldLock = heldLocks.remove(lockInfo.getLockValue());
+        if (heldLock == null) {
+            return;
+        }
+        long holdNanos = System.nanoTime() - heldLock.acquireNanos;
+        meters(lockInfo.getLockKey(), executorClass(lockInfo)).hold.record(holdNanos, TimeUnit.NANOSECONDS);
+        if (slowHoldThresholdNanos > 0 && holdNanos >= slowHoldThresholdNanos && !heldLock.reported) {
+            reportSlowHolder(heldLock, holdNanos, true);
+        }
+    }
+
+    @Override
+    public void onLockFailure(String key, Class<? extends LockFailureStrategy> failureStrategy) {
+        String strategy = failureStrategy.getSimpleName();
+        lookup(failureCounters, resolvePattern(key), failureStrategy.getName(), pattern -> Counter.builder("lock.failures")
+                .description("The number of lock acquisitions handled by a failure strategy")
+                .tags(TAG_PATTERN, pattern, "strategy", strategy)
+                .register(meterRegistry)).increment();
+    }
+
+    private void inspectHeldLocks() {
+        try {
+            long now = System.nanoTime();
+            for (HeldLock heldLock : heldLocks.values()) {
+                if (heldLock.expireNanos > 0 && now - heldLock.expireNanos >= 0) {
+                    heldLocks.remove(heldLock.lockInfo.getLockValue(), heldLock);
+                    continue;
+                }
+                long holdNanos = now - heldLock.acquireNanos;
+                if (slowHoldThresholdNanos > 0 && !heldLock.reported && holdNanos >= slowHoldThresholdNanos) {
+                    heldLock.reported = true;
+                    reportSlowHolder(heldLock, holdNanos, false);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Inspect lock holders error: {}", e.getMessage());
+        }
+    }
+
+    private void reportSlowHolder(HeldLock heldLock, long holdNanos, boolean released) {
+        LockInfo lockInfo = heldLock.lockInfo;
+        SlowLockHolder holder = new SlowLockHolder(lockInfo.getLockKey(), executorName(executorClass(lockInfo)), heldLock.threadName,
+                TimeUnit.NANOSECONDS.toMillis(holdNanos), released);
+        log.warn("Slow lock holder: key[{}], thread[{}], held {} ms, released={}", holder.getLockKey(),
+                holder.getThreadName(), holder.getHoldMillis(), released);
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new LockSlowHolderEvent(holder));
+        }
+    }
+
+    /**
+     * 注解生成的key形如 prefix:name#keys，取#之前的部分；其他key去掉最后一段；
+     * 批量加锁的key以逗号拼接，逐个解析后去重拼接
+     */
+    private String resolvePattern(String key) {
+        if (key == null) {
+            return OTHER_PATTERN;
+        }
+        if (!key.contains(MULTI_KEY_SEPARATOR)) {
+            return resolveSinglePattern(key);
+        }
+        Set<String> patterns = new TreeSet<>();
+        for (String singleKey : key.split(MULTI_KEY_SEPARATOR)) {
+            patterns.add(resolveSinglePattern(singleKey));
+        }
+        return String.join(MULTI_KEY_SEPARATOR, patterns);
+    }
+
+    private static String resolveSinglePattern(String key) {
+        int index = key.indexOf('#');
+        if (index < 0) {
+            index = key.lastIndexOf(':');
+        }
+        return index <= 0 ? key : key.substring(0, index);
+    }
+
+    private static Class<? extends LockExecutor> executorClass(LockInfo lockInfo) {
+        return lockInfo.getLockExecutor() == null ? null : lockInfo.getLockExecutor().getClass();
+    }
+
+    private static String executorName(Class<? extends LockExecutor> executor) {
+        return executor == null ? "none" : executor.getSimpleName();
+    }
+
+    private PatternMeters meters(String key, Class<? extends LockExecutor> executorClass) {
+        String executor = executorName(executorClass);
+        return lookup(metersMap, resolvePattern(key), executor, pattern -> new PatternMeters(meterRegistry, pattern, executor));
+    }
+
+    /**
+     * 按key模式获取指标，限制key模式数量，防止指标标签基数膨胀，超出部分归入other
+     */
+    private <M> M lookup(Map<String, M> map, String pattern, String qualifier, Function<String, M> factory) {
+        M meter = map.get(pattern + "@" + qualifier);
+        if (meter != null) {
+            return meter;
+        }
+        String finalPattern = map.size() >= maxPatterns ? OTHER_PATTERN : pattern;
+        return map.computeIfAbsent(finalPattern + "@" + qualifier, k -> factory.apply(finalPattern));
+    }
+
+    @Override
+    public void destroy() {
+        inspector.shutdownNow();
+    }
+
+    private static final class HeldLock {
+
+        private final LockInfo lockInfo;
+        private final String threadName;
+        private final long acquireNanos = System.nanoTime();
+        /**
+         * 锁过期时间点，续期的锁为0
+         */
+        private final long expireNanos;
+        private volatile boolean reported;
+
+        private HeldLock(LockInfo lockInfo, String threadName) {
+            this.lockInfo = lockInfo;
+            this.threadName = threadName;
+            this.expireNanos = lockInfo.getExpire() != null && lockInfo.getExpire() > 0 ? acquireNanos + TimeUnit.MILLISECONDS.toNanos(lockInfo.getExpire()) : 0L;
+        }
+    }
+
+    private static final class PatternMeters {
+
+        private final Timer waitAcquired;
+        private final Timer waitTimeout;
+        private final DistributionSummary attempts;
+        private final Timer hold;
+
+        private PatternMeters(MeterRegistry registry, String pattern, String executor) {
+            this.waitAcquired = Timer.builder("lock.wait.duration")
+                    .description("The time spent waiting to acquire a lock")
+                    .tags(TAG_PATTERN, pattern, TAG_EXECUTOR, executor, "result", "acquired")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.waitTimeout = Timer.builder("lock.wait.duration")
+                    .description("The time spent waiting to acquire a lock")
+                    .tags(TAG_PATTERN, pattern, TAG_EXECUTOR, executor, "result", "timeout")
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.attempts = DistributionSummary.builder("lock.acquire.attempts")
+                    .description("The number of attempts taken to acquire a lock")
+                    .tags(TAG_PATTERN, pattern, TAG_EXECUTOR, executor)
+                    .register(registry);
+            this.hold = Timer.builder("lock.hold.duration")
+                    .description("The time a lock is held before release")
+                    .tags(TAG_PATTERN, pattern, TAG_EXECUTOR, executor)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
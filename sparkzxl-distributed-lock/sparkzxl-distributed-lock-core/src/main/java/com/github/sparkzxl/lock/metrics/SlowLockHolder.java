@@ -0,0 +1,39 @@
+package com.github.sparkzxl.lock.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * description: 持有时间过长的锁
+ *
+ * @author zhouxinlei
+ */
+@Data
+@AllArgsConstructor
+public class SlowLockHolder {
+
+    /**
+     * 锁key
+     */
+    private String lockKey;
+
+    /**
+     * 锁执行器
+     */
+    private String executor;
+
+    /**
+     * 持有线程名称
+     */
+    private String threadName;
+
+    /**
+     * 已持有时长，单位：毫秒
+     */
+    private long holdMillis;
+
+    /**
+     * 是否已释放，false表示检测时仍在持有
+     */
+    private boolean released;
+}
@@ -0,0 +1,207 @@
+package com.github.sparkzxl.lock.executor;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * description: redis锁看门狗
+ * <p>
+ * 所有持有中的锁按下次续期时间放入时间轮的槽位，每个tick取出到期槽位中的锁，
+ * 通过一次pipeline批量执行续期脚本，续期间隔为租约时长的1/3。锁已不属于当前持有者时停止续期
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class RedisLockWatchdog implements DisposableBean {
+
+    private static final byte[] SCRIPT_RENEW = ("if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 读锁续期，KEYS: readers; ARGV: value, lease, now
+     */
+    private static final byte[] SCRIPT_RENEW_READ = ("if not redis.call('zscore', KEYS[1], ARGV[1]) then return 0 end " +
+            "redis.call('zadd', KEYS[1], tonumber(ARGV[3]) + tonumber(ARGV[2]), ARGV[1]) " +
+            "if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long leaseTime;
+    private final long tickDuration;
+    private final int renewTicks;
+    private final Queue<HeldLock>[] wheel;
+    private final int mask;
+    private final ConcurrentMap<String, HeldLock> heldLocks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile long tick;
+
+    /**
+     * @param stringRedisTemplate redis操作模板
+     * @param leaseTime           租约时长，单位：毫秒
+     * @param tickDuration        时间轮tick时长，单位：毫秒
+     */
+    @SuppressWarnings("unchecked")
+    public RedisLockWatchdog(StringRedisTemplate stringRedisTemplate, long leaseTime, long tickDuration) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leaseTime = leaseTime;
+        this.tickDuration = Math.max(1, Math.min(tickDuration, leaseTime / 3));
+        this.renewTicks = (int) Math.max(1, leaseTime / 3 / this.tickDuration);
+        int wheelSize = Integer.highestOneBit(renewTicks) << 1;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = wheelSize - 1;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("lock-watchdog-", true));
+        this.scheduler.scheduleAtFixedRate(this::onTick, this.tickDuration, this.tickDuration, TimeUnit.MILLISECONDS);
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    /**
+     * 开始续期
+     *
+     * @param lockKey   锁标识
+     * @param lockValue 锁值
+     */
+    public void watch(String lockKey, String lockValue) {
+        watch(lockKey, lockValue, false);
+    }
+
+    /**
+     * 开始续期
+     *
+     * @param lockKey   锁标识，读锁为读锁持有者集合key
+     * @param lockValue 锁值
+     * @param shared    是否读锁
+     */
+    public void watch(String lockKey, String lockValue, boolean shared) {
+        HeldLock heldLock = new HeldLock(lockKey, lockValue, shared);
+        heldLocks.put(heldLock.id, heldLock);
+        schedule(heldLock);
+    }
+
+    /**
+     * 停止续期
+     *
+     * @param lockKey   锁标识，读锁为读锁持有者集合key
+     * @param lockValue 锁值
+     */
+    public void unwatch(String lockKey, String lockValue) {
+        HeldLock heldLock = heldLocks.remove(HeldLock.id(lockKey, lockValue));
+        if (heldLock != null) {
+            heldLock.cancelled = true;
+        }
+    }
+
+    private void schedule(HeldLock heldLock) {
+        wheel[(int) ((tick + renewTicks) & mask)].offer(heldLock);
+    }
+
+    private void onTick() {
+        try {
+            Queue<HeldLock> bucket = wheel[(int) (tick & mask)];
+            List<HeldLock> dueLocks = new ArrayList<>();
+            HeldLock heldLock;
+            while ((heldLock = bucket.poll()) != null) {
+                if (!heldLock.cancelled) {
+                    dueLocks.add(heldLock);
+                }
+            }
+            tick++;
+            if (!dueLocks.isEmpty()) {
+                renew(dueLocks);
+            }
+        } catch (Exception e) {
+            log.error("lock watchdog tick error", e);
+        }
+    }
+
+    private void renew(List<HeldLock> dueLocks) {
+        List<Object> results;
+        try {
+            RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+            byte[] lease = serializer.serialize(String.valueOf(leaseTime));
+            byte[] now = serializer.serialize(String.valueOf(System.currentTimeMillis()));
+            results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (HeldLock heldLock : dueLocks) {
+                    byte[] key = serializer.serialize(heldLock.lockKey);
+                    byte[] value = serializer.serialize(heldLock.lockValue);
+                    if (heldLock.shared) {
+                        connection.scriptingCommands().eval(SCRIPT_RENEW_READ, ReturnType.INTEGER, 1, key, value, lease, now);
+                    } else {
+                        connection.scriptingCommands().eval(SCRIPT_RENEW, ReturnType.INTEGER, 1, key, value, lease);
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 续期失败时下个tick重试，租约内仍有两次续期机会
+            log.warn("renew {} locks error: {}", dueLocks.size(), e.getMessage());
+            dueLocks.forEach(this::reschedule);
+            return;
+        }
+        for (int i = 0; i < dueLocks.size(); i++) {
+            HeldLock heldLock = dueLocks.get(i);
+            Object result = i < results.size() ? results.get(i) : null;
+            if (result instanceof Long && (Long) result == 1L) {
+                reschedule(heldLock);
+            } else if (heldLocks.remove(heldLock.id, heldLock)) {
+                log.warn("lock [{}] is no longer held, stop renewing", heldLock.lockKey);
+            }
+        }
+    }
+
+    private void reschedule(HeldLock heldLock) {
+        if (!heldLock.cancelled) {
+            schedule(heldLock);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        heldLocks.clear();
+    }
+
+    private static final class HeldLock {
+
+        private final String id;
+        private final String lockKey;
+        private final String lockValue;
+        private final boolean shared;
+        private volatile boolean cancelled;
+
+        private HeldLock(String lockKey, String lockValue, boolean shared) {
+            this.id = id(lockKey, lockValue);
+            this.lockKey = lockKey;
+            this.lockValue = lockValue;
+            this.shared = shared;
+        }
+
+        /**
+         * 多key锁共用同一个锁值，读锁同一key有多个持有者，以key和值共同标识
+         */
+        private static String id(String lockKey, String lockValue) {
+            return lockKey + "@" + lockValue;
+        }
+    }
+}
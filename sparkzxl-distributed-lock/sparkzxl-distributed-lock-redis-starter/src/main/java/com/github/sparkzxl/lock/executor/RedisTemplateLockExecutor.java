@@ -1,48 +1,535 @@
 package com.github.sparkzxl.lock.executor;
 
-import lombok.RequiredArgsConstructor;
+import com.github.sparkzxl.lock.LockMode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.NonNull;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * description: 分布式锁原生RedisTemplate处理器
+ * <p>
+ * 开启等待通知时，加锁失败的请求进入锁的等待队列(list + 记录超时时间的zset)，只有队首可以加锁，
+ * 释放锁时通过 {@link #RELEASE_CHANNEL} 通知队首立即重试，实现先到先得的公平锁。
+ * 等待者异常退出时，其排队信息在获取锁超时时间后失效，由后续加锁、释放时清理；
+ * 等待队列及超时时间key设置不短于最长等待时间的过期时间，无人排队后自动删除。
+ * <p>
+ * 配置看门狗时，未指定过期时间的锁使用看门狗租约时长，持有期间由 {@link RedisLockWatchdog} 批量续期。
+ * <p>
+ * 读锁持有者记录在 lockKey:readers 有序集合中(分值为过期时间)，写锁与独占锁相同，加锁时清理过期读锁并要求没有读锁持有者，
+ * 开启等待通知时同样进入等待队列；等待队列非空时不再加读锁(写优先)，避免持续的读锁使写锁饥饿，最后一个读锁释放时通知队首。
+ * 多key锁在一个lua脚本中全部获取或全部失败，开启等待通知时同样遵守各锁的等待队列，只在第一个被阻塞的锁上排队。
+ * <p>
+ * 等待队列、读锁等派生key沿用锁key的hash tag，锁key没有hash tag时以锁key整体作为hash tag，保证集群模式下与锁key在同一slot
  *
  * @author zhouxinlei
  * @since 2022-05-01 22:17:52
  */
 @Slf4j
-@RequiredArgsConstructor
-public class RedisTemplateLockExecutor extends AbstractLockExecutor<String> {
+public class RedisTemplateLockExecutor extends AbstractLockExecutor<String> implements MessageListener {
 
-    private static final RedisScript<String> SCRIPT_LOCK = new DefaultRedisScript<>("return redis.call('set',KEYS[1]," +
-            "ARGV[1],'NX','PX',ARGV[2])", String.class);
+    /**
+     * 锁释放通知频道，消息内容为被唤醒的队首锁值
+     */
+    public static final String RELEASE_CHANNEL = "distributed-lock:release";
+
+    /**
+     * 清理已过期的读锁，返回剩余读锁数量
+     */
+    private static final String READERS = "local function readers(key, now) " +
+            "redis.call('zremrangebyscore', key, '-inf', now) " +
+            "return redis.call('zcard', key) " +
+            "end ";
+
+    /**
+     * 锁被持有时返回锁的剩余过期时间，否则返回读锁集合的剩余过期时间
+     */
+    private static final String BLOCKED_TTL = "local function blockedTtl(lock, readers) " +
+            "local ttl = redis.call('pttl', lock) " +
+            "if ttl < 0 then ttl = redis.call('pttl', readers) end " +
+            "return tostring(ttl) " +
+            "end ";
+
+    /**
+     * KEYS: lock, readers; ARGV: value, expire, now
+     */
+    private static final RedisScript<String> SCRIPT_LOCK = new DefaultRedisScript<>(READERS + BLOCKED_TTL +
+            "if redis.call('exists', KEYS[1]) == 1 or readers(KEYS[2], ARGV[3]) > 0 then return blockedTtl(KEYS[1], KEYS[2]) end " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return 'OK'", String.class);
     private static final RedisScript<String> SCRIPT_UNLOCK = new DefaultRedisScript<>("if redis.call('get',KEYS[1]) " +
             "== ARGV[1] then return tostring(redis.call('del', KEYS[1])==1) else return 'false' end", String.class);
+
+    /**
+     * 清理已超时的等待者，队首没有超时时间记录的等待者同样视为已超时
+     */
+    private static final String PURGE_QUEUE = "local function purge(queue, timeout, now) " +
+            "local expired = redis.call('zrangebyscore', timeout, '-inf', now, 'LIMIT', 0, 100) " +
+            "for _, value in ipairs(expired) do " +
+            "redis.call('lrem', queue, 0, value) " +
+            "redis.call('zrem', timeout, value) " +
+            "end " +
+            "while true do " +
+            "local first = redis.call('lindex', queue, 0) " +
+            "if not first then break end " +
+            "local score = redis.call('zscore', timeout, first) " +
+            "if score and tonumber(score) > tonumber(now) then break end " +
+            "redis.call('lpop', queue) " +
+            "redis.call('zrem', timeout, first) " +
+            "end " +
+            "end ";
+
+    /**
+     * 排队并记录超时时间，等待队列及超时时间key的过期时间不短于本次等待时间
+     */
+    private static final String ENQUEUE = "local function enqueue(queue, timeout, value, now, waitTimeout) " +
+            "if not redis.call('zscore', timeout, value) then redis.call('rpush', queue, value) end " +
+            "redis.call('zadd', timeout, tonumber(now) + tonumber(waitTimeout), value) " +
+            "local ttl = math.max(tonumber(waitTimeout), 1000) " +
+            "for _, key in ipairs({queue, timeout}) do " +
+            "if redis.call('pttl', key) < ttl then redis.call('pexpire', key, ttl) end " +
+            "end " +
+            "end ";
+
+    /**
+     * 通知队首
+     */
+    private static final String NOTIFY_HEAD = "local function notify(queue) " +
+            "local head = redis.call('lindex', queue, 0) " +
+            "if head then redis.call('publish', '" + RELEASE_CHANNEL + "', head) end " +
+            "end ";
+
+    /**
+     * KEYS: lock, queue, timeout, readers; ARGV: value, expire, now, waitTimeout
+     * 成功返回OK，失败返回锁(或读锁)剩余过期时间
+     */
+    private static final RedisScript<String> SCRIPT_FAIR_LOCK = new DefaultRedisScript<>(PURGE_QUEUE + ENQUEUE + READERS + BLOCKED_TTL +
+            "purge(KEYS[2], KEYS[3], ARGV[3]) " +
+            "if redis.call('exists', KEYS[1]) == 0 and readers(KEYS[4], ARGV[3]) == 0 then " +
+            "  local first = redis.call('lindex', KEYS[2], 0) " +
+            "  if (not first) or first == ARGV[1] then " +
+            "    if first then " +
+            "      redis.call('lpop', KEYS[2]) " +
+            "      redis.call('zrem', KEYS[3], ARGV[1]) " +
+            "    end " +
+            "    redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "    return 'OK' " +
+            "  end " +
+            "end " +
+            "enqueue(KEYS[2], KEYS[3], ARGV[1], ARGV[3], ARGV[4]) " +
+            "return blockedTtl(KEYS[1], KEYS[4])", String.class);
+
+    /**
+     * KEYS: lock, queue, timeout, readers; ARGV: value, unused, now
+     */
+    private static final RedisScript<String> SCRIPT_FAIR_UNLOCK = new DefaultRedisScript<>(PURGE_QUEUE + NOTIFY_HEAD +
+            "if redis.call('get', KEYS[1]) ~= ARGV[1] then return 'false' end " +
+            "redis.call('del', KEYS[1]) " +
+            "purge(KEYS[2], KEYS[3], ARGV[3]) " +
+            "notify(KEYS[2]) " +
+            "return 'true'", String.class);
+
+    /**
+     * KEYS: lock, queue, timeout, readers; ARGV: value, unused, now
+     */
+    private static final RedisScript<Long> SCRIPT_CANCEL = new DefaultRedisScript<>(PURGE_QUEUE + NOTIFY_HEAD + READERS +
+            "redis.call('lrem', KEYS[2], 0, ARGV[1]) " +
+            "redis.call('zrem', KEYS[3], ARGV[1]) " +
+            "if redis.call('exists', KEYS[1]) == 0 and readers(KEYS[4], ARGV[3]) == 0 then purge(KEYS[2], KEYS[3], ARGV[3]) notify(KEYS[2]) end " +
+            "return 1", Long.class);
+
+    /**
+     * KEYS: lock, queue, timeout, readers; ARGV: value, expire, now
+     * 锁被持有或有等待中的加锁请求时失败
+     */
+    private static final RedisScript<String> SCRIPT_READ_LOCK = new DefaultRedisScript<>(PURGE_QUEUE +
+            "redis.call('zremrangebyscore', KEYS[4], '-inf', ARGV[3]) " +
+                    "if redis.call('exists', KEYS[1]) == 1 then return tostring(redis.call('pttl', KEYS[1])) end " +
+                    "purge(KEYS[2], KEYS[3], ARGV[3]) " +
+                    "if redis.call('llen', KEYS[2]) > 0 then return tostring(redis.call('pttl', KEYS[3])) end " +
+                    "redis.call('zadd', KEYS[4], tonumber(ARGV[3]) + tonumber(ARGV[2]), ARGV[1]) " +
+                    "if redis.call('pttl', KEYS[4]) < tonumber(ARGV[2]) then redis.call('pexpire', KEYS[4], ARGV[2]) end " +
+                    "return 'OK'", String.class);
+
+    /**
+     * KEYS: lock, queue, timeout, readers; ARGV: value, unused, now
+     * 最后一个读锁释放时通知队首
+     */
+    private static final RedisScript<String> SCRIPT_READ_UNLOCK = new DefaultRedisScript<>(PURGE_QUEUE + NOTIFY_HEAD + READERS +
+            "if redis.call('zrem', KEYS[4], ARGV[1]) == 0 then return 'false' end " +
+                    "if readers(KEYS[4], ARGV[3]) == 0 and redis.call('exists', KEYS[1]) == 0 then " +
+                    "  purge(KEYS[2], KEYS[3], ARGV[3]) " +
+                    "  notify(KEYS[2]) " +
+                    "end " +
+                    "return 'true'", String.class);
+
+    /**
+     * KEYS: 每个锁依次为 lock, queue, timeout, readers; ARGV: value, expire, now
+     * 任意锁已被持有或有读锁时返回其剩余过期时间，否则全部加锁
+     */
+    private static final RedisScript<String> SCRIPT_MULTI_LOCK = new DefaultRedisScript<>(READERS + BLOCKED_TTL +
+            "for i = 1, #KEYS, 4 do " +
+                    "  if redis.call('exists', KEYS[i]) == 1 or readers(KEYS[i + 3], ARGV[3]) > 0 then return blockedTtl(KEYS[i], KEYS[i + 3]) end " +
+                    "end " +
+                    "for i = 1, #KEYS, 4 do redis.call('set', KEYS[i], ARGV[1], 'PX', ARGV[2]) end " +
+                    "return 'OK'", String.class);
+
+    /**
+     * KEYS: 每个锁依次为 lock, queue, timeout, readers; ARGV: value, expire, now, waitTimeout
+     * 任意锁已被持有、有读锁或队首是其他等待者时，只在第一个被阻塞的锁上排队并返回其剩余过期时间，
+     * 按key顺序排队避免多个批量锁各自占据部分队首而互相等待
+     */
+    private static final RedisScript<String> SCRIPT_FAIR_MULTI_LOCK = new DefaultRedisScript<>(PURGE_QUEUE + ENQUEUE + NOTIFY_HEAD +
+            READERS + BLOCKED_TTL +
+            "local blocked = 0 " +
+            "for i = 1, #KEYS, 4 do " +
+            "  purge(KEYS[i + 1], KEYS[i + 2], ARGV[3]) " +
+            "  if blocked == 0 then " +
+            "    local first = redis.call('lindex', KEYS[i + 1], 0) " +
+            "    if redis.call('exists', KEYS[i]) == 1 or readers(KEYS[i + 3], ARGV[3]) > 0 " +
+            "        or (first and first ~= ARGV[1]) then blocked = i end " +
+            "  end " +
+            "end " +
+            "if blocked == 0 then " +
+            "  for i = 1, #KEYS, 4 do " +
+            "    if redis.call('lindex', KEYS[i + 1], 0) == ARGV[1] then " +
+            "      redis.call('lpop', KEYS[i + 1]) " +
+            "      redis.call('zrem', KEYS[i + 2], ARGV[1]) " +
+            "    end " +
+            "    redis.call('set', KEYS[i], ARGV[1], 'PX', ARGV[2]) " +
+            "  end " +
+            "  return 'OK' " +
+            "end " +
+            "for i = 1, #KEYS, 4 do " +
+            "  if i ~= blocked and redis.call('zscore', KEYS[i + 2], ARGV[1]) then " +
+            "    redis.call('lrem', KEYS[i + 1], 0, ARGV[1]) " +
+            "    redis.call('zrem', KEYS[i + 2], ARGV[1]) " +
+            "    if redis.call('exists', KEYS[i]) == 0 and readers(KEYS[i + 3], ARGV[3]) == 0 then notify(KEYS[i + 1]) end " +
+            "  end " +
+            "end " +
+            "enqueue(KEYS[blocked + 1], KEYS[blocked + 2], ARGV[1], ARGV[3], ARGV[4]) " +
+            "return blockedTtl(KEYS[blocked], KEYS[blocked + 3])", String.class);
+
+    /**
+     * KEYS: 每个锁依次为 lock, queue, timeout, readers; ARGV: value, unused, now
+     * 释放后通知各锁等待队列的队首
+     */
+    private static final RedisScript<String> SCRIPT_MULTI_UNLOCK = new DefaultRedisScript<>(PURGE_QUEUE + NOTIFY_HEAD +
+            "local released = true " +
+            "for i = 1, #KEYS, 4 do " +
+            "  if redis.call('get', KEYS[i]) == ARGV[1] then " +
+            "    redis.call('del', KEYS[i]) " +
+            "    purge(KEYS[i + 1], KEYS[i + 2], ARGV[3]) " +
+            "    notify(KEYS[i + 1]) " +
+            "  else released = false end " +
+            "end " +
+            "return tostring(released)", String.class);
+
     private static final String LOCK_SUCCESS = "OK";
 
     private final StringRedisTemplate stringRedisTemplate;
 
+    private final boolean waitNotify;
+
+    private final RedisLockWatchdog watchdog;
+
+    private volatile Boolean cluster;
+
+    /**
+     * 本节点等待中的加锁请求，key为锁值
+     */
+    private final ConcurrentMap<String, LockWaiter> waiters = new ConcurrentHashMap<>();
+
+    public RedisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate) {
+        this(stringRedisTemplate, false);
+    }
+
+    public RedisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate, boolean waitNotify) {
+        this(stringRedisTemplate, waitNotify, null);
+    }
+
+    public RedisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate, boolean waitNotify, RedisLockWatchdog watchdog) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.waitNotify = waitNotify;
+        this.watchdog = watchdog;
+    }
+
+    @Override
+    public boolean renewal() {
+        return watchdog != null;
+    }
+
     @Override
     public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
-        String lock = stringRedisTemplate.execute(SCRIPT_LOCK,
+        if (watchdog != null && expire <= 0) {
+            String lock = doAcquire(lockKey, lockValue, watchdog.getLeaseTime(), acquireTimeout);
+            if (lock != null) {
+                watchdog.watch(lockKey, lockValue);
+            }
+            return lock;
+        }
+        return doAcquire(lockKey, lockValue, expire, acquireTimeout);
+    }
+
+    private String doAcquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        if (!waitNotify) {
+            String lock = stringRedisTemplate.execute(SCRIPT_LOCK,
+                    stringRedisTemplate.getStringSerializer(),
+                    stringRedisTemplate.getStringSerializer(),
+                    Arrays.asList(lockKey, readersKey(lockKey)),
+                    lockValue, String.valueOf(expire), String.valueOf(System.currentTimeMillis()));
+            final boolean locked = LOCK_SUCCESS.equals(lock);
+            return obtainLockInstance(locked, lock);
+        }
+        // 先登记等待者，避免执行脚本后、等待前的释放通知丢失
+        LockWaiter waiter = new LockWaiter();
+        waiters.put(lockValue, waiter);
+        String result = stringRedisTemplate.execute(SCRIPT_FAIR_LOCK,
+                stringRedisTemplate.getStringSerializer(),
+                stringRedisTemplate.getStringSerializer(),
+                queueKeys(lockKey),
+                lockValue, String.valueOf(expire), String.valueOf(System.currentTimeMillis()), String.valueOf(acquireTimeout));
+        if (LOCK_SUCCESS.equals(result)) {
+            waiters.remove(lockValue);
+            return result;
+        }
+        waiter.lockTtl = result == null ? -1 : Long.parseLong(result);
+        return null;
+    }
+
+    /**
+     * 写锁与独占锁相同，开启等待通知时进入公平等待队列；读锁不排队，加锁失败时按重试间隔轮询
+     */
+    @Override
+    public String acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockMode lockMode) {
+        if (lockMode != LockMode.READ) {
+            return acquire(lockKey, lockValue, expire, acquireTimeout);
+        }
+        boolean renew = watchdog != null && expire <= 0;
+        long lockExpire = renew ? watchdog.getLeaseTime() : expire;
+        String result = stringRedisTemplate.execute(SCRIPT_READ_LOCK,
+                stringRedisTemplate.getStringSerializer(),
+                stringRedisTemplate.getStringSerializer(),
+                queueKeys(lockKey),
+                lockValue, String.valueOf(lockExpire), String.valueOf(System.currentTimeMillis()));
+        if (!LOCK_SUCCESS.equals(result)) {
+            return null;
+        }
+        if (renew) {
+            watchdog.watch(readersKey(lockKey), lockValue, true);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value, String lockInstance, LockMode lockMode) {
+        if (lockMode != LockMode.READ) {
+            return releaseLock(key, value, lockInstance);
+        }
+        if (watchdog != null) {
+            watchdog.unwatch(readersKey(key), value);
+        }
+        String releaseResult = stringRedisTemplate.execute(SCRIPT_READ_UNLOCK,
+                stringRedisTemplate.getStringSerializer(),
+                stringRedisTemplate.getStringSerializer(),
+                queueKeys(key),
+                value, "", String.valueOf(System.currentTimeMillis()));
+        return Boolean.parseBoolean(releaseResult);
+    }
+
+    /**
+     * 集群模式下lua脚本的key必须在同一slot，不在同一slot时由LockTemplate按顺序逐个加锁
+     */
+    @Override
+    public boolean supportMultiAcquire(List<String> lockKeys) {
+        if (!isCluster()) {
+            return true;
+        }
+        RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+        return ClusterSlotHashUtil.isSameSlotForAllKeys(lockKeys.stream().map(serializer::serialize).toArray(byte[][]::new));
+    }
+
+    @Override
+    public String acquireMulti(List<String> lockKeys, String lockValue, long expire, long acquireTimeout) {
+        boolean renew = watchdog != null && expire <= 0;
+        String lockExpire = String.valueOf(renew ? watchdog.getLeaseTime() : expire);
+        String result;
+        if (waitNotify) {
+            LockWaiter waiter = new LockWaiter(lockKeys);
+            waiters.put(lockValue, waiter);
+            result = stringRedisTemplate.execute(SCRIPT_FAIR_MULTI_LOCK,
+                    stringRedisTemplate.getStringSerializer(),
+                    stringRedisTemplate.getStringSerializer(),
+                    multiQueueKeys(lockKeys),
+                    lockValue, lockExpire, String.valueOf(System.currentTimeMillis()), String.valueOf(acquireTimeout));
+            if (LOCK_SUCCESS.equals(result)) {
+                waiters.remove(lockValue);
+            } else {
+                waiter.lockTtl = result == null ? -1 : Long.parseLong(result);
+            }
+        } else {
+            result = stringRedisTemplate.execute(SCRIPT_MULTI_LOCK,
+                    stringRedisTemplate.getStringSerializer(),
+                    stringRedisTemplate.getStringSerializer(),
+                    multiQueueKeys(lockKeys),
+                    lockValue, lockExpire, String.valueOf(System.currentTimeMillis()));
+        }
+        if (!LOCK_SUCCESS.equals(result)) {
+            return null;
+        }
+        if (renew) {
+            lockKeys.forEach(lockKey -> watchdog.watch(lockKey, lockValue));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean releaseMultiLock(List<String> lockKeys, String lockValue, String lockInstance) {
+        if (watchdog != null) {
+            lockKeys.forEach(lockKey -> watchdog.unwatch(lockKey, lockValue));
+        }
+        String releaseResult = stringRedisTemplate.execute(SCRIPT_MULTI_UNLOCK,
                 stringRedisTemplate.getStringSerializer(),
                 stringRedisTemplate.getStringSerializer(),
-                Collections.singletonList(lockKey),
-                lockValue, String.valueOf(expire));
-        final boolean locked = LOCK_SUCCESS.equals(lock);
-        return obtainLockInstance(locked, lock);
+                multiQueueKeys(lockKeys),
+                lockValue, "", String.valueOf(System.currentTimeMillis()));
+        return Boolean.parseBoolean(releaseResult);
     }
 
     @Override
     public boolean releaseLock(String key, String value, String lockInstance) {
-        String releaseResult = stringRedisTemplate.execute(SCRIPT_UNLOCK,
+        if (watchdog != null) {
+            watchdog.unwatch(key, value);
+        }
+        String releaseResult = stringRedisTemplate.execute(waitNotify ? SCRIPT_FAIR_UNLOCK : SCRIPT_UNLOCK,
                 stringRedisTemplate.getStringSerializer(),
                 stringRedisTemplate.getStringSerializer(),
-                Collections.singletonList(key), value);
+                waitNotify ? queueKeys(key) : Collections.singletonList(key),
+                value, "", String.valueOf(System.currentTimeMillis()));
         return Boolean.parseBoolean(releaseResult);
     }
+
+    @Override
+    public boolean isHeldLock(String key, String value, String lockInstance) {
+        return value.equals(stringRedisTemplate.opsForValue().get(key));
+    }
+
+    @Override
+    public void awaitRelease(String lockKey, String lockValue, long retryInterval, long remainingTimeout) throws InterruptedException {
+        LockWaiter waiter = waitNotify ? waiters.get(lockValue) : null;
+        if (waiter == null) {
+            super.awaitRelease(lockKey, lockValue, retryInterval, remainingTimeout);
+            return;
+        }
+        // 锁释放时会收到通知，最多等到锁自然过期，防止通知丢失
+        long waitTime = waiter.lockTtl > 0 ? Math.min(waiter.lockTtl, remainingTimeout) : Math.min(retryInterval, remainingTimeout);
+        waiter.latch.await(waitTime, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void cancelAcquire(String lockKey, String lockValue) {
+        if (!waitNotify) {
+            return;
+        }
+        LockWaiter waiter = waiters.remove(lockValue);
+        // 批量锁可能排在任意一个锁的等待队列中
+        List<String> lockKeys = waiter != null && waiter.lockKeys != null ? waiter.lockKeys : Collections.singletonList(lockKey);
+        for (String key : lockKeys) {
+            try {
+                stringRedisTemplate.execute(SCRIPT_CANCEL,
+                        stringRedisTemplate.getStringSerializer(),
+                        stringRedisTemplate.getStringSerializer(),
+                        queueKeys(key),
+                        lockValue, "", String.valueOf(System.currentTimeMillis()));
+            } catch (Exception e) {
+                log.warn("cancel lock waiting error, lockKey={}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        LockWaiter waiter = waiters.get(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (waiter != null) {
+            waiter.latch.countDown();
+        }
+    }
+
+    private List<String> queueKeys(String lockKey) {
+        return Arrays.asList(lockKey, derivedKey(lockKey, "queue"), derivedKey(lockKey, "timeout"), readersKey(lockKey));
+    }
+
+    private List<String> multiQueueKeys(List<String> lockKeys) {
+        List<String> keys = new ArrayList<>(lockKeys.size() * 4);
+        lockKeys.forEach(lockKey -> keys.addAll(queueKeys(lockKey)));
+        return keys;
+    }
+
+    private String readersKey(String lockKey) {
+        return derivedKey(lockKey, "readers");
+    }
+
+    /**
+     * 派生key与锁key在同一slot：锁key已有hash tag时直接追加后缀，沿用其hash tag，
+     * 否则以锁key整体作为hash tag
+     */
+    private static String derivedKey(String lockKey, String suffix) {
+        int start = lockKey.indexOf('{');
+        int end = start < 0 ? -1 : lockKey.indexOf('}', start + 1);
+        if (end > start + 1) {
+            return lockKey + ":" + suffix;
+        }
+        return "{" + lockKey + "}:" + suffix;
+    }
+
+    private boolean isCluster() {
+        Boolean cluster = this.cluster;
+        if (cluster == null) {
+            cluster = Boolean.TRUE.equals(stringRedisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection instanceof RedisClusterConnection));
+            this.cluster = cluster;
+        }
+        return cluster;
+    }
+
+    public boolean isWaitNotify() {
+        return waitNotify;
+    }
+
+    private static final class LockWaiter {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        /**
+         * 批量锁的全部key，单key锁为null
+         */
+        private final List<String> lockKeys;
+
+        private volatile long lockTtl;
+
+        private LockWaiter() {
+            this(null);
+        }
+
+        private LockWaiter(List<String> lockKeys) {
+            this.lockKeys = lockKeys;
+        }
+    }
 }
@@ -1,12 +1,20 @@
 package com.github.sparkzxl.lock.spring.boot.autoconfigure;
 
+import com.github.sparkzxl.lock.autoconfigure.DistributedLockProperties;
+import com.github.sparkzxl.lock.executor.RedisLockWatchdog;
 import com.github.sparkzxl.lock.executor.RedisTemplateLockExecutor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 /**
  * description: RedisTemplate锁自动配置器
@@ -16,11 +24,33 @@ import org.springframework.data.redis.core.StringRedisTemplate;
  */
 @Configuration
 @ConditionalOnClass(RedisOperations.class)
+@EnableConfigurationProperties(DistributedLockProperties.class)
 public class RedisTemplateLockAutoConfiguration {
 
+    @Bean
+    @ConditionalOnProperty(prefix = "distributed-lock", name = "watchdog", havingValue = "true", matchIfMissing = true)
+    public RedisLockWatchdog redisLockWatchdog(StringRedisTemplate stringRedisTemplate,
+                                               DistributedLockProperties distributedLockProperties) {
+        return new RedisLockWatchdog(stringRedisTemplate, distributedLockProperties.getLeaseTime(),
+                distributedLockProperties.getWatchdogTick());
+    }
+
     @Bean
     @Order(200)
-    public RedisTemplateLockExecutor redisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate) {
-        return new RedisTemplateLockExecutor(stringRedisTemplate);
+    public RedisTemplateLockExecutor redisTemplateLockExecutor(StringRedisTemplate stringRedisTemplate,
+                                                               DistributedLockProperties distributedLockProperties,
+                                                               ObjectProvider<RedisLockWatchdog> redisLockWatchdog) {
+        return new RedisTemplateLockExecutor(stringRedisTemplate, distributedLockProperties.isWaitNotify(),
+                redisLockWatchdog.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "distributed-lock", name = "wait-notify", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer lockRedisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                           RedisTemplateLockExecutor redisTemplateLockExecutor) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(redisTemplateLockExecutor, new ChannelTopic(RedisTemplateLockExecutor.RELEASE_CHANNEL));
+        return container;
     }
-}
\ No newline at end of file
+}
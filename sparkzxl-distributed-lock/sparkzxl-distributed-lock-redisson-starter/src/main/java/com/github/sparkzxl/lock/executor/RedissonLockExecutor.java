@@ -1,9 +1,11 @@
 package com.github.sparkzxl.lock.executor;
 
+import com.github.sparkzxl.lock.LockMode;
 import io.vavr.control.Try;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
+import org.redisson.api.RReadWriteLock;
 import org.redisson.api.RedissonClient;
 
 import java.util.concurrent.TimeUnit;
@@ -25,6 +27,14 @@ public class RedissonLockExecutor extends AbstractLockExecutor<RLock> {
         return true;
     }
 
+    /**
+     * tryLock内部订阅锁释放消息等待
+     */
+    @Override
+    public boolean blockingAcquire() {
+        return true;
+    }
+
     @Override
     public RLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
         final RLock lockInstance = redissonClient.getLock(lockKey);
@@ -37,6 +47,47 @@ public class RedissonLockExecutor extends AbstractLockExecutor<RLock> {
         });
     }
 
+    @Override
+    public RLock acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockMode lockMode) {
+        if (lockMode == LockMode.EXCLUSIVE) {
+            return acquire(lockKey, lockValue, expire, acquireTimeout);
+        }
+        RReadWriteLock readWriteLock = redissonClient.getReadWriteLock(lockKey);
+        final RLock lockInstance = lockMode == LockMode.READ ? readWriteLock.readLock() : readWriteLock.writeLock();
+        return Try.of(() -> {
+            final boolean locked = lockInstance.tryLock(acquireTimeout, expire, TimeUnit.MILLISECONDS);
+            return obtainLockInstance(locked, lockInstance);
+        }).getOrElseGet(throwable -> {
+            log.error("Redisson read write lock failed：", throwable);
+            return null;
+        });
+    }
+
+    /**
+     * 读锁强制解锁会释放所有读者，读写锁只释放当前线程持有的锁
+     */
+    @Override
+    public boolean releaseLock(String key, String value, RLock lockInstance, LockMode lockMode) {
+        if (lockMode == LockMode.EXCLUSIVE) {
+            return releaseLock(key, value, lockInstance);
+        }
+        if (lockInstance.isHeldByCurrentThread()) {
+            return Try.of(() -> {
+                lockInstance.unlock();
+                return true;
+            }).getOrElseGet(throwable -> {
+                log.error("Redisson releaseLock failed：", throwable);
+                return false;
+            });
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isHeldLock(String key, String value, RLock lockInstance) {
+        return lockInstance.isHeldByCurrentThread();
+    }
+
     @Override
     public boolean releaseLock(String key, String value, RLock lockInstance) {
         if (lockInstance.isHeldByCurrentThread()) {
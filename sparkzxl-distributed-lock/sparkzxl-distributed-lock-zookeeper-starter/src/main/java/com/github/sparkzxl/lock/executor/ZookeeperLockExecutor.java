@@ -1,11 +1,13 @@
 package com.github.sparkzxl.lock.executor;
 
+import com.github.sparkzxl.lock.LockMode;
 import io.vavr.control.Try;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.framework.recipes.locks.InterProcessReadWriteLock;
 
 import java.util.concurrent.TimeUnit;
 
@@ -21,8 +23,21 @@ public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMute
 
     private final CuratorFramework curatorFramework;
 
+    /**
+     * InterProcessMutex按临时顺序节点排队，并watch前一个节点的删除事件，acquire内部即完成公平等待
+     */
+    @Override
+    public boolean blockingAcquire() {
+        return true;
+    }
+
     @Override
     public InterProcessMutex acquire(String lockKey, String lockValue, long expire, long acquireTimeout) {
+        return acquire(lockKey, lockValue, expire, acquireTimeout, LockMode.EXCLUSIVE);
+    }
+
+    @Override
+    public InterProcessMutex acquire(String lockKey, String lockValue, long expire, long acquireTimeout, LockMode lockMode) {
         if (!CuratorFrameworkState.STARTED.equals(curatorFramework.getState())) {
             log.warn("instance must be started before calling this method");
             return null;
@@ -30,7 +45,7 @@ public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMute
 
         String nodePath = "/curator/distributed-lock/%s";
         return Try.of(() -> {
-            InterProcessMutex mutex = new InterProcessMutex(curatorFramework, String.format(nodePath, lockKey));
+            InterProcessMutex mutex = createMutex(String.format(nodePath, lockKey), lockMode);
             final boolean locked = mutex.acquire(acquireTimeout, TimeUnit.MILLISECONDS);
             return obtainLockInstance(locked, mutex);
         }).getOrElseGet(throwable -> {
@@ -39,6 +54,15 @@ public class ZookeeperLockExecutor extends AbstractLockExecutor<InterProcessMute
         });
     }
 
+    private InterProcessMutex createMutex(String path, LockMode lockMode) {
+        if (lockMode == LockMode.EXCLUSIVE) {
+            return new InterProcessMutex(curatorFramework, path);
+        }
+        // 读写锁使用独立路径，避免与独占锁的节点混在一起
+        InterProcessReadWriteLock readWriteLock = new InterProcessReadWriteLock(curatorFramework, path + "/rw");
+        return lockMode == LockMode.READ ? readWriteLock.readLock() : readWriteLock.writeLock();
+    }
+
     @Override
     public boolean releaseLock(String key, String value, InterProcessMutex lockInstance) {
         return Try.of(() -> {
@@ -5,6 +5,7 @@ import com.github.sparkzxl.gateway.plugin.annotation.EnableExceptionJsonHandler;
 import com.github.sparkzxl.gateway.plugin.filter.GatewayContextFilter;
 import com.github.sparkzxl.gateway.plugin.filter.MDCFilter;
 import com.github.sparkzxl.gateway.plugin.jwt.JwtFilter;
+import com.github.sparkzxl.gateway.plugin.jwt.handler.JwtFilterDataHandler;
 import com.github.sparkzxl.gateway.plugin.properties.GatewayPluginProperties;
 import com.github.sparkzxl.gateway.plugin.resolver.ForwardedRemoteAddressResolver;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -52,4 +53,11 @@ public class GatewayPluginAutoConfig {
         return new JwtFilter();
     }
 
+    @Bean
+    @ConditionalOnMissingBean(JwtFilterDataHandler.class)
+    @ConditionalOnProperty(prefix = "spring.cloud.gateway.plugin.filter.jwt", value = "enabled", havingValue = "true")
+    public JwtFilterDataHandler jwtFilterDataHandler() {
+        return new JwtFilterDataHandler();
+    }
+
 }
@@ -1,12 +1,17 @@
 package com.github.sparkzxl.gateway.plugin.autoconfigure;
 
+import com.github.sparkzxl.gateway.plugin.logging.AsyncOptLogServiceImpl;
 import com.github.sparkzxl.gateway.plugin.logging.OptLogServiceImpl;
 import com.github.sparkzxl.gateway.plugin.logging.RequestLogFilter;
 import com.github.sparkzxl.gateway.plugin.logging.ResponseLogFilter;
 import com.github.sparkzxl.gateway.plugin.logging.service.IOptLogService;
+import com.github.sparkzxl.gateway.plugin.logging.sink.HttpBulkLogSink;
+import com.github.sparkzxl.gateway.plugin.logging.sink.LogSink;
+import com.github.sparkzxl.gateway.plugin.logging.sink.Slf4jLogSink;
 import com.github.sparkzxl.gateway.plugin.properties.GatewayPluginProperties;
 import com.github.sparkzxl.gateway.plugin.properties.LoggingProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
@@ -31,8 +36,22 @@ public class LoggingAutoConfig {
     private GatewayPluginProperties gatewayPluginProperties;
 
     @Bean
-    public IOptLogService optLogService() {
-        return new OptLogServiceImpl(gatewayPluginProperties.getLogging());
+    @ConditionalOnMissingBean(LogSink.class)
+    public LogSink logSink() {
+        LoggingProperties logging = gatewayPluginProperties.getLogging();
+        if (StringUtils.isNotBlank(logging.getAsync().getHttpUrl())) {
+            return new HttpBulkLogSink(logging.getAsync().getHttpUrl(), logging.getAsync().getHttpTimeout());
+        }
+        return new Slf4jLogSink(logging);
+    }
+
+    @Bean
+    public IOptLogService optLogService(LogSink logSink) {
+        LoggingProperties logging = gatewayPluginProperties.getLogging();
+        if (logging.getAsync().isEnabled()) {
+            return new AsyncOptLogServiceImpl(logging, logSink);
+        }
+        return new OptLogServiceImpl(logging);
     }
 
     @Bean
@@ -17,43 +17,38 @@
 
 package com.github.sparkzxl.gateway.plugin.common.cache;
 
-import cn.hutool.cache.Cache;
-import cn.hutool.cache.CacheUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.sparkzxl.gateway.plugin.common.entity.MetaData;
-import com.github.sparkzxl.gateway.plugin.common.utils.PathMatchUtils;
+import com.github.sparkzxl.gateway.plugin.common.utils.PathPatternTrie;
 import com.google.common.collect.Maps;
 
-import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListSet;
 
 /**
  * description: The type Meta data cache.
+ * <p>
+ * 路由元数据按路径模式编译为分段前缀树，命中多个模式时取最具体的模式；
+ * 元数据变更时整体重建前缀树并替换结果缓存，查询无锁。
  *
  * @author zhouxinlei
  * @since 2022-08-12 14:30:44
  */
 public final class MetaDataCache {
 
-    private static final String DIVIDE_CACHE_KEY = "";
-
     private static final MetaData NULL = new MetaData();
 
     private static final MetaDataCache INSTANCE = new MetaDataCache();
 
+    private static final long RESULT_CACHE_SIZE = 10000L;
+
     /**
      * id -> MetaData.
      */
     private static final ConcurrentMap<String, MetaData> META_DATA_MAP = Maps.newConcurrentMap();
 
-    private static final Cache<String, MetaData> CACHE = CacheUtil.newFIFOCache(10);
-
-    /**
-     * pathPattern -> path.
-     */
-    private static final ConcurrentMap<String, Set<String>> MAPPING = Maps.newConcurrentMap();
+    private static volatile PathIndex index = new PathIndex(PathPatternTrie.build(META_DATA_MAP.values(), MetaData::getPath));
 
     private MetaDataCache() {
     }
@@ -72,21 +67,9 @@ public final class MetaDataCache {
      *
      * @param data the data
      */
-    public void cache(final MetaData data) {
-        // clean old path data
-        if (META_DATA_MAP.containsKey(data.getId())) {
-            // the update is also need to clean, but there is
-            // no way to distinguish between crate and update,
-            // so it is always clean
-            clean(META_DATA_MAP.get(data.getId()).getPath());
-        }
+    public synchronized void cache(final MetaData data) {
         META_DATA_MAP.put(data.getId(), data);
-        final String path = data.getPath();
-        clean(path);
-        if (!path.contains("*")) {
-            // only in this condition, we need to init cache
-            initCache(path, data, path);
-        }
+        rebuild();
     }
 
     /**
@@ -94,26 +77,21 @@ public final class MetaDataCache {
      *
      * @param data the data
      */
-    public void remove(final MetaData data) {
+    public synchronized void remove(final MetaData data) {
         META_DATA_MAP.remove(data.getId());
-        clean(data.getPath());
-    }
-
-    private void clean(final String key) {
-        // springCloud and divide are needs to be cleaned
-        Optional.ofNullable(MAPPING.get(key))
-                .ifPresent(paths -> {
-                    for (String path : paths) {
-                        CACHE.remove(path);
-                    }
-                });
+        rebuild();
     }
 
     /**
      * clean cache for divide plugin.
      */
     public void clean() {
-        clean(DIVIDE_CACHE_KEY);
+        index.results.invalidateAll();
+    }
+
+    private void rebuild() {
+        // 新索引连同新的结果缓存一起替换，旧索引上进行中的查询结果不会污染新缓存
+        index = new PathIndex(PathPatternTrie.build(META_DATA_MAP.values(), MetaData::getPath));
     }
 
     /**
@@ -123,21 +101,20 @@ public final class MetaDataCache {
      * @return the meta data
      */
     public MetaData obtain(final String path) {
-        final MetaData metaData = Optional.ofNullable(CACHE.get(path))
-                .orElseGet(() -> {
-                    final MetaData value = META_DATA_MAP.values()
-                            .stream()
-                            .filter(data -> PathMatchUtils.match(data.getPath(), path))
-                            .findFirst()
-                            .orElse(null);
-                    final String metaPath = Optional.ofNullable(value)
-                            .map(MetaData::getPath)
-                            .orElse(DIVIDE_CACHE_KEY);
-                    // init cache
-                    initCache(path, value, metaPath);
-                    return value;
-                });
-        return NULL.equals(metaData) ? null : metaData;
+        PathIndex current = index;
+        MetaData metaData = current.results.get(path,
+                key -> Optional.ofNullable(current.trie.match(key)).orElse(NULL));
+        return metaData == NULL ? null : metaData;
+    }
+
+    /**
+     * cacheMap.
+     *
+     * @param path  the path
+     * @param value the MetaData
+     */
+    public void initCache(final String path, final MetaData value) {
+        index.results.put(path, Optional.ofNullable(value).orElse(NULL));
     }
 
     /**
@@ -145,17 +122,27 @@ public final class MetaDataCache {
      *
      * @param path     the path
      * @param value    the MetaData
-     * @param metaPath the metaPath
+     * @param metaPath the metaPath, no longer used
+     * @deprecated use {@link #initCache(String, MetaData)}
      */
+    @Deprecated
     public void initCache(final String path, final MetaData value, final String metaPath) {
-        // The extreme case will lead to OOM, that's why use LRU
-        CACHE.put(path, Optional.ofNullable(value).orElse(NULL));
-        // spring/** -> Collections 'spring/A', 'spring/B'
-        Set<String> paths = MAPPING.get(metaPath);
-        if (Objects.isNull(paths)) {
-            MAPPING.putIfAbsent(metaPath, new ConcurrentSkipListSet<>());
-            paths = MAPPING.get(metaPath);
+        initCache(path, value);
+    }
+
+    private static final class PathIndex {
+
+        private final PathPatternTrie<MetaData> trie;
+
+        /**
+         * path -> MetaData，W-TinyLFU淘汰
+         */
+        private final Cache<String, MetaData> results = Caffeine.newBuilder()
+                .maximumSize(RESULT_CACHE_SIZE)
+                .build();
+
+        private PathIndex(final PathPatternTrie<MetaData> trie) {
+            this.trie = trie;
         }
-        paths.add(path);
     }
 }
@@ -0,0 +1,194 @@
+package com.github.sparkzxl.gateway.plugin.common.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * description: 预编译的路径匹配器
+ * <p>
+ * 语义与逐个执行 {@code AntPathMatcher.match(pattern, path) || path.startsWith(pattern)} 一致，
+ * 构建时将模式拆分为：
+ * <ul>
+ *     <li>字面量模式：哈希集合精确匹配</li>
+ *     <li>字符前缀树：所有模式的 startsWith 判断，以及 "/prefix/**" 形式的分段前缀</li>
+ *     <li>"/**&#47;*.ext" 形式的扩展名集合、"/**&#47;a/b" 形式的后缀集合</li>
+ *     <li>其余模式：逐个使用AntPathMatcher匹配</li>
+ * </ul>
+ * 匹配结果缓存在有界缓存中。
+ *
+ * @author zhouxinlei
+ */
+public final class CompiledPathMatcher {
+
+    private static final char SEPARATOR = '/';
+    private static final String MULTI_WILDCARD_PREFIX = "/**/";
+    private static final String MULTI_WILDCARD_SUFFIX = "/**";
+    private static final String EXTENSION_PREFIX = "/**/*.";
+    private static final String EMPTY_SEGMENT = "//";
+    private static final long VERDICT_CACHE_SIZE = 10000L;
+
+    private final List<String> patterns;
+
+    private final Set<String> literals = Sets.newHashSet();
+
+    private final CharNode prefixRoot = new CharNode();
+
+    private final Set<String> extensions = Sets.newHashSet();
+
+    private final List<String> suffixes = Lists.newArrayList();
+
+    private final List<String> residual = Lists.newArrayList();
+
+    private final Cache<String, Boolean> verdicts = Caffeine.newBuilder()
+            .maximumSize(VERDICT_CACHE_SIZE)
+            .build();
+
+    private CompiledPathMatcher(List<String> patterns) {
+        this.patterns = patterns;
+        for (String pattern : patterns) {
+            compile(pattern);
+        }
+    }
+
+    /**
+     * 编译路径模式
+     *
+     * @param patterns 路径模式
+     * @return CompiledPathMatcher
+     */
+    public static CompiledPathMatcher compile(Collection<String> patterns) {
+        List<String> list = Lists.newArrayList();
+        if (patterns != null) {
+            patterns.stream().filter(StringUtils::isNotEmpty).distinct().forEach(list::add);
+        }
+        return new CompiledPathMatcher(list);
+    }
+
+    private void compile(String pattern) {
+        // startsWith 对所有模式生效
+        prefixRoot.insert(pattern).prefix = true;
+        if (isLiteral(pattern)) {
+            literals.add(pattern);
+        } else if (pattern.startsWith(EXTENSION_PREFIX) && isLiteral(pattern.substring(EXTENSION_PREFIX.length()))
+                && pattern.indexOf(SEPARATOR, EXTENSION_PREFIX.length()) < 0) {
+            extensions.add(pattern.substring(EXTENSION_PREFIX.length() - 1));
+        } else if (pattern.startsWith(MULTI_WILDCARD_PREFIX) && isLiteral(pattern.substring(MULTI_WILDCARD_PREFIX.length()))
+                && !pattern.endsWith(String.valueOf(SEPARATOR))) {
+            suffixes.add(pattern.substring(MULTI_WILDCARD_PREFIX.length() - 1));
+        } else if (pattern.endsWith(MULTI_WILDCARD_SUFFIX)
+                && isLiteral(pattern.substring(0, pattern.length() - MULTI_WILDCARD_SUFFIX.length()))
+                && pattern.length() > MULTI_WILDCARD_SUFFIX.length()) {
+            prefixRoot.insert(pattern.substring(0, pattern.length() - MULTI_WILDCARD_SUFFIX.length())).segmentPrefix = true;
+        } else {
+            residual.add(pattern);
+        }
+    }
+
+    private static boolean isLiteral(String pattern) {
+        return StringUtils.containsNone(pattern, '*', '?', '{');
+    }
+
+    /**
+     * 是否匹配
+     *
+     * @param path 请求路径
+     * @return boolean
+     */
+    public boolean match(String path) {
+        if (path == null || patterns.isEmpty()) {
+            return false;
+        }
+        return verdicts.get(path, this::doMatch);
+    }
+
+    private boolean doMatch(String path) {
+        if (path.contains(EMPTY_SEGMENT)) {
+            // AntPathMatcher会忽略空分段，这种少见的路径直接逐个匹配
+            return patterns.stream().anyMatch(pattern -> PathMatchUtils.match(pattern, path) || path.startsWith(pattern));
+        }
+        if (literals.contains(path) || prefixRoot.matches(path)) {
+            return true;
+        }
+        boolean absolute = !path.isEmpty() && path.charAt(0) == SEPARATOR;
+        boolean trailingSeparator = path.endsWith(String.valueOf(SEPARATOR));
+        if (absolute && !trailingSeparator) {
+            if (!extensions.isEmpty()) {
+                String lastSegment = path.substring(path.lastIndexOf(SEPARATOR) + 1);
+                int dot = lastSegment.lastIndexOf('.');
+                if (dot >= 0 && extensions.contains(lastSegment.substring(dot))) {
+                    return true;
+                }
+                // 扩展名本身包含"."的情况，如 "*.min.js"
+                for (String extension : extensions) {
+                    if (lastSegment.endsWith(extension)) {
+                        return true;
+                    }
+                }
+            }
+            for (String suffix : suffixes) {
+                if (path.endsWith(suffix)) {
+                    return true;
+                }
+            }
+        }
+        for (String pattern : residual) {
+            if (PathMatchUtils.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CharNode {
+
+        private final Map<Character, CharNode> children = Maps.newHashMap();
+
+        /**
+         * 以该节点结尾的字符串是某个模式本身，路径以其开头即匹配
+         */
+        private boolean prefix;
+
+        /**
+         * 以该节点结尾的字符串是 "/prefix/**" 的前缀部分，路径在此结束或下一个字符为分隔符即匹配
+         */
+        private boolean segmentPrefix;
+
+        private CharNode insert(String value) {
+            CharNode node = this;
+            for (int i = 0; i < value.length(); i++) {
+                node = node.children.computeIfAbsent(value.charAt(i), key -> new CharNode());
+            }
+            return node;
+        }
+
+        private boolean matches(String path) {
+            CharNode node = this;
+            int length = path.length();
+            for (int i = 0; i <= length; i++) {
+                if (node.prefix) {
+                    return true;
+                }
+                if (node.segmentPrefix && (i == length || path.charAt(i) == SEPARATOR)) {
+                    return true;
+                }
+                if (i == length) {
+                    return false;
+                }
+                node = node.children.get(path.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.util.AntPathMatcher;
 import org.springframework.web.util.pattern.PathPattern;
 import org.springframework.web.util.pattern.PathPatternParser;
 
+import java.util.Comparator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,6 +42,16 @@ public class PathMatchUtils {
         return MATCHER.match(matchUrls, realPath);
     }
 
+    /**
+     * Pattern comparator, more specific patterns come first.
+     *
+     * @param realPath the real path
+     * @return the comparator
+     */
+    public static Comparator<String> patternComparator(final String realPath) {
+        return MATCHER.getPatternComparator(realPath);
+    }
+
     /**
      * Path pattern boolean.
      *
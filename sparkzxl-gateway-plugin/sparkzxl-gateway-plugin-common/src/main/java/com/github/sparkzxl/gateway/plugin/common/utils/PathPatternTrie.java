@@ -0,0 +1,146 @@
+package com.github.sparkzxl.gateway.plugin.common.utils;
+
+import com.google.common.collect.Maps;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * description: Ant风格路径模式的分段前缀树
+ * <p>
+ * 构建时按 "/" 拆分模式，字面量分段、"*"、"**" 分别建立子节点，包含部分通配符的分段(如 "user*"、"{id}")放入剩余列表线性匹配。
+ * 查询时沿树收集候选模式，再用 {@link PathMatchUtils#match} 校验(处理首尾分隔符等细节)，
+ * 多个模式同时命中时按 AntPathMatcher 的模式比较器取最具体的模式。构建完成后只读，可被多线程并发查询。
+ *
+ * @param <T> 模式对应的值类型
+ * @author zhouxinlei
+ */
+public final class PathPatternTrie<T> {
+
+    private static final String SEPARATOR = "/";
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String MULTI_WILDCARD = "**";
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * pattern -> value，用于部分通配符的分段
+     */
+    private final Map<String, T> residual = Maps.newLinkedHashMap();
+
+    private PathPatternTrie() {
+    }
+
+    /**
+     * 构建前缀树，相同模式保留先出现的值
+     *
+     * @param values          值集合
+     * @param patternFunction 获取值对应的路径模式
+     * @return PathPatternTrie<T>
+     */
+    public static <T> PathPatternTrie<T> build(Collection<T> values, Function<T, String> patternFunction) {
+        PathPatternTrie<T> trie = new PathPatternTrie<>();
+        for (T value : values) {
+            String pattern = patternFunction.apply(value);
+            if (StringUtils.isNotEmpty(pattern)) {
+                trie.insert(pattern, value);
+            }
+        }
+        return trie;
+    }
+
+    private void insert(String pattern, T value) {
+        String[] segments = StringUtils.split(pattern, SEPARATOR);
+        Node<T> node = root;
+        for (String segment : segments) {
+            if (MULTI_WILDCARD.equals(segment)) {
+                node = node.multiWildcard == null ? (node.multiWildcard = new Node<>()) : node.multiWildcard;
+            } else if (SINGLE_WILDCARD.equals(segment)) {
+                node = node.singleWildcard == null ? (node.singleWildcard = new Node<>()) : node.singleWildcard;
+            } else if (isLiteral(segment)) {
+                node = node.literals.computeIfAbsent(segment, key -> new Node<>());
+            } else {
+                residual.putIfAbsent(pattern, value);
+                return;
+            }
+        }
+        node.values.putIfAbsent(pattern, value);
+    }
+
+    private static boolean isLiteral(String segment) {
+        return StringUtils.containsNone(segment, '*', '?', '{');
+    }
+
+    /**
+     * 匹配最具体的模式
+     *
+     * @param path 请求路径
+     * @return 匹配的值，无匹配时返回null
+     */
+    public T match(String path) {
+        if (path == null) {
+            return null;
+        }
+        Set<Map.Entry<String, T>> candidates = new LinkedHashSet<>();
+        collect(root, StringUtils.split(path, SEPARATOR), 0, candidates);
+        candidates.addAll(residual.entrySet());
+        Map.Entry<String, T> best = null;
+        Comparator<String> comparator = null;
+        for (Map.Entry<String, T> candidate : candidates) {
+            if (!PathMatchUtils.match(candidate.getKey(), path)) {
+                continue;
+            }
+            if (best == null) {
+                best = candidate;
+                continue;
+            }
+            if (comparator == null) {
+                comparator = PathMatchUtils.patternComparator(path);
+            }
+            if (comparator.compare(candidate.getKey(), best.getKey()) < 0) {
+                best = candidate;
+            }
+        }
+        return best == null ? null : best.getValue();
+    }
+
+    private static <T> void collect(Node<T> node, String[] segments, int index, Set<Map.Entry<String, T>> candidates) {
+        if (node.multiWildcard != null) {
+            // "**" 匹配零个或多个分段
+            for (int i = index; i <= segments.length; i++) {
+                collect(node.multiWildcard, segments, i, candidates);
+            }
+        }
+        if (index == segments.length) {
+            candidates.addAll(node.values.entrySet());
+            if (node.singleWildcard != null) {
+                // 以分隔符结尾的路径拆分后少一个空分段，"/a/*" 可以匹配 "/a/"，交给校验阶段判断
+                candidates.addAll(node.singleWildcard.values.entrySet());
+            }
+            return;
+        }
+        Node<T> literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            collect(literal, segments, index + 1, candidates);
+        }
+        if (node.singleWildcard != null) {
+            collect(node.singleWildcard, segments, index + 1, candidates);
+        }
+    }
+
+    private static final class Node<T> {
+
+        private final Map<String, Node<T>> literals = Maps.newHashMap();
+
+        private final Map<String, T> values = Maps.newLinkedHashMap();
+
+        private Node<T> singleWildcard;
+
+        private Node<T> multiWildcard;
+    }
+}
@@ -1,8 +1,13 @@
 package com.github.sparkzxl.gateway.plugin.properties;
 
 import com.github.sparkzxl.gateway.plugin.common.entity.FilterData;
+import com.github.sparkzxl.gateway.plugin.common.utils.CompiledPathMatcher;
 import com.google.common.collect.Lists;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -36,15 +41,43 @@ public class GatewayPluginProperties implements InitializingBean, Serializable {
 
     private LoggingProperties logging;
 
+    /**
+     * staticIgnoring与ignoring编译后的匹配器，配置变更时重新编译
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient volatile CompiledPathMatcher ignoringMatcher;
+
+    public void setIgnoring(List<String> ignoring) {
+        this.ignoring = ignoring;
+        this.ignoringMatcher = null;
+    }
+
+    public void setStaticIgnoring(List<String> staticIgnoring) {
+        this.staticIgnoring = staticIgnoring;
+        this.ignoringMatcher = null;
+    }
+
     public boolean match(String path) {
-        boolean match = match(staticIgnoring, path);
-        if (match) {
-            return true;
+        CompiledPathMatcher matcher = ignoringMatcher;
+        if (matcher == null) {
+            matcher = compileIgnoringMatcher();
+        }
+        return matcher.match(path);
+    }
+
+    private CompiledPathMatcher compileIgnoringMatcher() {
+        List<String> patterns = Lists.newArrayList();
+        if (CollectionUtils.isNotEmpty(staticIgnoring)) {
+            patterns.addAll(staticIgnoring);
         }
-        if (CollectionUtils.isEmpty(ignoring)) {
-            return false;
+        if (CollectionUtils.isNotEmpty(ignoring)) {
+            patterns.addAll(ignoring);
         }
-        return match(ignoring, path);
+        CompiledPathMatcher matcher = CompiledPathMatcher.compile(patterns);
+        this.ignoringMatcher = matcher;
+        return matcher;
     }
 
 
@@ -73,5 +106,6 @@ public class GatewayPluginProperties implements InitializingBean, Serializable {
                 "/webjars/**",
                 "/doc.html",
                 "/actuator/**"));
+        compileIgnoringMatcher();
     }
 }
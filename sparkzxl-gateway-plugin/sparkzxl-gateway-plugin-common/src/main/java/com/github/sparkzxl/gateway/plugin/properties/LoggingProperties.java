@@ -1,9 +1,14 @@
 package com.github.sparkzxl.gateway.plugin.properties;
 
+import com.google.common.collect.ImmutableSet;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 /**
  * description: Logging Properties
@@ -27,12 +32,101 @@ public class LoggingProperties {
      * Enable Or Disable Read Response Data
      */
     private boolean readResponseData;
+    /**
+     * Enable Or Disable Tee Response Data。If true, response body is forwarded as it is while only the first
+     * responseBodyLimit bytes are copied for logging, otherwise the whole response body is buffered before forwarding
+     */
+    private boolean teeResponseData = true;
+    /**
+     * Max bytes of response data to log when tee response data
+     */
+    private int responseBodyLimit = 64 * 1024;
 
     private List<String> paths;
 
+    /**
+     * Async Logging Properties
+     */
+    private Async async = new Async();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient volatile Set<String> pathSet;
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+        this.pathSet = null;
+    }
+
     public boolean match(String path) {
-        return Optional.ofNullable(paths)
-                .map(s -> s.contains(path))
-                .orElse(true);
+        if (paths == null) {
+            return true;
+        }
+        Set<String> set = pathSet;
+        if (set == null) {
+            pathSet = set = ImmutableSet.copyOf(paths);
+        }
+        return set.contains(path);
+    }
+
+    /**
+     * 异步批量日志配置
+     */
+    @Data
+    public static class Async {
+
+        /**
+         * Enable Or Disable Async Logging。If true, log records are enqueued into a ring buffer and shipped in batches by a dedicated thread
+         */
+        private boolean enabled = true;
+        /**
+         * Ring buffer size, rounded up to a power of two
+         */
+        private int bufferSize = 8192;
+        /**
+         * Max log records per batch
+         */
+        private int batchSize = 256;
+        /**
+         * Idle wait of the shipping thread when the buffer is empty, in milliseconds
+         */
+        private long flushInterval = 50;
+        /**
+         * Policy when the buffer is under pressure
+         */
+        private OverloadPolicy overloadPolicy = OverloadPolicy.DROP;
+        /**
+         * Buffer usage ratio above which records are sampled, used by SAMPLE policy
+         */
+        private double sampleThreshold = 0.75;
+        /**
+         * Ratio of records kept when sampling, used by SAMPLE policy
+         */
+        private double sampleRatio = 0.1;
+        /**
+         * Http bulk endpoint, log records are posted as json array when configured, otherwise written to logger
+         */
+        private String httpUrl;
+        /**
+         * Http bulk request timeout, in milliseconds
+         */
+        private int httpTimeout = 3000;
+    }
+
+    /**
+     * 日志缓冲区压力下的处理策略
+     */
+    public enum OverloadPolicy {
+
+        /**
+         * 缓冲区满时丢弃新日志
+         */
+        DROP,
+
+        /**
+         * 缓冲区使用率超过阈值时按比例采样，缓冲区满时丢弃新日志
+         */
+        SAMPLE
     }
 }
@@ -19,4 +19,9 @@ public class JwtConfig implements Serializable {
 
     private String tokenKey;
 
+    /**
+     * 已验签token缓存大小，缓存项在token过期时失效，0表示不缓存
+     */
+    private int verifiedTokenCacheSize;
+
 }
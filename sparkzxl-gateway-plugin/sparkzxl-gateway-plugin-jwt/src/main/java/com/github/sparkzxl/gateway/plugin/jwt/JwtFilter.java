@@ -1,25 +1,26 @@
 package com.github.sparkzxl.gateway.plugin.jwt;
 
-import cn.hutool.core.bean.OptionalBean;
 import cn.hutool.core.date.DateTime;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.sparkzxl.constant.BaseContextConstants;
 import com.github.sparkzxl.core.jackson.JsonUtil;
 import com.github.sparkzxl.core.support.JwtExpireException;
 import com.github.sparkzxl.core.support.JwtInvalidException;
 import com.github.sparkzxl.core.support.code.ResultErrorCode;
 import com.github.sparkzxl.core.util.DateUtils;
-import com.github.sparkzxl.core.util.HuSecretUtil;
+import com.github.sparkzxl.gateway.plugin.common.Singleton;
 import com.github.sparkzxl.gateway.plugin.common.constant.GatewayConstant;
 import com.github.sparkzxl.gateway.plugin.common.constant.enums.FilterEnum;
 import com.github.sparkzxl.gateway.plugin.common.entity.FilterData;
 import com.github.sparkzxl.gateway.plugin.common.utils.ReactorHttpHelper;
 import com.github.sparkzxl.gateway.plugin.filter.AbstractGlobalFilter;
+import com.github.sparkzxl.gateway.plugin.handler.FilterDataHandler;
 import com.github.sparkzxl.gateway.plugin.jwt.handle.JwtRuleHandle;
-import com.github.sparkzxl.gateway.plugin.rule.RuleData;
+import com.github.sparkzxl.gateway.plugin.jwt.handler.JwtFilterDataHandler;
 import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.MACVerifier;
 import io.vavr.control.Try;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
@@ -41,6 +42,11 @@ import java.util.List;
 @Slf4j
 public class JwtFilter extends AbstractGlobalFilter {
 
+    /**
+     * 未注册jwt插件数据处理bean时使用
+     */
+    private final FilterDataHandler defaultFilterDataHandler = new JwtFilterDataHandler();
+
     @Override
     public String named() {
         return FilterEnum.JWT.getName();
@@ -50,18 +56,16 @@ public class JwtFilter extends AbstractGlobalFilter {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         FilterData filterData = loadFilterData();
         boolean needSkip = (boolean) exchange.getAttributes().get(GatewayConstant.NEED_SKIP);
-        String jsonConfig =
-                OptionalBean.ofNullable(filterData).getBean(FilterData::getConfig).orElseGet(() -> "{\"secretKey\":\"\",\"tokenKey\":\"Authorization\"}");
-        JwtConfig jwtConfig = JsonUtil.toPojo(jsonConfig, JwtConfig.class);
-        String dataHandle = OptionalBean.ofNullable(filterData.getRule()).getBean(RuleData::getHandle).orElseGet(
-                () -> "{\"converter\":[{\"headerVal\":\"userid\",\"jwtVal\":\"id\"},{\"headerVal\":\"account\",\"jwtVal\":\"username\"},{\"headerVal\":\"name\",\"jwtVal\":\"name\"}]}");
-        JwtRuleHandle ruleHandle = JsonUtil.toPojo(dataHandle, JwtRuleHandle.class);
+        ObjectUtils.defaultIfNull(getFilterDataHandler(), defaultFilterDataHandler).handlerFilter(filterData);
+        JwtPluginData pluginData = Singleton.INSTANCE.get(JwtPluginData.class);
+        JwtConfig jwtConfig = pluginData.getJwtConfig();
+        JwtRuleHandle ruleHandle = pluginData.getRuleHandle();
         if (needSkip) {
             return removeAuthorization(exchange, chain, jwtConfig.getTokenKey());
         }
         String token = exchange.getRequest().getHeaders().getFirst(jwtConfig.getTokenKey());
         String authToken = StringUtils.removeStartIgnoreCase(token, BaseContextConstants.BEARER_TOKEN);
-        JsonNode jwtBody = checkAuthorization(authToken, jwtConfig.getSecretKey());
+        JsonNode jwtBody = checkAuthorization(authToken, pluginData);
         if (ObjectUtils.isNotEmpty(jwtBody)) {
             if (ObjectUtils.isNotEmpty(ruleHandle)) {
                 return chain.filter(converter(exchange, jwtBody, ruleHandle.getConverter()));
@@ -78,19 +82,28 @@ public class JwtFilter extends AbstractGlobalFilter {
     /**
      * check Authorization.
      *
-     * @param token     token
-     * @param secretKey secretKey of authorization
+     * @param token      token
+     * @param pluginData jwt plugin data
      * @return Map
      */
     private JsonNode checkAuthorization(final String token,
-                                        final String secretKey) {
+                                        final JwtPluginData pluginData) {
         if (StringUtils.isEmpty(token)) {
             return null;
         }
-        return Try.of(() -> {
+        Cache<String, JwtPluginData.VerifiedToken> verifiedTokenCache = pluginData.getVerifiedTokenCache();
+        String tokenDigest = null;
+        if (verifiedTokenCache != null) {
+            tokenDigest = DigestUtil.sha256Hex(token);
+            JwtPluginData.VerifiedToken verifiedToken = verifiedTokenCache.getIfPresent(tokenDigest);
+            if (verifiedToken != null && verifiedToken.getExpireAt() >= System.currentTimeMillis()) {
+                return verifiedToken.getBody();
+            }
+        }
+        JWSVerifier jwsVerifier = pluginData.getVerifier();
+        JsonNode jwtBody = Try.of(() -> {
             JWSObject jwsObject = JWSObject.parse(token);
-            if (StringUtils.isNotEmpty(secretKey)) {
-                JWSVerifier jwsVerifier = new MACVerifier(HuSecretUtil.encryptMd5(secretKey));
+            if (jwsVerifier != null) {
                 if (!jwsObject.verify(jwsVerifier)) {
                     throw new JwtInvalidException("token验签失败");
                 }
@@ -106,6 +119,11 @@ public class JwtFilter extends AbstractGlobalFilter {
             log.error("JSON转换异常：", throwable);
             throw new JwtInvalidException(throwable);
         });
+        long expireAt = jwtBody.get("exp").asLong(0) * 1000;
+        if (tokenDigest != null && expireAt > 0) {
+            verifiedTokenCache.put(tokenDigest, new JwtPluginData.VerifiedToken(jwtBody, expireAt));
+        }
+        return jwtBody;
     }
 
     /**
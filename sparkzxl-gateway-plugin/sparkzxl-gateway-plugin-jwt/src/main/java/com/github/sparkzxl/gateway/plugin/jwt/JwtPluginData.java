@@ -0,0 +1,113 @@
+package com.github.sparkzxl.gateway.plugin.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.sparkzxl.gateway.plugin.jwt.handle.JwtRuleHandle;
+import com.nimbusds.jose.JWSVerifier;
+import lombok.Getter;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * description: 预解析的jwt插件数据
+ * <p>
+ * 同一份插件配置只解析一次，验签器与已验签token缓存随配置一起创建，配置变更时整体替换。
+ *
+ * @author zhouxinlei
+ */
+@Getter
+public class JwtPluginData {
+
+    /**
+     * 原始插件配置，用于判断配置是否变更
+     */
+    private final String config;
+
+    /**
+     * 原始规则处理配置，用于判断配置是否变更
+     */
+    private final String handle;
+
+    private final JwtConfig jwtConfig;
+
+    private final JwtRuleHandle ruleHandle;
+
+    /**
+     * 验签器，secretKey为空时为null，不做验签
+     */
+    private final JWSVerifier verifier;
+
+    /**
+     * 已验签token缓存，key为token摘要，未开启时为null
+     */
+    private final Cache<String, VerifiedToken> verifiedTokenCache;
+
+    public JwtPluginData(String config, String handle, JwtConfig jwtConfig, JwtRuleHandle ruleHandle, JWSVerifier verifier) {
+        this.config = config;
+        this.handle = handle;
+        this.jwtConfig = jwtConfig;
+        this.ruleHandle = ruleHandle;
+        this.verifier = verifier;
+        this.verifiedTokenCache = jwtConfig.getVerifiedTokenCacheSize() > 0
+                ? Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedTokenCacheSize())
+                .expireAfter(new TokenExpiry())
+                .build()
+                : null;
+    }
+
+    /**
+     * 配置是否与当前数据一致
+     *
+     * @param config 插件配置
+     * @param handle 规则处理配置
+     * @return boolean
+     */
+    public boolean sameSource(String config, String handle) {
+        return Objects.equals(this.config, config) && Objects.equals(this.handle, handle);
+    }
+
+    /**
+     * 已验签的token
+     */
+    @Getter
+    public static class VerifiedToken {
+
+        private final JsonNode body;
+
+        /**
+         * 过期时间，单位毫秒
+         */
+        private final long expireAt;
+
+        public VerifiedToken(JsonNode body, long expireAt) {
+            this.body = body;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 缓存项在token的exp到期
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remaining = value.getExpireAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0L));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
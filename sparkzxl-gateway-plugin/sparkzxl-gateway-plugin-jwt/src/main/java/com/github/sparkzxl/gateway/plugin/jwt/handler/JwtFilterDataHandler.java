@@ -0,0 +1,68 @@
+package com.github.sparkzxl.gateway.plugin.jwt.handler;
+
+import cn.hutool.core.bean.OptionalBean;
+import com.github.sparkzxl.core.jackson.JsonUtil;
+import com.github.sparkzxl.core.util.HuSecretUtil;
+import com.github.sparkzxl.gateway.plugin.common.Singleton;
+import com.github.sparkzxl.gateway.plugin.common.constant.enums.FilterEnum;
+import com.github.sparkzxl.gateway.plugin.common.entity.FilterData;
+import com.github.sparkzxl.gateway.plugin.handler.FilterDataHandler;
+import com.github.sparkzxl.gateway.plugin.jwt.JwtConfig;
+import com.github.sparkzxl.gateway.plugin.jwt.JwtPluginData;
+import com.github.sparkzxl.gateway.plugin.jwt.handle.JwtRuleHandle;
+import com.github.sparkzxl.gateway.plugin.rule.RuleData;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * description: jwt插件数据处理
+ * <p>
+ * 插件配置与规则处理配置变更时重新解析，并替换验签器与已验签token缓存，未变更时直接复用。
+ *
+ * @author zhouxinlei
+ */
+public class JwtFilterDataHandler implements FilterDataHandler {
+
+    private static final String DEFAULT_CONFIG = "{\"secretKey\":\"\",\"tokenKey\":\"Authorization\"}";
+
+    private static final String DEFAULT_HANDLE = "{\"converter\":[{\"headerVal\":\"userid\",\"jwtVal\":\"id\"},"
+            + "{\"headerVal\":\"account\",\"jwtVal\":\"username\"},{\"headerVal\":\"name\",\"jwtVal\":\"name\"}]}";
+
+    @Override
+    public void handlerFilter(FilterData filterData) {
+        String config = OptionalBean.ofNullable(filterData).getBean(FilterData::getConfig).orElseGet(() -> DEFAULT_CONFIG);
+        String handle = OptionalBean.ofNullable(filterData).getBean(FilterData::getRule).getBean(RuleData::getHandle)
+                .orElseGet(() -> DEFAULT_HANDLE);
+        JwtPluginData exist = Singleton.INSTANCE.get(JwtPluginData.class);
+        if (exist != null && exist.sameSource(config, handle)) {
+            return;
+        }
+        synchronized (this) {
+            exist = Singleton.INSTANCE.get(JwtPluginData.class);
+            if (exist == null || !exist.sameSource(config, handle)) {
+                Singleton.INSTANCE.single(JwtPluginData.class, parse(config, handle));
+            }
+        }
+    }
+
+    private JwtPluginData parse(String config, String handle) {
+        JwtConfig jwtConfig = JsonUtil.toPojo(config, JwtConfig.class);
+        JwtRuleHandle ruleHandle = JsonUtil.toPojo(handle, JwtRuleHandle.class);
+        JWSVerifier verifier = null;
+        if (StringUtils.isNotEmpty(jwtConfig.getSecretKey())) {
+            try {
+                verifier = new MACVerifier(HuSecretUtil.encryptMd5(jwtConfig.getSecretKey()));
+            } catch (JOSEException e) {
+                throw new IllegalArgumentException("jwt secretKey is invalid", e);
+            }
+        }
+        return new JwtPluginData(config, handle, jwtConfig, ruleHandle, verifier);
+    }
+
+    @Override
+    public String filterNamed() {
+        return FilterEnum.JWT.getName();
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.sparkzxl.gateway.plugin.logging;
+
+import com.github.sparkzxl.gateway.plugin.logging.service.IOptLogService;
+import com.github.sparkzxl.gateway.plugin.logging.sink.LogSink;
+import com.github.sparkzxl.gateway.plugin.properties.LoggingProperties;
+import com.google.common.collect.Lists;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * description: 异步批量记录请求日志
+ * <p>
+ * recordLog只在调用线程上构建轻量的 {@link LogRecord} 并写入无锁环形缓冲区，不做序列化，也不会阻塞；
+ * 专用线程批量取出日志，转换为 {@link LogParam} 后交给 {@link LogSink} 输出。
+ * 缓冲区满时丢弃新日志，SAMPLE策略下缓冲区使用率超过阈值后按比例采样。
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class AsyncOptLogServiceImpl implements IOptLogService, DisposableBean {
+
+    private static final long DROPPED_REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final LoggingProperties.Async async;
+
+    private final LogSink logSink;
+
+    private final LogRingBuffer<LogRecord> ringBuffer;
+
+    private final int sampleThreshold;
+
+    private final LongAdder droppedCounter = new LongAdder();
+
+    private final LongAdder sampledCounter = new LongAdder();
+
+    private final Thread workerThread;
+
+    private volatile boolean running = true;
+
+    public AsyncOptLogServiceImpl(LoggingProperties logging, LogSink logSink) {
+        this.async = logging.getAsync();
+        this.logSink = logSink;
+        this.ringBuffer = new LogRingBuffer<>(async.getBufferSize());
+        this.sampleThreshold = (int) (ringBuffer.capacity() * async.getSampleThreshold());
+        this.workerThread = new Thread(this::run, "gateway-access-log");
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    @Override
+    public void recordLog(ServerWebExchange exchange) {
+        if (!running) {
+            droppedCounter.increment();
+            return;
+        }
+        if (async.getOverloadPolicy() == LoggingProperties.OverloadPolicy.SAMPLE
+                && ringBuffer.size() >= sampleThreshold
+                && ThreadLocalRandom.current().nextDouble() >= async.getSampleRatio()) {
+            sampledCounter.increment();
+            return;
+        }
+        if (!ringBuffer.offer(LogRecord.of(exchange))) {
+            droppedCounter.increment();
+        }
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    /**
+     * 因缓冲区满或服务关闭丢弃的日志数
+     *
+     * @return long
+     */
+    public long droppedCount() {
+        return droppedCounter.sum();
+    }
+
+    /**
+     * 采样丢弃的日志数
+     *
+     * @return long
+     */
+    public long sampledCount() {
+        return sampledCounter.sum();
+    }
+
+    private void run() {
+        int batchSize = Math.max(async.getBatchSize(), 1);
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(async.getFlushInterval(), 1L));
+        List<LogParam> batch = Lists.newArrayListWithCapacity(batchSize);
+        long reportedDropped = 0L;
+        long lastReportTime = System.nanoTime();
+        while (running || ringBuffer.size() > 0) {
+            LogRecord logRecord;
+            while (batch.size() < batchSize && (logRecord = ringBuffer.poll()) != null) {
+                try {
+                    batch.add(logRecord.toLogParam());
+                } catch (Exception e) {
+                    log.error("构建请求日志异常：", e);
+                }
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, idleNanos);
+            } else {
+                flush(batch);
+            }
+            if (System.nanoTime() - lastReportTime >= DROPPED_REPORT_INTERVAL) {
+                long dropped = droppedCounter.sum() + sampledCounter.sum();
+                if (dropped > reportedDropped) {
+                    log.warn("请求日志缓冲区压力过大，累计丢弃日志数：{}，其中采样丢弃：{}", dropped, sampledCounter.sum());
+                    reportedDropped = dropped;
+                }
+                lastReportTime = System.nanoTime();
+            }
+        }
+    }
+
+    private void flush(List<LogParam> batch) {
+        try {
+            logSink.write(batch);
+        } catch (Exception e) {
+            log.error("输出请求日志异常，丢弃日志数：{}", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        LockSupport.unpark(workerThread);
+        workerThread.join(TimeUnit.SECONDS.toMillis(5));
+        logSink.close();
+    }
+}
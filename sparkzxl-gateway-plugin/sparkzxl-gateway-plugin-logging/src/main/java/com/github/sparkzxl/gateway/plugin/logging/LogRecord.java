@@ -0,0 +1,121 @@
+package com.github.sparkzxl.gateway.plugin.logging;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.text.StrFormatter;
+import com.github.sparkzxl.constant.BaseContextConstants;
+import com.github.sparkzxl.core.jackson.JsonUtil;
+import com.github.sparkzxl.core.util.HttpRequestUtils;
+import com.github.sparkzxl.gateway.plugin.common.constant.GatewayConstant;
+import com.github.sparkzxl.gateway.plugin.context.GatewayContext;
+import com.google.common.collect.Maps;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * description: 请求日志记录
+ * <p>
+ * 只保存请求相关对象的引用，解码与JSON序列化延迟到 {@link #toLogParam()} 中执行，
+ * 便于在I/O线程上快速构建后交给其他线程处理。
+ *
+ * @author zhouxinlei
+ */
+public class LogRecord {
+
+    private final GatewayContext gatewayContext;
+
+    private final LogContext logContext;
+
+    private final HttpHeaders headers;
+
+    private final MultiValueMap<String, String> queryParams;
+
+    private final Integer httpStatus;
+
+    private final LocalDateTime endTime;
+
+    private LogRecord(GatewayContext gatewayContext, LogContext logContext, HttpHeaders headers,
+                      MultiValueMap<String, String> queryParams, Integer httpStatus, LocalDateTime endTime) {
+        this.gatewayContext = gatewayContext;
+        this.logContext = logContext;
+        this.headers = headers;
+        this.queryParams = queryParams;
+        this.httpStatus = httpStatus;
+        this.endTime = endTime;
+    }
+
+    /**
+     * 构建请求日志记录
+     *
+     * @param exchange exchange
+     * @return LogRecord
+     */
+    public static LogRecord of(ServerWebExchange exchange) {
+        GatewayContext gatewayContext = exchange.getAttribute(GatewayConstant.GATEWAY_CONTEXT_CONSTANT);
+        LogContext logContext = exchange.getAttribute(GatewayConstant.GATEWAY_LOG_CONTEXT_CONSTANT);
+        ServerHttpRequest request = exchange.getRequest();
+        HttpStatus statusCode = exchange.getResponse().getStatusCode();
+        return new LogRecord(gatewayContext, logContext, request.getHeaders(), request.getQueryParams(),
+                statusCode == null ? null : statusCode.value(), LocalDateTime.now());
+    }
+
+    /**
+     * 转换为日志参数
+     *
+     * @return LogParam
+     */
+    public LogParam toLogParam() {
+        LogParam logParam = new LogParam();
+        String username = HttpRequestUtils.urlDecode(StringUtils.defaultString(headers.getFirst(BaseContextConstants.JWT_KEY_NAME)));
+        String tenantId = HttpRequestUtils.urlDecode(StringUtils.defaultString(headers.getFirst(BaseContextConstants.TENANT_ID)));
+        logParam.setIp(gatewayContext.getIp())
+                .setHost(gatewayContext.getHost())
+                .setPath(gatewayContext.getPath())
+                .setRouteId(gatewayContext.getRouteId())
+                .setUsername(username)
+                .setTenantId(tenantId)
+                .setHttpMethod(gatewayContext.getHttpMethod())
+                .setHttpStatus(httpStatus)
+                .setReqTime(gatewayContext.getStartTime())
+                .setHeaders(getHeaders(headers))
+                .setReqBody(logContext.getRequestBody())
+                .setTimeCost(StrFormatter.format("{}ms", Duration.between(logParam.getReqTime(), endTime).toMillis()))
+                .setQueryParams(getQueryParams(queryParams))
+                .setRespBody(Optional.ofNullable(logContext.getResponseBody()).orElse(StringUtils.EMPTY));
+        if (MapUtil.isNotEmpty(logContext.getFormData())) {
+            logParam.setReqFormData(JsonUtil.toJson(logContext.getFormData()));
+        }
+        return logParam;
+    }
+
+    private static String getQueryParams(final MultiValueMap<String, String> params) {
+        Map<String, String> queryParamMap = Maps.newHashMap();
+        if (!params.isEmpty()) {
+            params.forEach((key, value) -> {
+                queryParamMap.put(key, StringUtils.join(value, ","));
+            });
+        }
+        return JsonUtil.toJson(queryParamMap);
+    }
+
+    private static String getHeaders(final HttpHeaders headers) {
+        Map<String, String> headerMap = Maps.newHashMap();
+        Set<Map.Entry<String, List<String>>> entrySet = headers.entrySet();
+        entrySet.forEach(entry -> {
+            String key = entry.getKey();
+            List<String> value = entry.getValue();
+            headerMap.put(key, StringUtils.join(value, ","));
+        });
+        return JsonUtil.toJson(headerMap);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.sparkzxl.gateway.plugin.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * description: 有界无锁环形缓冲区，多生产者单消费者
+ * <p>
+ * 每个槽位带序号，生产者CAS占用写入位置后写入元素并发布序号，消费者按序号判断槽位是否可读，
+ * 缓冲区满时offer直接返回false，不会阻塞生产者。
+ *
+ * @param <E> 元素类型
+ * @author zhouxinlei
+ */
+class LogRingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 只由消费者线程修改
+     */
+    private volatile long head;
+
+    LogRingBuffer(final int bufferSize) {
+        int size = 1;
+        while (size < Math.max(bufferSize, 2)) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素，可被多个线程并发调用
+     *
+     * @param element 元素
+     * @return 缓冲区已满时返回false
+     */
+    boolean offer(final E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 读取元素，只能由消费者线程调用
+     *
+     * @return 无可读元素时返回null
+     */
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0L, Math.min(size, capacity));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
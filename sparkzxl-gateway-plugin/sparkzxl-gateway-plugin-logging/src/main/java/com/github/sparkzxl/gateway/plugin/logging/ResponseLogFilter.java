@@ -46,7 +46,8 @@ public class ResponseLogFilter extends AbstractGlobalFilter {
                 Boolean.parseBoolean(ParameterDataFactory.builderData(ParameterDataConstant.ATTRIBUTE, GatewayConstant.ENABLE_LOGGING, exchange));
         if (enableLogging) {
             sendCacheRequestBodyEvent(gatewayContext.getRouteId());
-            return chain.filter(exchange.mutate().response(new LoggingResponseBodyDecorator(exchange.getResponse(), exchange, optLogService)).build());
+            return chain.filter(exchange.mutate().response(new LoggingResponseBodyDecorator(exchange.getResponse(), exchange, optLogService,
+                    gatewayPluginProperties.getLogging())).build());
         }
         return chain.filter(exchange);
     }
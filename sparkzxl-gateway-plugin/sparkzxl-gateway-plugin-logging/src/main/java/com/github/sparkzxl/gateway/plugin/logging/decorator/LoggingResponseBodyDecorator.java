@@ -3,6 +3,8 @@ package com.github.sparkzxl.gateway.plugin.logging.decorator;
 import com.github.sparkzxl.gateway.plugin.common.constant.GatewayConstant;
 import com.github.sparkzxl.gateway.plugin.logging.LogContext;
 import com.github.sparkzxl.gateway.plugin.logging.service.IOptLogService;
+import com.github.sparkzxl.gateway.plugin.properties.LoggingProperties;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.reactivestreams.Publisher;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -16,6 +18,7 @@ import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
@@ -24,20 +27,30 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.O
 
 /**
  * description: Http响应体装饰器
+ * <p>
+ * 旁路模式下响应数据原样转发给客户端，只把前 responseBodyLimit 字节复制到响应缓冲区工厂分配的(池化)缓冲区中，
+ * 响应完成、出错或取消后异步记录日志；关闭旁路模式时缓冲完整响应后再转发。
  *
  * @author zhouxinlei
  * @since 2021-12-24 08:47
  */
+@Slf4j
 public class LoggingResponseBodyDecorator extends ServerHttpResponseDecorator {
 
+    private static final String TRUNCATED_SUFFIX = "...";
+
     private final ServerWebExchange exchange;
 
     private final IOptLogService optLogService;
 
-    public LoggingResponseBodyDecorator(ServerHttpResponse delegate, ServerWebExchange exchange, IOptLogService optLogService) {
+    private final LoggingProperties logging;
+
+    public LoggingResponseBodyDecorator(ServerHttpResponse delegate, ServerWebExchange exchange, IOptLogService optLogService,
+                                        LoggingProperties logging) {
         super(delegate);
         this.exchange = exchange;
         this.optLogService = optLogService;
+        this.logging = logging;
     }
 
     @Override
@@ -49,6 +62,12 @@ public class LoggingResponseBodyDecorator extends ServerHttpResponseDecorator {
             String originalResponseContentType = exchange.getAttribute(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR);
             if (StringUtils.isNotBlank(originalResponseContentType) && originalResponseContentType.contains(MediaType.APPLICATION_JSON_VALUE)) {
                 Flux<? extends DataBuffer> fluxBody = Flux.from(body);
+                if (logging.isTeeResponseData()) {
+                    ResponseBodyCapture capture = new ResponseBodyCapture(bufferFactory, logging.getResponseBodyLimit());
+                    return super.writeWith(fluxBody.doOnNext(capture::copy))
+                            // 完成、出错或取消时均记录日志，响应体为截至此时已复制的数据
+                            .doFinally(signalType -> cacheResponseBody(capture.release()));
+                }
                 return super.writeWith(fluxBody.buffer().map(dataBuffers -> {
                     //解决返回体分段传输
                     DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
@@ -78,7 +97,17 @@ public class LoggingResponseBodyDecorator extends ServerHttpResponseDecorator {
     private void cacheResponseBody(String responseData) {
         LogContext gatewayContext = exchange.getAttribute(GatewayConstant.GATEWAY_LOG_CONTEXT_CONSTANT);
         gatewayContext.setResponseBody(responseData);
-        optLogService.recordLog(exchange);
+        if (optLogService.isAsync()) {
+            optLogService.recordLog(exchange);
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                optLogService.recordLog(exchange);
+            } catch (Exception e) {
+                log.error("记录请求日志异常：", e);
+            }
+        });
     }
 
     @Override
@@ -90,4 +119,108 @@ public class LoggingResponseBodyDecorator extends ServerHttpResponseDecorator {
     public Integer getRawStatusCode() {
         return super.getRawStatusCode();
     }
+
+    /**
+     * 响应数据旁路复制，最多复制limit字节，响应数据本身的读写位置不变
+     * <p>
+     * 取消订阅时 doFinally 可能与仍在进行的 doOnNext 并发执行，复制与释放互斥，释放后不再复制
+     */
+    private static class ResponseBodyCapture {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final DataBufferFactory bufferFactory;
+
+        private final int limit;
+
+        private DataBuffer buffer;
+
+        private int remaining;
+
+        private boolean truncated;
+
+        private boolean released;
+
+        private ResponseBodyCapture(DataBufferFactory bufferFactory, int limit) {
+            this.bufferFactory = bufferFactory;
+            this.limit = Math.max(limit, 0);
+            this.remaining = this.limit;
+        }
+
+        private synchronized void copy(DataBuffer dataBuffer) {
+            if (released) {
+                return;
+            }
+            int readable = dataBuffer.readableByteCount();
+            if (readable == 0) {
+                return;
+            }
+            if (remaining == 0) {
+                truncated = true;
+                return;
+            }
+            if (buffer == null) {
+                buffer = bufferFactory.allocateBuffer(Math.min(limit, INITIAL_CAPACITY));
+            }
+            int length = Math.min(readable, remaining);
+            buffer.write(dataBuffer.asByteBuffer(dataBuffer.readPosition(), length));
+            remaining -= length;
+            truncated = length < readable;
+        }
+
+        /**
+         * 释放缓冲区
+         *
+         * @return 已复制的响应数据
+         */
+        private synchronized String release() {
+            if (released) {
+                return StringUtils.EMPTY;
+            }
+            released = true;
+            if (buffer == null) {
+                return truncated ? TRUNCATED_SUFFIX : StringUtils.EMPTY;
+            }
+            byte[] content = new byte[buffer.readableByteCount()];
+            buffer.read(content);
+            DataBufferUtils.release(buffer);
+            buffer = null;
+            if (!truncated) {
+                return new String(content, StandardCharsets.UTF_8);
+            }
+            return new String(content, 0, utf8Boundary(content), StandardCharsets.UTF_8) + TRUNCATED_SUFFIX;
+        }
+
+        /**
+         * 截断位置落在多字节字符中间时，回退到该字符的起始位置
+         *
+         * @param content 截断后的数据
+         * @return 完整字符的结束位置
+         */
+        private static int utf8Boundary(byte[] content) {
+            int length = content.length;
+            int start = length - 1;
+            // UTF-8字符最多4字节，最多向前查找3个后续字节(10xxxxxx)
+            while (start >= 0 && length - start < 4 && (content[start] & 0xC0) == 0x80) {
+                start--;
+            }
+            if (start < 0) {
+                return length;
+            }
+            int lead = content[start] & 0xFF;
+            int charLength;
+            if (lead < 0x80) {
+                charLength = 1;
+            } else if ((lead & 0xE0) == 0xC0) {
+                charLength = 2;
+            } else if ((lead & 0xF0) == 0xE0) {
+                charLength = 3;
+            } else if ((lead & 0xF8) == 0xF0) {
+                charLength = 4;
+            } else {
+                return length;
+            }
+            return start + charLength > length ? start : length;
+        }
+    }
 }
@@ -16,4 +16,13 @@ public interface IOptLogService {
      * @param exchange exchange
      */
     void recordLog(ServerWebExchange exchange);
+
+    /**
+     * 是否异步记录日志，同步实现由调用方切换到其他线程调用
+     *
+     * @return boolean
+     */
+    default boolean isAsync() {
+        return false;
+    }
 }
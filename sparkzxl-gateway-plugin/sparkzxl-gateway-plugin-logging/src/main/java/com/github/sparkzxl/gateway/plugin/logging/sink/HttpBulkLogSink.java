@@ -0,0 +1,39 @@
+package com.github.sparkzxl.gateway.plugin.logging.sink;
+
+import cn.hutool.http.ContentType;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import com.github.sparkzxl.core.jackson.JsonUtil;
+import com.github.sparkzxl.gateway.plugin.logging.LogParam;
+
+import java.util.List;
+
+/**
+ * description: 以JSON数组批量提交到http接口
+ *
+ * @author zhouxinlei
+ */
+public class HttpBulkLogSink implements LogSink {
+
+    private final String url;
+
+    private final int timeout;
+
+    public HttpBulkLogSink(String url, int timeout) {
+        this.url = url;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void write(List<LogParam> logParams) {
+        try (HttpResponse response = HttpRequest.post(url)
+                .contentType(ContentType.JSON.getValue())
+                .body(JsonUtil.toJson(logParams))
+                .timeout(timeout)
+                .execute()) {
+            if (!response.isOk()) {
+                throw new IllegalStateException("http bulk log request failed, status: " + response.getStatus());
+            }
+        }
+    }
+}
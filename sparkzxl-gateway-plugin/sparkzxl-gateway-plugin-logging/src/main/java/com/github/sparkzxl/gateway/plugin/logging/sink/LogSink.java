@@ -0,0 +1,27 @@
+package com.github.sparkzxl.gateway.plugin.logging.sink;
+
+import com.github.sparkzxl.gateway.plugin.logging.LogParam;
+
+import java.util.List;
+
+/**
+ * description: 请求日志输出
+ *
+ * @author zhouxinlei
+ */
+public interface LogSink {
+
+    /**
+     * 批量输出日志
+     *
+     * @param logParams 日志参数
+     * @throws Exception 输出异常
+     */
+    void write(List<LogParam> logParams) throws Exception;
+
+    /**
+     * 关闭，释放资源
+     */
+    default void close() {
+    }
+}
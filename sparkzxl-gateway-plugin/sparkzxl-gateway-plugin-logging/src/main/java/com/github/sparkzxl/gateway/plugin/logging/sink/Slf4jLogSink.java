@@ -0,0 +1,54 @@
+package com.github.sparkzxl.gateway.plugin.logging.sink;
+
+import com.github.sparkzxl.gateway.plugin.logging.LogParam;
+import com.github.sparkzxl.gateway.plugin.properties.LoggingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+
+/**
+ * description: 输出到日志框架，可通过日志配置输出到滚动文件或Kafka(logback-kafka-appender)
+ *
+ * @author zhouxinlei
+ */
+@Slf4j
+public class Slf4jLogSink implements LogSink {
+
+    private final LoggingProperties logging;
+
+    public Slf4jLogSink(LoggingProperties logging) {
+        this.logging = logging;
+    }
+
+    @Override
+    public void write(List<LogParam> logParams) {
+        for (LogParam logParam : logParams) {
+            write(logParam);
+        }
+    }
+
+    private void write(LogParam logParam) {
+        log.info("请求日志：IP:{},host:{},httpMethod:{},path:{},timeCost:{}",
+                logParam.getIp(),
+                logParam.getHost(),
+                logParam.getHttpMethod(),
+                logParam.getPath(),
+                logParam.getTimeCost()
+        );
+        if (logging.isReadRequestData()) {
+            if (StringUtils.isNotBlank(logParam.getQueryParams())) {
+                log.info("请求参数：queryParams:{}", logParam.getQueryParams());
+            }
+            if (StringUtils.isNotBlank(logParam.getReqFormData())) {
+                log.info("请求参数：requestFormData:{}", logParam.getReqFormData());
+            }
+            if (StringUtils.isNotBlank(logParam.getReqBody())) {
+                log.info("请求参数：requestBody:{}", logParam.getReqBody());
+            }
+        }
+        if (logging.isReadResponseData()) {
+            log.info("请求结果：responseBody:{}", logParam.getRespBody());
+        }
+    }
+}
@@ -8,7 +8,8 @@ import com.baidu.fsg.uid.buffer.RejectedTakeBufferHandler;
 import com.baidu.fsg.uid.impl.CachedUidGenerator;
 import com.baidu.fsg.uid.impl.DefaultUidGenerator;
 import com.baidu.fsg.uid.impl.HuToolUidGenerator;
-import com.baidu.fsg.uid.worker.DisposableWorkerIdAssigner;
+import com.baidu.fsg.uid.impl.ShardedUidGenerator;
+import com.baidu.fsg.uid.worker.WorkerIdAssigner;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.*;
@@ -104,17 +105,27 @@ public class MyBatisAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(prefix = ConfigurationConstant.DATA_PREFIX, name = "id-type", havingValue = "DEFAULT")
-    public UidGenerator getDefaultUidGenerator(DisposableWorkerIdAssigner disposableWorkerIdAssigner) {
+    public UidGenerator getDefaultUidGenerator(WorkerIdAssigner workerIdAssigner) {
         DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
         BeanUtil.copyProperties(dataProperties.getDefaultId(), uidGenerator);
-        uidGenerator.setWorkerIdAssigner(disposableWorkerIdAssigner);
+        uidGenerator.setWorkerIdAssigner(workerIdAssigner);
+        return uidGenerator;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = ConfigurationConstant.DATA_PREFIX, name = "id-type", havingValue = "SHARDED")
+    public UidGenerator getShardedUidGenerator(WorkerIdAssigner workerIdAssigner) {
+        ShardedUidGenerator uidGenerator = new ShardedUidGenerator();
+        BeanUtil.copyProperties(dataProperties.getShardedId(), uidGenerator);
+        uidGenerator.setWorkerIdAssigner(workerIdAssigner);
         return uidGenerator;
     }
 
     @Bean
     @ConditionalOnMissingBean
     @ConditionalOnProperty(prefix = ConfigurationConstant.DATA_PREFIX, name = "id-type", havingValue = "CACHE")
-    public UidGenerator getCacheUidGenerator(DisposableWorkerIdAssigner disposableWorkerIdAssigner) {
+    public UidGenerator getCacheUidGenerator(WorkerIdAssigner workerIdAssigner) {
         CachedUidGenerator uidGenerator = new CachedUidGenerator();
         DataProperties.CacheId cacheId = dataProperties.getCacheId();
         BeanUtil.copyProperties(cacheId, uidGenerator);
@@ -126,7 +137,7 @@ public class MyBatisAutoConfiguration {
             RejectedTakeBufferHandler rejectedTakeBufferHandler = ReflectUtil.newInstance(cacheId.getRejectedTakeBufferHandlerClass());
             uidGenerator.setRejectedTakeBufferHandler(rejectedTakeBufferHandler);
         }
-        uidGenerator.setWorkerIdAssigner(disposableWorkerIdAssigner);
+        uidGenerator.setWorkerIdAssigner(workerIdAssigner);
         return uidGenerator;
     }
 
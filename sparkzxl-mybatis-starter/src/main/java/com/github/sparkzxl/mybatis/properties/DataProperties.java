@@ -93,6 +93,7 @@ public class DataProperties {
      */
     private CacheId cacheId = new CacheId();
     private DefaultId defaultId = new DefaultId();
+    private ShardedId shardedId = new ShardedId();
     private HuToolId hutoolId = new HuToolId();
 
 
@@ -147,6 +148,11 @@ public class DataProperties {
          * 默认:不配置此项, 即不实用Schedule线程. 如需使用, 请指定Schedule线程时间间隔, 单位:秒
          */
         private Long scheduleInterval = 5 * 60L;
+        /**
+         * 并行填充RingBuffer的最大线程数, 每个填充线程每次填充一秒内的UID
+         * 默认:1, UID严格按时间递增; 大于1时可提升填充吞吐, 但并行填充的UID在环上不再单调递增
+         */
+        private Integer paddingParallelism = 1;
         /**
          * 拒绝策略: 当环已满, 无法继续填充时
          * 默认无需指定, 将丢弃Put操作, 仅日志记录. 如有特殊需求, 请实现RejectedPutBufferHandler接口(支持Lambda表达式)
@@ -160,6 +166,25 @@ public class DataProperties {
     }
 
 
+    @EqualsAndHashCode(callSuper = true)
+    @Data
+    public static class ShardedId extends DefaultId {
+
+        /**
+         * sequence分片位数, 分片数为2^laneBits, 需小于seqBits
+         * 默认:-1, 按CPU核数计算且不超过seqBits的一半
+         */
+        private int laneBits = -1;
+        /**
+         * 序列用尽或时钟回拨时最多可借用的未来秒数, 超过后等待时钟追上
+         */
+        private long maxBorrowSeconds = 5L;
+        /**
+         * 借用秒数超限时的最长等待时间, 单位:毫秒, 超时后抛出UidGenerateException异常
+         */
+        private long maxWaitMillis = 1000L;
+    }
+
     @Data
     public static class DefaultId {
 
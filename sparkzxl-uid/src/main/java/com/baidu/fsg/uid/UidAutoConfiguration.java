@@ -1,10 +1,22 @@
 package com.baidu.fsg.uid;
 
-import com.baidu.fsg.uid.worker.DisposableWorkerIdAssigner;
+import com.baidu.fsg.uid.properties.UidProperties;
+import com.baidu.fsg.uid.worker.LeasedWorkerIdAssigner;
 import com.baidu.fsg.uid.worker.WorkerIdAssigner;
+import com.baidu.fsg.uid.worker.lease.InMemoryWorkerIdLeaseStore;
+import com.baidu.fsg.uid.worker.lease.JdbcWorkerIdLeaseStore;
+import com.baidu.fsg.uid.worker.lease.RedisWorkerIdLeaseStore;
+import com.baidu.fsg.uid.worker.lease.WorkerIdLeaseStore;
+import com.baidu.fsg.uid.worker.lease.ZookeeperWorkerIdLeaseStore;
+import org.apache.curator.framework.CuratorFramework;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
  * description: 全局id自动配置
@@ -12,12 +24,61 @@ import org.springframework.context.annotation.Configuration;
  * @author zhouxinlei
  */
 @Configuration
+@EnableConfigurationProperties(UidProperties.class)
 public class UidAutoConfiguration {
 
+    private static final String WORKER_PREFIX = "uid.worker";
+
     @Bean
     @ConditionalOnMissingBean
-    public WorkerIdAssigner workerIdAssigner() {
-        return new DisposableWorkerIdAssigner((workerNodeEntity) -> {
-        });
+    public WorkerIdAssigner workerIdAssigner(WorkerIdLeaseStore workerIdLeaseStore, UidProperties uidProperties) {
+        UidProperties.WorkerProperties worker = uidProperties.getWorker();
+        return new LeasedWorkerIdAssigner(workerIdLeaseStore,
+                worker.getMaxWorkerId(),
+                worker.getLeaseTime().toMillis(),
+                worker.getHeartbeatInterval().toMillis());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = WORKER_PREFIX, name = "store", havingValue = "MEMORY", matchIfMissing = true)
+    public WorkerIdLeaseStore inMemoryWorkerIdLeaseStore() {
+        return new InMemoryWorkerIdLeaseStore();
+    }
+
+    @Configuration
+    @ConditionalOnClass(JdbcTemplate.class)
+    @ConditionalOnProperty(prefix = WORKER_PREFIX, name = "store", havingValue = "JDBC")
+    static class JdbcLeaseStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public WorkerIdLeaseStore jdbcWorkerIdLeaseStore(JdbcTemplate jdbcTemplate, UidProperties uidProperties) {
+            return new JdbcWorkerIdLeaseStore(jdbcTemplate, uidProperties.getWorker().getTableName());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(StringRedisTemplate.class)
+    @ConditionalOnProperty(prefix = WORKER_PREFIX, name = "store", havingValue = "REDIS")
+    static class RedisLeaseStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public WorkerIdLeaseStore redisWorkerIdLeaseStore(StringRedisTemplate stringRedisTemplate, UidProperties uidProperties) {
+            return new RedisWorkerIdLeaseStore(stringRedisTemplate, uidProperties.getWorker().getRedisKey());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(CuratorFramework.class)
+    @ConditionalOnProperty(prefix = WORKER_PREFIX, name = "store", havingValue = "ZOOKEEPER")
+    static class ZookeeperLeaseStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public WorkerIdLeaseStore zookeeperWorkerIdLeaseStore(CuratorFramework curatorFramework, UidProperties uidProperties) {
+            return new ZookeeperWorkerIdLeaseStore(curatorFramework, uidProperties.getWorker().getZookeeperPath());
+        }
     }
 }
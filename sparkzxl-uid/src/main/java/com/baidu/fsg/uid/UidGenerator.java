@@ -32,6 +32,31 @@ public interface UidGenerator {
      */
     long getUid() throws UidGenerateException;
 
+    /**
+     * Get unique IDs in batch
+     *
+     * @param size count of UIDs
+     * @return UIDs
+     * @throws UidGenerateException uid异常
+     */
+    default long[] getUids(int size) throws UidGenerateException {
+        long[] uids = new long[size];
+        fillUids(uids);
+        return uids;
+    }
+
+    /**
+     * Fill the array with unique IDs, implementations may override it to claim UIDs in batch
+     *
+     * @param uids array to fill
+     * @throws UidGenerateException uid异常
+     */
+    default void fillUids(long[] uids) throws UidGenerateException {
+        for (int i = 0; i < uids.length; i++) {
+            uids[i] = getUid();
+        }
+    }
+
     /**
      * Parse the UID into elements which are used to generate the UID. <br>
      * Such as timestamp & workerId & sequence...
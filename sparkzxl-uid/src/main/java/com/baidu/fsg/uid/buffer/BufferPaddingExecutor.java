@@ -26,7 +26,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents an executor for padding {@link RingBuffer}<br>
@@ -46,14 +46,16 @@ public class BufferPaddingExecutor {
      * 5 minutes
      */
     private static final long DEFAULT_SCHEDULE_INTERVAL = 5 * 60L;
+    private static final int DEFAULT_PADDING_PARALLELISM = 1;
 
     /**
-     * Whether buffer padding is running
+     * Count of running buffer padding
      */
-    private final AtomicBoolean running;
+    private final AtomicInteger running;
 
     /**
-     * We can borrow UIDs from the future, here store the last second we have consumed
+     * We can borrow UIDs from the future, here store the last second we have consumed, the seconds already
+     * passed are skipped since the worker id may be used by another node before
      */
     private final PaddedAtomicLong lastSecond;
 
@@ -77,6 +79,11 @@ public class BufferPaddingExecutor {
      */
     private long scheduleInterval = DEFAULT_SCHEDULE_INTERVAL;
 
+    /**
+     * Max count of padding in parallel, each padding fills the UIDs of one second at a time
+     */
+    private int paddingParallelism = DEFAULT_PADDING_PARALLELISM;
+
     /**
      * Constructor with {@link RingBuffer} and {@link BufferedUidProvider}, default use schedule
      *
@@ -96,7 +103,7 @@ public class BufferPaddingExecutor {
      */
     @SuppressWarnings("AlibabaThreadPoolCreation")
     public BufferPaddingExecutor(final RingBuffer ringBuffer, final BufferedUidProvider uidProvider, final boolean usingSchedule) {
-        this.running = new AtomicBoolean(false);
+        this.running = new AtomicInteger(0);
         this.lastSecond = new PaddedAtomicLong(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
         this.ringBuffer = ringBuffer;
         this.uidProvider = uidProvider;
@@ -141,7 +148,7 @@ public class BufferPaddingExecutor {
      * @return boolean
      */
     public boolean isRunning() {
-        return running.get();
+        return running.get() > 0;
     }
 
     /**
@@ -152,31 +159,41 @@ public class BufferPaddingExecutor {
     }
 
     /**
-     * Padding buffer fill the slots until to catch the cursor
+     * Padding buffer fill the slots until to catch the cursor<br>
+     * Puts are lock free, so up to {@link #paddingParallelism} paddings can fill the buffer in parallel,
+     * each one borrows a distinct second from {@link #lastSecond}
      */
     public void paddingBuffer() {
         LOGGER.info("Ready to padding buffer lastSecond:{}. {}", lastSecond.get(), ringBuffer);
 
-        // is still running
-        if (!running.compareAndSet(false, true)) {
-            LOGGER.info("Padding buffer is still running. {}", ringBuffer);
-            return;
-        }
-
-        // fill the rest slots until to catch the cursor
-        boolean isFullRingBuffer = false;
-        while (!isFullRingBuffer) {
-            List<Long> uidList = uidProvider.provide(lastSecond.incrementAndGet());
-            for (Long uid : uidList) {
-                isFullRingBuffer = !ringBuffer.put(uid);
-                if (isFullRingBuffer) {
+        // reach the max parallelism
+        int current;
+        do {
+            current = running.get();
+            if (current >= paddingParallelism) {
+                LOGGER.info("Padding buffer is still running. {}", ringBuffer);
+                return;
+            }
+        } while (!running.compareAndSet(current, current + 1));
+
+        try {
+            // fill the rest slots until to catch the cursor
+            boolean isFullRingBuffer = false;
+            while (!isFullRingBuffer) {
+                long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+                long paddingSecond = lastSecond.updateAndGet(last -> Math.max(last + 1, currentSecond));
+                List<Long> uidList = uidProvider.provide(paddingSecond);
+                if (uidList.isEmpty()) {
+                    // the second can not be issued now, give it back and retry on the next padding
+                    lastSecond.compareAndSet(paddingSecond, paddingSecond - 1);
                     break;
                 }
+                isFullRingBuffer = ringBuffer.put(uidList) < uidList.size();
             }
+        } finally {
+            // not running now
+            running.decrementAndGet();
         }
-
-        // not running now
-        running.compareAndSet(true, false);
         LOGGER.info("End to padding buffer lastSecond:{}. {}", lastSecond.get(), ringBuffer);
     }
 
@@ -188,4 +205,9 @@ public class BufferPaddingExecutor {
         this.scheduleInterval = scheduleInterval;
     }
 
+    public void setPaddingParallelism(final int paddingParallelism) {
+        Assert.isTrue(paddingParallelism > 0, "Padding parallelism must positive!");
+        this.paddingParallelism = paddingParallelism;
+    }
+
 }
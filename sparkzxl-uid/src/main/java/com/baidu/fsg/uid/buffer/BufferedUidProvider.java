@@ -29,7 +29,7 @@ public interface BufferedUidProvider {
      * Provides UID in one second
      *
      * @param momentInSecond momentInSecond
-     * @return 1秒类提供的UID
+     * @return 1秒类提供的UID，为空表示该秒暂不可发放
      */
     List<Long> provide(long momentInSecond);
 }
@@ -20,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -29,9 +30,14 @@ import java.util.concurrent.atomic.AtomicLong;
  * <p>
  * A ring buffer is consisted of:
  * <li><b>slots:</b> each element of the array is a slot, which is be set with a UID
- * <li><b>flags:</b> flag array corresponding the same index with the slots, indicates whether can take or put slot
- * <li><b>tail:</b> a sequence of the max slot position to produce
+ * <li><b>flags:</b> flag array corresponding the same index with the slots, holds the sequence published into the slot,
+ * or {@link #CAN_PUT_FLAG} if the slot can be put
+ * <li><b>claimed:</b> a sequence of the max slot position claimed by producers
+ * <li><b>tail:</b> a sequence of the max slot position to produce, all slots before it are published
  * <li><b>cursor:</b> a sequence of the min slot position to consume
+ * <p>
+ * Both put and take are lock free: producers claim a range of slots with one CAS on 'claimed' and publish
+ * them by advancing 'tail' over contiguous published slots, consumers claim a range with one CAS on 'cursor'
  *
  * @author yutianbao
  */
@@ -42,8 +48,7 @@ public class RingBuffer {
      * Constants
      */
     private static final int START_POINT = -1;
-    private static final long CAN_PUT_FLAG = 0L;
-    private static final long CAN_TAKE_FLAG = 1L;
+    private static final long CAN_PUT_FLAG = -1L;
     /**
      * The size of RingBuffer's slots, each slot hold a UID
      */
@@ -52,6 +57,11 @@ public class RingBuffer {
     private final long[] slots;
     private final PaddedAtomicLong[] flags;
 
+    /**
+     * Claimed: last position sequence claimed by producers
+     */
+    private final AtomicLong claimed = new PaddedAtomicLong(START_POINT);
+
     /**
      * Tail: last position sequence to produce
      */
@@ -111,42 +121,56 @@ public class RingBuffer {
 
     /**
      * Put an UID in the ring & tail moved<br>
-     * We use 'synchronized' to guarantee the UID fill in slot & publish new tail sequence as atomic operations<br>
-     *
-     * <b>Note that: </b> It is recommended to put UID in a serialize way, cause we once batch generate a series UIDs and put
-     * the one by one into the buffer, so it is unnecessary put in multi-threads
+     * This is a lock free operation, multiple producers can put in parallel
      *
      * @param uid
      * @return false means that the buffer is full, apply {@link RejectedPutBufferHandler}
      */
-    public synchronized boolean put(long uid) {
-        long currentTail = tail.get();
-        long currentCursor = cursor.get();
-
-        // tail catches the cursor, means that you can't put any cause of RingBuffer is full
-        long distance = currentTail - (currentCursor == START_POINT ? 0 : currentCursor);
-        if (distance == bufferSize - 1) {
-            rejectedPutHandler.rejectPutBuffer(this, uid);
-            return false;
-        }
+    public boolean put(long uid) {
+        long current;
+        do {
+            current = claimed.get();
+            // tail catches the cursor, means that you can't put any cause of RingBuffer is full
+            if (availableToPut(current) <= 0) {
+                rejectedPutHandler.rejectPutBuffer(this, uid);
+                return false;
+            }
+        } while (!claimed.compareAndSet(current, current + 1));
+
+        publish(current + 1, uid);
+        publishTail();
+        return true;
+    }
 
-        // 1. pre-check whether the flag is CAN_PUT_FLAG
-        int nextTailIndex = calSlotIndex(currentTail + 1);
-        if (flags[nextTailIndex].get() != CAN_PUT_FLAG) {
-            rejectedPutHandler.rejectPutBuffer(this, uid);
-            return false;
+    /**
+     * Put UIDs in the ring & tail moved, claims the slots with one CAS<br>
+     * This is a lock free operation, multiple producers can put in parallel
+     *
+     * @param uidList UIDs to put
+     * @return count of UIDs put, less than the size of list means that the buffer is full,
+     * {@link RejectedPutBufferHandler} is applied to the first rejected UID
+     */
+    public int put(List<Long> uidList) {
+        int size = uidList.size();
+        int count = 0;
+        while (count < size) {
+            long current = claimed.get();
+            int available = availableToPut(current);
+            if (available <= 0) {
+                rejectedPutHandler.rejectPutBuffer(this, uidList.get(count));
+                break;
+            }
+
+            int claimCount = Math.min(available, size - count);
+            if (!claimed.compareAndSet(current, current + claimCount)) {
+                continue;
+            }
+            for (long sequence = current + 1; sequence <= current + claimCount; sequence++) {
+                publish(sequence, uidList.get(count++));
+            }
+            publishTail();
         }
-
-        // 2. put UID in the next slot
-        // 3. update next slot' flag to CAN_TAKE_FLAG
-        // 4. publish tail with sequence increase by one
-        slots[nextTailIndex] = uid;
-        flags[nextTailIndex].set(CAN_TAKE_FLAG);
-        tail.incrementAndGet();
-
-        // The atomicity of operations above, guarantees by 'synchronized'. In another word,
-        // the take operation can't consume the UID we just put, until the tail is published(tail.incrementAndGet())
-        return true;
+        return count;
     }
 
     /**
@@ -168,32 +192,105 @@ public class RingBuffer {
         Assert.isTrue(nextCursor >= currentCursor, "Curosr can't move back");
 
         // trigger padding in an async-mode if reach the threshold
-        long currentTail = tail.get();
-        if (currentTail - nextCursor < paddingThreshold) {
-            LOGGER.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold, currentTail,
-                    nextCursor, currentTail - nextCursor);
-            bufferPaddingExecutor.asyncPadding();
-        }
+        checkPaddingThreshold(nextCursor);
 
         // cursor catch the tail, means that there is no more available UID to take
         if (nextCursor == currentCursor) {
             rejectedTakeHandler.rejectTakeBuffer(this);
         }
 
-        // 1. check next slot flag is CAN_TAKE_FLAG
-        int nextCursorIndex = calSlotIndex(nextCursor);
-        Assert.isTrue(flags[nextCursorIndex].get() == CAN_TAKE_FLAG, "Curosr not in can take status");
+        return consume(nextCursor);
+    }
 
-        // 2. get UID from next slot
-        // 3. set next slot flag as CAN_PUT_FLAG.
-        long uid = slots[nextCursorIndex];
-        flags[nextCursorIndex].set(CAN_PUT_FLAG);
+    /**
+     * Take UIDs of the ring into the array, claims a contiguous range of slots with one CAS on cursor<p>
+     * <p>
+     * Unlike {@link #take()}, the {@link RejectedTakeBufferHandler} is not applied when the buffer is empty,
+     * the caller decides whether to wait for padding
+     *
+     * @param uids   array to fill
+     * @param offset start offset of the array
+     * @param length max count of UIDs to take
+     * @return count of UIDs taken, 0 means that there is no more available UID to take
+     */
+    public int take(long[] uids, int offset, int length) {
+        long currentCursor;
+        int count;
+        do {
+            currentCursor = cursor.get();
+            count = (int) Math.min(length, tail.get() - currentCursor);
+            if (count <= 0) {
+                checkPaddingThreshold(currentCursor);
+                return 0;
+            }
+        } while (!cursor.compareAndSet(currentCursor, currentCursor + count));
+
+        checkPaddingThreshold(currentCursor + count);
+
+        for (int i = 0; i < count; i++) {
+            uids[offset + i] = consume(currentCursor + 1 + i);
+        }
+        return count;
+    }
+
+    /**
+     * Get the UID of a claimed sequence and release the slot
+     */
+    private long consume(long sequence) {
+        // 1. check slot flag is the published sequence
+        int index = calSlotIndex(sequence);
+        Assert.isTrue(flags[index].get() == sequence, "Curosr not in can take status");
+
+        // 2. get UID from slot
+        // 3. set slot flag as CAN_PUT_FLAG.
+        long uid = slots[index];
+        flags[index].set(CAN_PUT_FLAG);
 
         // Note that: Step 2,3 can not swap. If we set flag before get value of slot, the producer may overwrite the
         // slot with a new UID, and this may cause the consumer take the UID twice after walk a round the ring
         return uid;
     }
 
+    /**
+     * Fill a claimed slot and publish its flag
+     */
+    private void publish(long sequence, long uid) {
+        int index = calSlotIndex(sequence);
+        // the consumer of the previous round may have moved cursor but not yet released the slot
+        while (flags[index].get() != CAN_PUT_FLAG) {
+            Thread.yield();
+        }
+
+        slots[index] = uid;
+        flags[index].set(sequence);
+    }
+
+    /**
+     * Move tail over the contiguous published slots, any producer can move it on behalf of the others
+     */
+    private void publishTail() {
+        long currentTail;
+        while (flags[calSlotIndex((currentTail = tail.get()) + 1)].get() == currentTail + 1) {
+            tail.compareAndSet(currentTail, currentTail + 1);
+        }
+    }
+
+    /**
+     * Count of slots can be claimed after the sequence
+     */
+    private int availableToPut(long claimedSequence) {
+        return (int) (bufferSize - (claimedSequence - cursor.get()));
+    }
+
+    private void checkPaddingThreshold(long nextCursor) {
+        long currentTail = tail.get();
+        if (currentTail - nextCursor < paddingThreshold) {
+            LOGGER.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold, currentTail,
+                    nextCursor, currentTail - nextCursor);
+            bufferPaddingExecutor.asyncPadding();
+        }
+    }
+
     /**
      * Calculate slot index with the slot sequence (sequence % bufferSize)
      */
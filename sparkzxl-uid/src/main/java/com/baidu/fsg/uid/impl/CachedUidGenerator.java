@@ -28,7 +28,10 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.util.Assert;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Represents a cached implementation of {@link UidGenerator} extends
@@ -42,6 +45,8 @@ import java.util.List;
  * threshold, it will trigger padding buffer. Default as{@link RingBuffer#DEFAULT_PADDING_PERCENT}
  * Sample: paddingFactor=20, bufferSize=1000 -> threshold=1000 * 20 /100, padding buffer will be triggered when tail-cursor<threshold
  * <li><b>scheduleInterval:</b> Padding buffer in a schedule, specify padding buffer interval, Unit as second
+ * <li><b>paddingParallelism:</b> Max count of padding in parallel. Default as 1, which keeps the cached UIDs monotonic;
+ * a greater value speeds up padding, but the UIDs padded in parallel are no longer taken in order
  * <li><b>rejectedPutBufferHandler:</b> Policy for rejected put buffer. Default as discard put request, just do logging
  * <li><b>rejectedTakeBufferHandler:</b> Policy for rejected take buffer. Default as throwing up an exception
  *
@@ -50,6 +55,8 @@ import java.util.List;
 public class CachedUidGenerator extends DefaultUidGenerator implements DisposableBean {
     private static final Logger LOGGER = LoggerFactory.getLogger(CachedUidGenerator.class);
     private static final int DEFAULT_BOOST_POWER = 3;
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
 
     /**
      * Spring properties
@@ -57,6 +64,7 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
     private int boostPower = DEFAULT_BOOST_POWER;
     private int paddingFactor = RingBuffer.DEFAULT_PADDING_PERCENT;
     private Long scheduleInterval;
+    private Integer paddingParallelism;
 
     private RejectedPutBufferHandler rejectedPutBufferHandler;
     private RejectedTakeBufferHandler rejectedTakeBufferHandler;
@@ -87,6 +95,46 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
         }
     }
 
+    /**
+     * Take UIDs from {@link RingBuffer} in contiguous ranges, when the buffer is empty, pad it in the
+     * current thread instead of applying {@link RejectedTakeBufferHandler}
+     *
+     * @param uids array to fill
+     */
+    @Override
+    public void fillUids(long[] uids) {
+        try {
+            int filled = 0;
+            long backoffNanos = MIN_BACKOFF_NANOS;
+            while (filled < uids.length) {
+                int count = ringBuffer.take(uids, filled, uids.length - filled);
+                if (count == 0) {
+                    if (!isIssuable(getCurrentSecond())) {
+                        throw new UidGenerateException("Worker id %d is not owned now. Refusing to generate uid", workerId);
+                    }
+                    bufferPaddingExecutor.paddingBuffer();
+                    if (ringBuffer.getTail() == ringBuffer.getCursor()) {
+                        // Wait for the padding with backoff instead of spinning
+                        LockSupport.parkNanos(backoffNanos);
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new UidGenerateException("Interrupted while waiting for padding buffer");
+                        }
+                        backoffNanos = Math.min(backoffNanos << 1, MAX_BACKOFF_NANOS);
+                    }
+                } else {
+                    backoffNanos = MIN_BACKOFF_NANOS;
+                }
+                filled += count;
+            }
+        } catch (UidGenerateException e) {
+            LOGGER.error("Generate unique ids exception. ", e);
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("Generate unique ids exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
     @Override
     public void destroy() throws Exception {
         bufferPaddingExecutor.shutdown();
@@ -96,9 +144,14 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
      * Get the UIDs in the same specified second under the max sequence
      *
      * @param currentSecond 当前秒数
-     * @return UID list, size of {@link BitsAllocator#getMaxSequence()} + 1
+     * @return UID list, size of {@link BitsAllocator#getMaxSequence()} + 1, empty if the worker id is not owned at the second
      */
     protected List<Long> nextIdsForOneSecond(long currentSecond) {
+        if (!isIssuable(currentSecond)) {
+            LOGGER.warn("Worker id {} is not owned at second {}, stop padding buffer", workerId, currentSecond);
+            return Collections.emptyList();
+        }
+
         // Initialize result list size of (max sequence + 1)
         int listSize = (int) bitsAllocator.getMaxSequence() + 1;
         List<Long> uidList = new ArrayList<>(listSize);
@@ -127,6 +180,9 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
         if (usingSchedule) {
             bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
         }
+        if (paddingParallelism != null) {
+            bufferPaddingExecutor.setPaddingParallelism(paddingParallelism);
+        }
 
         LOGGER.info("Initialized BufferPaddingExecutor. Using schdule:{}, interval:{}", usingSchedule, scheduleInterval);
 
@@ -166,4 +222,8 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
         this.scheduleInterval = scheduleInterval;
     }
 
+    public void setPaddingParallelism(final Integer paddingParallelism) {
+        this.paddingParallelism = paddingParallelism;
+    }
+
 }
@@ -95,7 +95,7 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
         bitsAllocator = new BitsAllocator(timeBits, workerBits, seqBits);
 
         // initialize worker id
-        workerId = workerIdAssigner.assignWorkerId();
+        workerId = workerIdAssigner.assignWorkerId(bitsAllocator.getMaxWorkerId());
         if (workerId > bitsAllocator.getMaxWorkerId()) {
             throw new RuntimeException("Worker id " + workerId + " exceeds the max " + bitsAllocator.getMaxWorkerId());
         }
@@ -113,6 +113,20 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
         }
     }
 
+    @Override
+    public void fillUids(long[] uids) throws UidGenerateException {
+        try {
+            synchronized (this) {
+                for (int i = 0; i < uids.length; i++) {
+                    uids[i] = nextId();
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("Generate unique ids exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
     @Override
     public String parseUid(long uid) {
         long totalBits = BitsAllocator.TOTAL_BITS;
@@ -138,7 +152,7 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
      * Get UID
      *
      * @return UID
-     * @throws UidGenerateException in the case: Clock moved backwards; Exceeds the max timestamp
+     * @throws UidGenerateException in the case: Clock moved backwards; Exceeds the max timestamp; Worker id is not owned
      */
     protected synchronized long nextId() {
         long currentSecond = getCurrentSecond();
@@ -165,6 +179,11 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
             sequence = 0L;
         }
 
+        // Worker id lease is lost, another node may generate the same uid
+        if (!isIssuable(currentSecond)) {
+            throw new UidGenerateException("Worker id %d is not owned at second %d. Refusing to generate uid", workerId, currentSecond);
+        }
+
         lastSecond = currentSecond;
 
         // Allocate bits for UID
@@ -183,10 +202,17 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
         return timestamp;
     }
 
+    /**
+     * Whether the assigned worker id is owned at the specified second
+     */
+    boolean isIssuable(long second) {
+        return workerIdAssigner.isIssuable(second);
+    }
+
     /**
      * Get current second
      */
-    private long getCurrentSecond() {
+    long getCurrentSecond() {
         long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
         if (currentSecond - epochSeconds > bitsAllocator.getMaxDeltaSeconds()) {
             throw new UidGenerateException("Timestamp bits is exhausted. Refusing UID generate. Now: " + currentSecond);
@@ -0,0 +1,158 @@
+package com.baidu.fsg.uid.impl;
+
+import com.baidu.fsg.uid.UidGenerator;
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.util.PaddedAtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * description: 分片无锁的 {@link UidGenerator} 实现
+ * <p>
+ * sequence 的低 laneBits 位为分片号，高位为分片内的序列，各线程按线程id落到不同分片，
+ * 每个分片的(秒, 序列)状态保存在一个 {@link PaddedAtomicLong} 中通过CAS推进，去掉了 {@link DefaultUidGenerator} 的全局锁。
+ * <p>
+ * 分片内序列用尽时借用未来的秒，时钟回拨时继续使用分片最后的秒并借用后续的秒，
+ * 只有借用的秒数超过 maxBorrowSeconds 时才等待时钟追上，等待超过 maxWaitMillis 后抛出 {@link UidGenerateException}
+ *
+ * <pre>{@code
+ * +------+----------------------+----------------+--------------------------+
+ * | sign |     delta seconds    | worker node id | lane sequence |   lane   |
+ * +------+----------------------+----------------+--------------------------+
+ * }</pre>
+ *
+ * @author zhouxinlei
+ */
+public class ShardedUidGenerator extends DefaultUidGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedUidGenerator.class);
+    private static final long NO_SECOND = -1L;
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Spring properties
+     */
+    private int laneBits = -1;
+    private long maxBorrowSeconds = 5L;
+    private long maxWaitMillis = 1000L;
+
+    /**
+     * Stable fields after spring bean initializing
+     */
+    private int counterBits;
+    private long maxCounter;
+    private long laneMask;
+    private PaddedAtomicLong[] lanes;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        super.afterPropertiesSet();
+
+        int seqBits = bitsAllocator.getSequenceBits();
+        if (laneBits < 0) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            laneBits = Math.min(32 - Integer.numberOfLeadingZeros(cores - 1), seqBits / 2);
+        }
+        Assert.isTrue(laneBits < seqBits, "Lane bits must be less than sequence bits");
+
+        this.counterBits = seqBits - laneBits;
+        this.maxCounter = ~(-1L << counterBits);
+        this.laneMask = ~(-1L << laneBits);
+        this.lanes = new PaddedAtomicLong[1 << laneBits];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new PaddedAtomicLong(NO_SECOND);
+        }
+        LOGGER.info("Initialized {} lanes, {} sequences per lane, maxBorrowSeconds:{}, maxWaitMillis:{}",
+                lanes.length, maxCounter + 1, maxBorrowSeconds, maxWaitMillis);
+    }
+
+    @Override
+    public void fillUids(long[] uids) throws UidGenerateException {
+        try {
+            for (int i = 0; i < uids.length; i++) {
+                uids[i] = nextId();
+            }
+        } catch (UidGenerateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UidGenerateException(e);
+        }
+    }
+
+    /**
+     * Get UID from the lane of current thread, lock free
+     *
+     * @return UID
+     * @throws UidGenerateException in the case: Borrowed seconds exceed the tolerance; Exceeds the max timestamp; Worker id is not owned
+     */
+    @Override
+    protected long nextId() {
+        long lane = Thread.currentThread().getId() & laneMask;
+        PaddedAtomicLong laneState = lanes[(int) lane];
+        long waitDeadline = 0L;
+        while (true) {
+            long currentSecond = getCurrentSecond() - epochSeconds;
+            long state = laneState.get();
+            long lastSecond = state == NO_SECOND ? NO_SECOND : state >>> counterBits;
+
+            long second;
+            long counter;
+            if (currentSecond > lastSecond) {
+                second = currentSecond;
+                counter = 0L;
+            } else {
+                // same second or clock moved backwards, keep increasing on the last second of the lane
+                second = lastSecond;
+                counter = (state & maxCounter) + 1;
+                if (counter > maxCounter) {
+                    second = lastSecond + 1;
+                    counter = 0L;
+                }
+                // borrowed too many seconds from the future, wait the clock to catch up
+                long borrowedSeconds = second - currentSecond;
+                if (borrowedSeconds > maxBorrowSeconds) {
+                    long now = System.nanoTime();
+                    if (waitDeadline == 0L) {
+                        waitDeadline = now + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                    } else if (now - waitDeadline > 0) {
+                        throw new UidGenerateException("Clock moved backwards or sequence exhausted. Borrowed %d seconds, exceeds the max %d",
+                                borrowedSeconds, maxBorrowSeconds);
+                    }
+                    LockSupport.parkNanos(WAIT_NANOS);
+                    continue;
+                }
+                if (second > bitsAllocator.getMaxDeltaSeconds()) {
+                    throw new UidGenerateException("Timestamp bits is exhausted. Refusing UID generate. Delta seconds: " + second);
+                }
+            }
+
+            if (!isIssuable(second + epochSeconds)) {
+                throw new UidGenerateException("Worker id %d is not owned at second %d. Refusing to generate uid", workerId, second + epochSeconds);
+            }
+            if (laneState.compareAndSet(state, (second << counterBits) | counter)) {
+                return bitsAllocator.allocate(second, workerId, (counter << laneBits) | lane);
+            }
+        }
+    }
+
+    /**
+     * Setters for spring property
+     */
+    public void setLaneBits(int laneBits) {
+        this.laneBits = laneBits;
+    }
+
+    public void setMaxBorrowSeconds(long maxBorrowSeconds) {
+        Assert.isTrue(maxBorrowSeconds >= 0, "Max borrow seconds must not be negative!");
+        this.maxBorrowSeconds = maxBorrowSeconds;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        Assert.isTrue(maxWaitMillis >= 0, "Max wait millis must not be negative!");
+        this.maxWaitMillis = maxWaitMillis;
+    }
+}
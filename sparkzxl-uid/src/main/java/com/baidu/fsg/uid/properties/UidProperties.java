@@ -0,0 +1,93 @@
+package com.baidu.fsg.uid.properties;
+
+import com.github.sparkzxl.constant.ConfigurationConstant;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * description: 全局id配置
+ *
+ * @author zhouxinlei
+ */
+@Data
+@ConfigurationProperties(prefix = ConfigurationConstant.UID_PREFIX)
+public class UidProperties {
+
+    /**
+     * worker id 分配配置
+     */
+    private WorkerProperties worker = new WorkerProperties();
+
+    /**
+     * description: worker id 分配配置
+     *
+     * @author zhouxinlei
+     */
+    @Getter
+    @Setter
+    public static class WorkerProperties {
+
+        /**
+         * 租约存储方式
+         */
+        private LeaseStoreType store = LeaseStoreType.MEMORY;
+
+        /**
+         * 最大 worker id，实际取值不超过id生成器 workerBits 可表示的最大值
+         */
+        private long maxWorkerId = Long.MAX_VALUE;
+
+        /**
+         * 租约时长，超过该时长未续约的 worker id 可被其他节点复用
+         */
+        private Duration leaseTime = Duration.ofMinutes(1);
+
+        /**
+         * 心跳续约间隔，需小于租约时长
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+        /**
+         * 数据库租约表名
+         */
+        private String tableName = "worker_id_lease";
+
+        /**
+         * redis租约key
+         */
+        private String redisKey = "uid:worker:lease";
+
+        /**
+         * zookeeper租约节点路径
+         */
+        private String zookeeperPath = "/uid/worker";
+    }
+
+    /**
+     * description: worker id 租约存储方式
+     *
+     * @author zhouxinlei
+     */
+    public enum LeaseStoreType {
+        /**
+         * 内存，仅单机有效
+         */
+        MEMORY,
+        /**
+         * 数据库
+         */
+        JDBC,
+        /**
+         * redis
+         */
+        REDIS,
+        /**
+         * zookeeper
+         */
+        ZOOKEEPER
+    }
+}
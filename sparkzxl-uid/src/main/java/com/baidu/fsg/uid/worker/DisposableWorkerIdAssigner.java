@@ -66,7 +66,7 @@ public class DisposableWorkerIdAssigner implements WorkerIdAssigner {
     /**
      * Build worker node entity by IP and PORT
      */
-    private WorkerNodeEntity buildWorkerNode() {
+    static WorkerNodeEntity buildWorkerNode() {
         WorkerNodeEntity workerNodeEntity = new WorkerNodeEntity();
         if (DockerUtils.isDocker()) {
             workerNodeEntity.setType(WorkerNodeType.CONTAINER.value());
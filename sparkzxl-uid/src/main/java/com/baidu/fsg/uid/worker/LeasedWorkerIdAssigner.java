@@ -0,0 +1,191 @@
+package com.baidu.fsg.uid.worker;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.util.NamingThreadFactory;
+import com.baidu.fsg.uid.worker.entity.WorkerNodeEntity;
+import com.baidu.fsg.uid.worker.lease.WorkerIdLeaseStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * description: 基于租约的 worker id 分配器
+ * <p>
+ * 从 {@link WorkerIdLeaseStore} 租用 worker id 并定期心跳续约，应用关闭时释放租约，
+ * 异常退出的节点租约过期后 worker id 可被复用，因此 workerBits 只需覆盖同时存活的节点数。
+ * <p>
+ * 只允许生成租约有效期内的秒数的UID，续约失败、租约到期或存储通知租约丢失后拒绝生成；租约中断后重新占用时，
+ * 只允许生成重新占用之后的秒数。关闭时已发放（含借用的未来秒数）的秒数很快过去则等待后释放租约，
+ * 否则保留租约等待其自然过期，发放的秒数不会超过租约到期时间，避免与下一个持有者重复且不阻塞应用关闭
+ *
+ * @author zhouxinlei
+ */
+public class LeasedWorkerIdAssigner implements WorkerIdAssigner, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeasedWorkerIdAssigner.class);
+    private static final String HEARTBEAT_NAME = "WorkerId-Lease-Heartbeat";
+    /**
+     * 关闭时为释放租约最多等待的时间，单位：毫秒
+     */
+    private static final long MAX_RELEASE_WAIT_MILLIS = 1000L;
+
+    private final WorkerIdLeaseStore leaseStore;
+    private final long maxWorkerId;
+    private final long leaseMillis;
+    private final long heartbeatMillis;
+
+    private WorkerNodeEntity workerNode;
+    private String owner;
+    private ScheduledExecutorService heartbeatExecutor;
+    /**
+     * 本地可信任的租约时长，单位：毫秒
+     */
+    private long localLeaseMillis;
+    /**
+     * 租约到期时间，单位：毫秒，0表示租约已丢失
+     */
+    private volatile long leaseDeadline;
+    /**
+     * 允许生成UID的最小秒数
+     */
+    private volatile long validFromSecond;
+    /**
+     * 已发放的最大秒数
+     */
+    private final AtomicLong issuedSecond = new AtomicLong(-1L);
+
+    /**
+     * @param leaseStore      租约存储
+     * @param maxWorkerId     未指定时使用的最大 worker id
+     * @param leaseMillis     租约时长，单位：毫秒
+     * @param heartbeatMillis 心跳续约间隔，单位：毫秒，需小于租约时长
+     */
+    public LeasedWorkerIdAssigner(WorkerIdLeaseStore leaseStore, long maxWorkerId, long leaseMillis, long heartbeatMillis) {
+        Assert.isTrue(heartbeatMillis > 0 && heartbeatMillis < leaseMillis, "Heartbeat interval must be positive and less than lease time");
+        this.leaseStore = leaseStore;
+        this.maxWorkerId = maxWorkerId;
+        this.leaseMillis = leaseMillis;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    @Override
+    public long assignWorkerId() {
+        return assignWorkerId(maxWorkerId);
+    }
+
+    @Override
+    public synchronized long assignWorkerId(long maxWorkerId) {
+        if (workerNode != null) {
+            return workerNode.getId();
+        }
+        WorkerNodeEntity workerNodeEntity = DisposableWorkerIdAssigner.buildWorkerNode();
+        String leaseOwner = workerNodeEntity.getHostName() + ":" + workerNodeEntity.getPort();
+        long acquireTime = System.currentTimeMillis();
+        long workerId = leaseStore.acquire(leaseOwner, Math.min(maxWorkerId, this.maxWorkerId), leaseMillis);
+        if (workerId < 0) {
+            throw new UidGenerateException("No free worker id under %d, all of them are leased", Math.min(maxWorkerId, this.maxWorkerId));
+        }
+        workerNodeEntity.setId(workerId);
+        this.workerNode = workerNodeEntity;
+        this.owner = leaseOwner;
+        this.validFromSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        this.localLeaseMillis = leaseStore.leaseMillis(leaseMillis);
+        this.leaseDeadline = acquireTime + localLeaseMillis;
+        leaseStore.addLeaseLostListener(this::onLeaseLost);
+
+        long interval = heartbeatMillis < localLeaseMillis ? heartbeatMillis : Math.max(localLeaseMillis / 3, 1L);
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(HEARTBEAT_NAME, true));
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.info("Leased worker node:" + workerNodeEntity);
+        return workerId;
+    }
+
+    /**
+     * Renew the lease, a lost lease means another node may generate the same UIDs, so UID generation
+     * is refused until the lease is recovered
+     */
+    private void heartbeat() {
+        try {
+            long renewTime = System.currentTimeMillis();
+            boolean renewed = leaseStore.renew(workerNode.getId(), owner, leaseMillis);
+            if (!renewed) {
+                leaseDeadline = 0L;
+                LOGGER.error("Worker id {} lease lost, it has been taken by another node, refusing to generate uid", workerNode.getId());
+                return;
+            }
+            if (renewTime >= leaseDeadline) {
+                // 租约中断期间该id可能被其他节点使用过，只允许生成重新占用之后的秒数
+                validFromSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+                LOGGER.info("Worker id {} lease recovered", workerNode.getId());
+            }
+            leaseDeadline = renewTime + localLeaseMillis;
+        } catch (Exception e) {
+            LOGGER.warn("Renew worker id {} lease error: {}", workerNode.getId(), e.getMessage());
+        }
+    }
+
+    private void onLeaseLost() {
+        leaseDeadline = 0L;
+        LOGGER.warn("Worker id {} lease may be lost, refusing to generate uid until it is renewed", workerNode.getId());
+    }
+
+    @Override
+    public boolean isIssuable(long second) {
+        long deadline = leaseDeadline;
+        if (second < validFromSecond || TimeUnit.SECONDS.toMillis(second + 1) > deadline) {
+            return false;
+        }
+        if (second > issuedSecond.get()) {
+            issuedSecond.accumulateAndGet(second, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * Whether the lease of the assigned worker id is held by this node
+     *
+     * @return boolean
+     */
+    public boolean isLeaseValid() {
+        return System.currentTimeMillis() < leaseDeadline;
+    }
+
+    public WorkerNodeEntity getWorkerNode() {
+        return workerNode;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        if (workerNode != null && isLeaseValid()) {
+            leaseDeadline = 0L;
+            try {
+                // 等待已发放的秒数过去再释放，否则立即占用该id的节点可能生成相同的UID；
+                // 借用了较多未来秒数时不再等待，保留租约到期，已发放的秒数都在租约到期时间之前
+                long waitMillis = TimeUnit.SECONDS.toMillis(issuedSecond.get() + 1) - System.currentTimeMillis();
+                if (waitMillis > MAX_RELEASE_WAIT_MILLIS) {
+                    LOGGER.info("Worker id {} has issued seconds up to {}, leave the lease to expire", workerNode.getId(), issuedSecond.get());
+                    return;
+                }
+                if (waitMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(waitMillis);
+                }
+                leaseStore.release(workerNode.getId(), owner);
+                LOGGER.info("Released worker node:" + workerNode);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Interrupted before releasing worker id {} lease, leave it to expire", workerNode.getId());
+            } catch (Exception e) {
+                LOGGER.warn("Release worker id {} lease error: {}", workerNode.getId(), e.getMessage());
+            }
+        }
+    }
+}
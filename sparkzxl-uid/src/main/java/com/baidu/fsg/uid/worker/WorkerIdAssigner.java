@@ -29,4 +29,25 @@ public interface WorkerIdAssigner {
      */
     long assignWorkerId();
 
+    /**
+     * Assign worker id not greater than the max worker id of the bits allocator
+     *
+     * @param maxWorkerId max worker id
+     * @return assigned worker id
+     */
+    default long assignWorkerId(long maxWorkerId) {
+        return assignWorkerId();
+    }
+
+    /**
+     * Whether UIDs of the specified second can be generated with the assigned worker id. A leased worker id
+     * may be taken over by another node once its lease is lost or expired, so the seconds out of the lease are refused
+     *
+     * @param second epoch second of the UIDs
+     * @return true if the worker id is owned at that second
+     */
+    default boolean isIssuable(long second) {
+        return true;
+    }
+
 }
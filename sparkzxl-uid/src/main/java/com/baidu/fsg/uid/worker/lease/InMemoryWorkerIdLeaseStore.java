@@ -0,0 +1,63 @@
+package com.baidu.fsg.uid.worker.lease;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * description: 基于内存的 worker id 租约存储，仅在单个JVM内有效，适用于单机部署及测试
+ * <p>
+ * 各JVM之间无法协调，因此从随机位置开始分配，避免多个实例都从0开始使用相同的 worker id，
+ * 多实例部署时仍可能冲突，需使用 JDBC、Redis 或 Zookeeper 存储
+ *
+ * @author zhouxinlei
+ */
+public class InMemoryWorkerIdLeaseStore implements WorkerIdLeaseStore {
+
+    private final Map<Long, Lease> leases = new HashMap<>();
+
+    @Override
+    public synchronized long acquire(String owner, long maxWorkerId, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        long start = maxWorkerId > 0 ? ThreadLocalRandom.current().nextLong(maxWorkerId) : 0L;
+        for (long i = 0; i <= maxWorkerId; i++) {
+            long workerId = i <= maxWorkerId - start ? start + i : i - (maxWorkerId - start) - 1;
+            Lease lease = leases.get(workerId);
+            if (lease == null || lease.expireTime < now) {
+                leases.put(workerId, new Lease(owner, now + leaseMillis));
+                return workerId;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized boolean renew(long workerId, String owner, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.get(workerId);
+        if (lease != null && !lease.owner.equals(owner) && lease.expireTime >= now) {
+            return false;
+        }
+        leases.put(workerId, new Lease(owner, now + leaseMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(long workerId, String owner) {
+        Lease lease = leases.get(workerId);
+        if (lease != null && lease.owner.equals(owner)) {
+            leases.remove(workerId);
+        }
+    }
+
+    private static final class Lease {
+
+        private final String owner;
+        private final long expireTime;
+
+        private Lease(String owner, long expireTime) {
+            this.owner = owner;
+            this.expireTime = expireTime;
+        }
+    }
+}
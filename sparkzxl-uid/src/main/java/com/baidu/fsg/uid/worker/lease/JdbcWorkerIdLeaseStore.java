@@ -0,0 +1,86 @@
+package com.baidu.fsg.uid.worker.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * description: 基于数据库的 worker id 租约存储
+ * <p>
+ * 表结构如下，表名可配置：
+ * <pre>{@code
+ * CREATE TABLE worker_id_lease (
+ *     worker_id   BIGINT       NOT NULL PRIMARY KEY,
+ *     owner       VARCHAR(128) NOT NULL,
+ *     expire_time BIGINT       NOT NULL
+ * );
+ * }</pre>
+ * 租约到期时间使用应用节点时间，各节点时钟偏差需远小于租约时长
+ *
+ * @author zhouxinlei
+ */
+public class JdbcWorkerIdLeaseStore implements WorkerIdLeaseStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcWorkerIdLeaseStore.class);
+    private static final int MAX_RETRY_TIMES = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String selectExpiredSql;
+    private final String selectMaxSql;
+    private final String insertSql;
+    private final String takeOverSql;
+    private final String releaseSql;
+
+    public JdbcWorkerIdLeaseStore(JdbcTemplate jdbcTemplate, String tableName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.selectExpiredSql = "SELECT worker_id FROM " + tableName + " WHERE expire_time < ? AND worker_id <= ? ORDER BY worker_id";
+        this.selectMaxSql = "SELECT MAX(worker_id) FROM " + tableName;
+        this.insertSql = "INSERT INTO " + tableName + " (worker_id, owner, expire_time) VALUES (?, ?, ?)";
+        this.takeOverSql = "UPDATE " + tableName + " SET owner = ?, expire_time = ? WHERE worker_id = ? AND (owner = ? OR expire_time < ?)";
+        this.releaseSql = "UPDATE " + tableName + " SET expire_time = 0 WHERE worker_id = ? AND owner = ?";
+    }
+
+    @Override
+    public long acquire(String owner, long maxWorkerId, long leaseMillis) {
+        for (int i = 0; i < MAX_RETRY_TIMES; i++) {
+            long now = System.currentTimeMillis();
+            // 1. 复用租约已过期的id，条件更新保证只有一个节点能占用
+            List<Long> expiredIds = jdbcTemplate.queryForList(selectExpiredSql, Long.class, now, maxWorkerId);
+            for (Long workerId : expiredIds) {
+                if (jdbcTemplate.update(takeOverSql, owner, now + leaseMillis, workerId, owner, now) > 0) {
+                    return workerId;
+                }
+            }
+            // 2. 分配新的id，主键冲突说明被其他节点抢占，重试
+            Long maxId = jdbcTemplate.queryForObject(selectMaxSql, Long.class);
+            long workerId = maxId == null ? 0 : maxId + 1;
+            if (workerId > maxWorkerId) {
+                if (expiredIds.isEmpty()) {
+                    return -1;
+                }
+                continue;
+            }
+            try {
+                jdbcTemplate.update(insertSql, workerId, owner, now + leaseMillis);
+                return workerId;
+            } catch (DuplicateKeyException e) {
+                LOGGER.debug("Worker id {} has been taken by another node, retry", workerId);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean renew(long workerId, String owner, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        return jdbcTemplate.update(takeOverSql, owner, now + leaseMillis, workerId, owner, now) > 0;
+    }
+
+    @Override
+    public void release(long workerId, String owner) {
+        jdbcTemplate.update(releaseSql, workerId, owner);
+    }
+}
@@ -0,0 +1,136 @@
+package com.baidu.fsg.uid.worker.lease;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * description: 基于Redis的 worker id 租约存储
+ * <p>
+ * 租约保存在hash中，field为 worker id，value为 "到期时间|持有者"；另用有序集合按到期时间索引已分配的id，
+ * 用计数器分配从未使用过的id。租用时先取一个已过期的id，没有时再从计数器分配新id，单次脚本只做有限次查询，
+ * 不会因遍历 worker id 空间阻塞Redis。通过Lua脚本保证原子性，派生key沿用hash key的hash tag，兼容集群模式。
+ * 租约到期时间使用应用节点时间，各节点时钟偏差需远小于租约时长
+ *
+ * @author zhouxinlei
+ */
+public class RedisWorkerIdLeaseStore implements WorkerIdLeaseStore {
+
+    /**
+     * 单次租用最多检查的已分配id数，兼容没有到期索引的旧租约数据
+     */
+    private static final int MAX_PROBES = 64;
+
+    private static final String LEASE_EXPIRE = "local function leaseExpire(id) " +
+            "local lease = redis.call('hget', KEYS[1], id) " +
+            "if not lease then return nil end " +
+            "return tonumber(string.sub(lease, 1, string.find(lease, '|', 1, true) - 1)) " +
+            "end ";
+
+    /**
+     * KEYS: leases, expires, sequence; ARGV: owner, now, leaseMillis, maxWorkerId, maxProbes
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(LEASE_EXPIRE +
+            "local now = tonumber(ARGV[2]) " +
+                    "local deadline = now + tonumber(ARGV[3]) " +
+                    "local max = tonumber(ARGV[4]) " +
+                    "local probes = tonumber(ARGV[5]) " +
+                    "local function take(id) " +
+                    "  redis.call('hset', KEYS[1], id, deadline .. '|' .. ARGV[1]) " +
+                    "  redis.call('zadd', KEYS[2], deadline, id) " +
+                    "  return id " +
+                    "end " +
+                    "for _, member in ipairs(redis.call('zrangebyscore', KEYS[2], '-inf', '(' .. now, 'LIMIT', 0, probes)) do " +
+                    "  local id = tonumber(member) " +
+                    "  if id <= max then " +
+                    "    local expire = leaseExpire(id) " +
+                    "    if (not expire) or expire < now then return take(id) end " +
+                    "    redis.call('zadd', KEYS[2], expire, id) " +
+                    "  end " +
+                    "end " +
+                    "for i = 1, probes do " +
+                    "  local id = redis.call('incr', KEYS[3]) - 1 " +
+                    "  if id > max then " +
+                    "    redis.call('decr', KEYS[3]) " +
+                    "    return -1 " +
+                    "  end " +
+                    "  local expire = leaseExpire(id) " +
+                    "  if (not expire) or expire < now then return take(id) end " +
+                    "  redis.call('zadd', KEYS[2], expire, id) " +
+                    "end " +
+                    "return -1", Long.class);
+
+    /**
+     * KEYS: leases, expires; ARGV: workerId, owner, now, leaseMillis
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[3]) " +
+                    "local lease = redis.call('hget', KEYS[1], ARGV[1]) " +
+                    "if lease then " +
+                    "  local index = string.find(lease, '|', 1, true) " +
+                    "  if string.sub(lease, index + 1) ~= ARGV[2] and tonumber(string.sub(lease, 1, index - 1)) >= now then " +
+                    "    return 0 " +
+                    "  end " +
+                    "end " +
+                    "local deadline = now + tonumber(ARGV[4]) " +
+                    "redis.call('hset', KEYS[1], ARGV[1], deadline .. '|' .. ARGV[2]) " +
+                    "redis.call('zadd', KEYS[2], deadline, ARGV[1]) " +
+                    "return 1", Long.class);
+
+    /**
+     * KEYS: leases, expires; ARGV: workerId, owner
+     * 释放后到期时间记为0，id可立即被复用
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local lease = redis.call('hget', KEYS[1], ARGV[1]) " +
+                    "if lease and string.sub(lease, string.find(lease, '|', 1, true) + 1) == ARGV[2] then " +
+                    "  redis.call('zadd', KEYS[2], 0, ARGV[1]) " +
+                    "  return redis.call('hdel', KEYS[1], ARGV[1]) " +
+                    "end " +
+                    "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final List<String> keys;
+    private final List<String> leaseKeys;
+
+    public RedisWorkerIdLeaseStore(StringRedisTemplate stringRedisTemplate, String key) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.keys = Arrays.asList(key, derivedKey(key, "expires"), derivedKey(key, "sequence"));
+        this.leaseKeys = keys.subList(0, 2);
+    }
+
+    @Override
+    public long acquire(String owner, long maxWorkerId, long leaseMillis) {
+        Long workerId = stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys, owner,
+                String.valueOf(System.currentTimeMillis()), String.valueOf(leaseMillis), String.valueOf(maxWorkerId),
+                String.valueOf(MAX_PROBES));
+        return workerId == null ? -1 : workerId;
+    }
+
+    @Override
+    public boolean renew(long workerId, String owner, long leaseMillis) {
+        Long result = stringRedisTemplate.execute(RENEW_SCRIPT, leaseKeys, String.valueOf(workerId), owner,
+                String.valueOf(System.currentTimeMillis()), String.valueOf(leaseMillis));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public void release(long workerId, String owner) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, leaseKeys, String.valueOf(workerId), owner);
+    }
+
+    /**
+     * 派生key与hash key在同一slot：已有hash tag时直接追加后缀，否则以hash key整体作为hash tag
+     */
+    private static String derivedKey(String key, String suffix) {
+        int start = key.indexOf('{');
+        int end = start < 0 ? -1 : key.indexOf('}', start + 1);
+        if (end > start + 1) {
+            return key + ":" + suffix;
+        }
+        return "{" + key + "}:" + suffix;
+    }
+}
@@ -0,0 +1,57 @@
+package com.baidu.fsg.uid.worker.lease;
+
+/**
+ * description: worker id 租约存储
+ * <p>
+ * worker id 以租约形式分配，持有者定期续约，租约过期或主动释放后的 worker id 可被其他节点复用
+ *
+ * @author zhouxinlei
+ */
+public interface WorkerIdLeaseStore {
+
+    /**
+     * 租用一个空闲或租约已过期的 worker id，共享存储优先复用已过期或已释放的id
+     *
+     * @param owner       租约持有者
+     * @param maxWorkerId 最大 worker id
+     * @param leaseMillis 租约时长，单位：毫秒
+     * @return worker id，没有可用id时返回-1
+     */
+    long acquire(String owner, long maxWorkerId, long leaseMillis);
+
+    /**
+     * 续约，租约已过期但未被其他节点占用时重新占用
+     *
+     * @param workerId    worker id
+     * @param owner       租约持有者
+     * @param leaseMillis 租约时长，单位：毫秒
+     * @return 是否续约成功，false表示已被其他节点占用
+     */
+    boolean renew(long workerId, String owner, long leaseMillis);
+
+    /**
+     * 释放租约
+     *
+     * @param workerId worker id
+     * @param owner    租约持有者
+     */
+    void release(long workerId, String owner);
+
+    /**
+     * 本地可信任的租约时长，租约由存储自身维持(如ZooKeeper会话)时不能超过存储判定租约失效的时长
+     *
+     * @param leaseMillis 配置的租约时长，单位：毫秒
+     * @return 租约时长，单位：毫秒
+     */
+    default long leaseMillis(long leaseMillis) {
+        return leaseMillis;
+    }
+
+    /**
+     * 注册租约丢失监听，存储能感知租约可能失效(如连接中断)时立即回调
+     *
+     * @param listener 监听
+     */
+    default void addLeaseLostListener(Runnable listener) {
+    }
+}
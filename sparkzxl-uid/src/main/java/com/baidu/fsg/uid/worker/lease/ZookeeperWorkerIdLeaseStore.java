@@ -0,0 +1,113 @@
+package com.baidu.fsg.uid.worker.lease;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * description: 基于ZooKeeper的 worker id 租约存储
+ * <p>
+ * 每个 worker id 对应一个临时节点，租约时长由ZooKeeper会话超时决定，会话失效后节点自动删除，id即可被复用。
+ * 本地租约时长不超过会话超时时间，连接挂起或丢失时立即通知租约丢失，会话恢复后由续约重新确认
+ *
+ * @author zhouxinlei
+ */
+public class ZookeeperWorkerIdLeaseStore implements WorkerIdLeaseStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZookeeperWorkerIdLeaseStore.class);
+
+    private final CuratorFramework curatorFramework;
+    private final String basePath;
+    private final List<Runnable> leaseLostListeners = new CopyOnWriteArrayList<>();
+
+    public ZookeeperWorkerIdLeaseStore(CuratorFramework curatorFramework, String basePath) {
+        this.curatorFramework = curatorFramework;
+        this.basePath = basePath;
+        // 连接中断期间会话可能已在服务端过期，临时节点被其他节点占用
+        curatorFramework.getConnectionStateListenable().addListener((client, newState) -> {
+            if (newState == ConnectionState.SUSPENDED || newState == ConnectionState.LOST) {
+                LOGGER.warn("Zookeeper connection {}, worker id lease may be lost", newState);
+                leaseLostListeners.forEach(Runnable::run);
+            }
+        });
+    }
+
+    @Override
+    public long leaseMillis(long leaseMillis) {
+        try {
+            int sessionTimeout = curatorFramework.getZookeeperClient().getZooKeeper().getSessionTimeout();
+            return sessionTimeout > 0 ? Math.min(leaseMillis, sessionTimeout) : leaseMillis;
+        } catch (Exception e) {
+            throw new IllegalStateException("Get zookeeper session timeout error: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void addLeaseLostListener(Runnable listener) {
+        leaseLostListeners.add(listener);
+    }
+
+    @Override
+    public long acquire(String owner, long maxWorkerId, long leaseMillis) {
+        for (long workerId = 0; workerId <= maxWorkerId; workerId++) {
+            if (create(workerId, owner)) {
+                return workerId;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean renew(long workerId, String owner, long leaseMillis) {
+        try {
+            byte[] data = curatorFramework.getData().forPath(path(workerId));
+            return owner.equals(new String(data, StandardCharsets.UTF_8));
+        } catch (KeeperException.NoNodeException e) {
+            // 会话过期后临时节点被删除，尝试重新占用
+            return create(workerId, owner);
+        } catch (Exception e) {
+            throw new IllegalStateException("Renew worker id lease error: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void release(long workerId, String owner) {
+        try {
+            Stat stat = new Stat();
+            byte[] data = curatorFramework.getData().storingStatIn(stat).forPath(path(workerId));
+            if (owner.equals(new String(data, StandardCharsets.UTF_8))) {
+                curatorFramework.delete().withVersion(stat.getVersion()).forPath(path(workerId));
+            }
+        } catch (KeeperException.NoNodeException e) {
+            LOGGER.debug("Worker id {} lease has been released", workerId);
+        } catch (Exception e) {
+            LOGGER.warn("Release worker id {} lease error: {}", workerId, e.getMessage());
+        }
+    }
+
+    private boolean create(long workerId, String owner) {
+        try {
+            curatorFramework.create()
+                    .creatingParentContainersIfNeeded()
+                    .withMode(CreateMode.EPHEMERAL)
+                    .forPath(path(workerId), owner.getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (KeeperException.NodeExistsException e) {
+            return false;
+        } catch (Exception e) {
+            throw new IllegalStateException("Acquire worker id lease error: " + e.getMessage(), e);
+        }
+    }
+
+    private String path(long workerId) {
+        return basePath + "/" + workerId;
+    }
+}